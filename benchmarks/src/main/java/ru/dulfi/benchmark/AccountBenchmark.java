@@ -0,0 +1,87 @@
+package ru.dulfi.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.dulfi.domain.Account;
+import ru.dulfi.domain.AccountBuilder;
+import ru.dulfi.domain.FixedPointAccount;
+import ru.dulfi.exceptions.InsufficientFundsException;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение представлений баланса: {@link BigDecimal} против {@code long} в минимальных единицах.
+ * Запуск через {@link #main(String[])} включает профилировщик аллокаций.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountBenchmark {
+    @Param({"DECIMAL", "FIXED_POINT"})
+    public String representation;
+
+    private Account account;
+    private BigDecimal amount;
+
+    @Setup
+    public void setUp() {
+        AccountBuilder builder = new AccountBuilder()
+                .accountNumber("benchmark")
+                .balance(new BigDecimal("1000000.00"));
+        if (representation.equals("FIXED_POINT")) {
+            builder.fixedPoint(2);
+        }
+        account = builder.build();
+        amount = new BigDecimal("12.34");
+    }
+
+    @Benchmark
+    public void depositWithdraw() throws InsufficientFundsException {
+        account.deposit(amount);
+        account.withdraw(amount);
+    }
+
+    @Benchmark
+    public void depositWithdrawBalance(Blackhole blackhole) throws InsufficientFundsException {
+        account.deposit(amount);
+        account.withdraw(amount);
+        blackhole.consume(account.getBalance());
+    }
+
+    @Benchmark
+    public long depositWithdrawUnits() throws InsufficientFundsException {
+        if (account instanceof FixedPointAccount fixed) {
+            fixed.depositUnits(1234);
+            fixed.withdrawUnits(1234);
+            return fixed.getBalanceUnits();
+        }
+        account.deposit(amount);
+        account.withdraw(amount);
+        return account.getBalance().signum();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AccountBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
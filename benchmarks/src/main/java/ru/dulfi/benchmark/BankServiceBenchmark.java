@@ -0,0 +1,129 @@
+package ru.dulfi.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.dulfi.domain.Account;
+import ru.dulfi.domain.Operation;
+import ru.dulfi.exceptions.AccountNotFoundException;
+import ru.dulfi.exceptions.InsufficientFundsException;
+import ru.dulfi.service.BankService;
+import ru.dulfi.service.BankServiceImp;
+import ru.dulfi.service.ConcurrentBankService;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Операции {@link BankService} на заранее созданном наборе счетов.
+ * Число потоков задаётся при запуске ({@code -t} или {@link BenchmarkRunner});
+ * {@link BankServiceImp} не потокобезопасен и имеет смысл только с одним потоком.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class BankServiceBenchmark {
+    private static final BigDecimal INITIAL_BALANCE = BigDecimal.valueOf(1_000_000_000L);
+    private static final BigDecimal AMOUNT = BigDecimal.valueOf(10);
+    private static final int HISTORY_LENGTH = 16;
+
+    @Param({"ConcurrentBankService", "BankServiceImp"})
+    public String implementation;
+
+    @Param({"10000", "1000000"})
+    public int accounts;
+
+    private BankService bankService;
+    private String[] accountNumbers;
+
+    @Setup(Level.Trial)
+    public void setUp() throws AccountNotFoundException {
+        bankService = newBankService(implementation);
+        accountNumbers = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            accountNumbers[i] = bankService.createAccount(INITIAL_BALANCE).getAccountNumber();
+        }
+        for (int i = 0; i < accounts; i += 64) {
+            for (int j = 1; j < HISTORY_LENGTH; j++) {
+                bankService.deposit(accountNumbers[i], AMOUNT);
+            }
+        }
+    }
+
+    /**
+     * Состояние потока: собственный генератор номеров счетов без разделяемых атомиков.
+     */
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private final SplittableRandom random = new SplittableRandom();
+
+        String next(String[] accountNumbers) {
+            return accountNumbers[random.nextInt(accountNumbers.length)];
+        }
+
+        String nextWithHistory(String[] accountNumbers) {
+            return accountNumbers[random.nextInt((accountNumbers.length + 63) / 64) * 64];
+        }
+    }
+
+    /**
+     * Пустой сервис для {@link #createAccount(EmptyServiceState)}, пересоздаётся на каждой итерации,
+     * чтобы число созданных счетов не росло неограниченно.
+     */
+    @State(Scope.Benchmark)
+    public static class EmptyServiceState {
+        private BankService bankService;
+
+        @Setup(Level.Iteration)
+        public void setUp(BankServiceBenchmark benchmark) {
+            bankService = newBankService(benchmark.implementation);
+        }
+    }
+
+    @Benchmark
+    public Account createAccount(EmptyServiceState state) {
+        return state.bankService.createAccount(INITIAL_BALANCE);
+    }
+
+    @Benchmark
+    public void deposit(ThreadState state) throws AccountNotFoundException {
+        bankService.deposit(state.next(accountNumbers), AMOUNT);
+    }
+
+    @Benchmark
+    public void withdraw(ThreadState state) throws AccountNotFoundException, InsufficientFundsException {
+        bankService.withdraw(state.next(accountNumbers), AMOUNT);
+    }
+
+    @Benchmark
+    public BigDecimal getBalance(ThreadState state) throws AccountNotFoundException {
+        return bankService.getBalance(state.next(accountNumbers));
+    }
+
+    @Benchmark
+    public List<Operation> getOperations(ThreadState state) throws AccountNotFoundException {
+        return bankService.getOperations(state.nextWithHistory(accountNumbers));
+    }
+
+    private static BankService newBankService(String implementation) {
+        return switch (implementation) {
+            case "ConcurrentBankService" -> new ConcurrentBankService();
+            case "BankServiceImp" -> new BankServiceImp();
+            default -> throw new IllegalArgumentException("Неизвестная реализация: " + implementation);
+        };
+    }
+}
@@ -0,0 +1,47 @@
+package ru.dulfi.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Полный прогон {@link BankServiceBenchmark} с профилировщиком аллокаций.
+ * <p>
+ * {@code ConcurrentBankService} измеряется на 1, 2, 4, ..., 64 потоках, {@code BankServiceImp} —
+ * только на одном. Результаты каждого прогона пишутся в {@code bank-service-<потоки>.json}
+ * для сравнения между сборками:
+ * <pre>
+ * mvn -pl benchmarks -am package -DskipTests
+ * java -cp benchmarks/target/benchmarks.jar ru.dulfi.benchmark.BenchmarkRunner
+ * </pre>
+ * Отдельные бенчмарки запускаются обычным образом: {@code java -jar benchmarks/target/benchmarks.jar -prof gc}.
+ */
+public final class BenchmarkRunner {
+    private static final int MAX_THREADS = 64;
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(options(1)
+                .param("implementation", "BankServiceImp", "ConcurrentBankService")
+                .build()).run();
+        for (int threads = 2; threads <= MAX_THREADS; threads *= 2) {
+            new Runner(options(threads)
+                    .param("implementation", "ConcurrentBankService")
+                    .build()).run();
+        }
+    }
+
+    private static ChainedOptionsBuilder options(int threads) {
+        return new OptionsBuilder()
+                .include(BankServiceBenchmark.class.getSimpleName())
+                .threads(threads)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("bank-service-" + threads + ".json");
+    }
+}
@@ -0,0 +1,65 @@
+package ru.dulfi.benchmark;
+
+import org.openjdk.jol.info.GraphLayout;
+import ru.dulfi.domain.Operation;
+import ru.dulfi.storage.OperationJournal;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Сравнение занимаемой памяти двумя представлениями истории счёта.
+ * <p>
+ * «Объекты» — массив {@link Operation}, как история хранилась до колоночного журнала: на каждую операцию
+ * приходятся сам объект, {@link BigDecimal} и {@link LocalDateTime} с датой и временем.
+ * «Колонки» — {@link OperationJournal} с теми же операциями. Размеры считаются по графу достижимых
+ * объектов (JOL) без номера счёта, который в обоих случаях один:
+ * <pre>
+ * mvn -pl benchmarks -am package -DskipTests
+ * java -cp benchmarks/target/benchmarks.jar ru.dulfi.benchmark.OperationFootprintReport
+ * </pre>
+ */
+public final class OperationFootprintReport {
+    private static final int[] HISTORY_LENGTHS = {1, 4, 16, 64, 1_024, 65_536};
+    private static final String[] TYPES = {"DEPOSIT", "WITHDRAW", "TRANSFER_OUT", "TRANSFER_IN"};
+
+    private OperationFootprintReport() {
+    }
+
+    public static void main(String[] args) {
+        System.out.printf("%10s %14s %14s %12s %12s %8s%n",
+                "операций", "объекты, Б", "колонки, Б", "объекты/оп", "колонки/оп", "выигрыш");
+        for (int length : HISTORY_LENGTHS) {
+            Operation[] operations = generate(length);
+            OperationJournal journal = new OperationJournal(operations[0].getAccountNumber());
+            for (Operation operation : operations) {
+                journal.append(operation);
+            }
+            long objects = GraphLayout.parseInstance((Object) operations).totalSize() - accountNumberSize(operations[0]);
+            long columns = GraphLayout.parseInstance(journal).totalSize() - accountNumberSize(operations[0]);
+            System.out.printf("%10d %14d %14d %12.1f %12.1f %7.1fx%n",
+                    length, objects, columns, (double) objects / length, (double) columns / length,
+                    (double) objects / columns);
+        }
+    }
+
+    private static Operation[] generate(int length) {
+        SplittableRandom random = new SplittableRandom(42);
+        String accountNumber = UUID.randomUUID().toString();
+        LocalDateTime time = LocalDateTime.now();
+        Operation[] operations = new Operation[length];
+        operations[0] = new Operation(accountNumber, "CREATE_ACCOUNT", BigDecimal.valueOf(100_000, 2), time);
+        for (int i = 1; i < length; i++) {
+            time = time.plusNanos(random.nextLong(1_000, 10_000_000));
+            operations[i] = new Operation(accountNumber, TYPES[random.nextInt(TYPES.length)],
+                    BigDecimal.valueOf(random.nextLong(1, 1_000_000), 2), time);
+        }
+        return operations;
+    }
+
+    private static long accountNumberSize(Operation operation) {
+        return GraphLayout.parseInstance(operation.getAccountNumber()).totalSize();
+    }
+}
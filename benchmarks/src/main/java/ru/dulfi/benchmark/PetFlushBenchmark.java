@@ -0,0 +1,130 @@
+package ru.dulfi.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.hibernate.cfg.AvailableSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.dulfi.dao.BaseDao;
+import ru.dulfi.domain.Pet;
+import ru.dulfi.domain.PetColor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость {@code flush} большой сессии lab2: в контексте постоянства {@code sessionSize} питомцев
+ * с друзьями, между сбросами меняется {@code modified} из них.
+ * <p>
+ * Без улучшения байткода Hibernate при каждом сбросе сравнивает все поля всех сущностей со снимками;
+ * с улучшением (сборка lab2 по умолчанию) он читает только отметки об изменениях, записанные
+ * сеттерами. Для сравнения соберите бенчмарки дважды:
+ * <pre>
+ * mvn -pl benchmarks -am package -DskipTests
+ * mvn -pl benchmarks -am package -DskipTests -Dhibernate.enhance.phase=none
+ * java -jar benchmarks/target/benchmarks.jar PetFlushBenchmark
+ * </pre>
+ * Используется H2 в памяти, PostgreSQL не нужен.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PetFlushBenchmark {
+    private static final PetColor[] COLORS = PetColor.values();
+
+    @Param({"1000", "10000"})
+    public int sessionSize;
+
+    @Param({"10"})
+    public int modified;
+
+    private EntityManagerFactory factory;
+    private EntityManager entityManager;
+    private List<Pet> pets;
+    private int round;
+
+    @Setup(Level.Trial)
+    public void setUpDatabase() {
+        factory = Persistence.createEntityManagerFactory("default", Map.of(
+                AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:flush;DB_CLOSE_DELAY=-1",
+                AvailableSettings.DIALECT, "org.hibernate.dialect.H2Dialect",
+                AvailableSettings.HBM2DDL_AUTO, "create-drop",
+                AvailableSettings.ALLOW_METADATA_ON_BOOT, true,
+                AvailableSettings.USE_SECOND_LEVEL_CACHE, false,
+                AvailableSettings.USE_QUERY_CACHE, false,
+                AvailableSettings.GENERATE_STATISTICS, false
+        ));
+        EntityManager em = factory.createEntityManager();
+        em.getTransaction().begin();
+        Pet previous = null;
+        for (int i = 0; i < sessionSize; i++) {
+            Pet pet = new Pet();
+            pet.setName("pet-" + i);
+            pet.setBirthDate(LocalDate.of(2015, 1, 1).plusDays(i % 3_000));
+            pet.setBreed("breed-" + i % 50);
+            pet.setColor(COLORS[i % COLORS.length]);
+            if (previous != null) {
+                pet.getFriends().add(previous);
+            }
+            em.persist(pet);
+            previous = pet;
+            if ((i + 1) % BaseDao.BATCH_SIZE == 0) {
+                em.flush();
+                em.clear();
+                previous = em.getReference(Pet.class, pet.getId());
+            }
+        }
+        em.getTransaction().commit();
+        em.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void openSession() {
+        entityManager = factory.createEntityManager();
+        entityManager.getTransaction().begin();
+        pets = entityManager.createQuery("SELECT p FROM Pet p LEFT JOIN FETCH p.friends ORDER BY p.id", Pet.class)
+                .getResultList();
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeSession() {
+        entityManager.getTransaction().commit();
+        entityManager.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Benchmark
+    public void flushModified() {
+        round++;
+        for (int i = 0; i < modified; i++) {
+            pets.get((round * modified + i) % pets.size()).setBreed("breed-" + round);
+        }
+        entityManager.flush();
+    }
+
+    @Benchmark
+    public void flushUnchanged() {
+        entityManager.flush();
+    }
+}
@@ -0,0 +1,93 @@
+package ru.dulfi.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.dulfi.dao.PetDao;
+import ru.dulfi.db.DatabaseInitializer;
+import ru.dulfi.db.EntityManagerUtil;
+import ru.dulfi.domain.Pet;
+import ru.dulfi.domain.PetColor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Загрузка питомцев в PostgreSQL из lab2: один {@link PetDao#saveAll} с пакетной вставкой
+ * против отдельного {@link PetDao#save} (своя транзакция) на каждого питомца.
+ * <p>
+ * Нужна работающая база из {@code database.properties} lab2; адрес можно переопределить
+ * системными свойствами {@code db.url}, {@code db.username}, {@code db.password}:
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar PetImportBenchmark -jvmArgsAppend -Ddb.url=jdbc:postgresql://host/db
+ * </pre>
+ * Перед каждым измерением таблица питомцев очищается.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PetImportBenchmark {
+    private static final PetColor[] COLORS = PetColor.values();
+
+    @Param({"10000"})
+    public int pets;
+
+    private PetDao petDao;
+    private List<Pet> batch;
+
+    @Setup(Level.Trial)
+    public void setUpDatabase() {
+        DatabaseInitializer.initialize();
+        petDao = new PetDao();
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        petDao.deleteAll();
+        batch = new ArrayList<>(pets);
+        for (int i = 0; i < pets; i++) {
+            Pet pet = new Pet();
+            pet.setName("pet-" + i);
+            pet.setBirthDate(LocalDate.of(2015, 1, 1).plusDays(i % 3_000));
+            pet.setBreed("breed-" + i % 50);
+            pet.setColor(COLORS[i % COLORS.length]);
+            batch.add(pet);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        petDao.deleteAll();
+        EntityManagerUtil.close();
+    }
+
+    @Benchmark
+    public int saveAll() {
+        return petDao.saveAll(batch).size();
+    }
+
+    @Benchmark
+    public int savePerEntity() {
+        int saved = 0;
+        for (Pet pet : batch) {
+            petDao.save(pet);
+            saved++;
+        }
+        return saved;
+    }
+}
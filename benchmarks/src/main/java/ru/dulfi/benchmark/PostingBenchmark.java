@@ -0,0 +1,83 @@
+package ru.dulfi.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.dulfi.domain.DailyPostingPolicy;
+import ru.dulfi.domain.PostingPolicy;
+import ru.dulfi.domain.PostingReport;
+import ru.dulfi.exceptions.AccountNotFoundException;
+import ru.dulfi.exceptions.InsufficientFundsException;
+import ru.dulfi.service.BankService;
+import ru.dulfi.service.BankServiceImp;
+import ru.dulfi.service.ConcurrentBankService;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ежедневное начисление процентов и комиссий по всем счетам: пакетный {@link BankService#post(PostingPolicy)}
+ * против последовательных вызовов {@code deposit}/{@code withdraw} по каждому счёту.
+ * Каждое измерение — один прогон по свежему набору счетов.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class PostingBenchmark {
+    private static final PostingPolicy POLICY = new DailyPostingPolicy(
+            new BigDecimal("0.05"), BigDecimal.ONE, BigDecimal.valueOf(1_000), 2);
+
+    @Param({"ConcurrentBankService", "BankServiceImp"})
+    public String implementation;
+
+    @Param({"1000000"})
+    public int accounts;
+
+    private BankService bankService;
+    private String[] accountNumbers;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        bankService = implementation.equals("BankServiceImp") ? new BankServiceImp() : new ConcurrentBankService();
+        accountNumbers = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            accountNumbers[i] = bankService.createAccount(BigDecimal.valueOf(i % 2_000)).getAccountNumber();
+        }
+    }
+
+    @Benchmark
+    public PostingReport batch() {
+        return bankService.post(POLICY);
+    }
+
+    @Benchmark
+    public int serial() throws AccountNotFoundException, InsufficientFundsException {
+        int postings = 0;
+        for (String accountNumber : accountNumbers) {
+            BigDecimal balance = bankService.getBalance(accountNumber);
+            BigDecimal interest = POLICY.interest(balance);
+            if (interest.signum() > 0) {
+                bankService.deposit(accountNumber, interest);
+                postings++;
+            }
+            BigDecimal fee = POLICY.fee(balance.add(interest)).min(balance.add(interest));
+            if (fee.signum() > 0) {
+                bankService.withdraw(accountNumber, fee);
+                postings++;
+            }
+        }
+        return postings;
+    }
+}
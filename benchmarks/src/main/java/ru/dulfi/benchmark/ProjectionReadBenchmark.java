@@ -0,0 +1,113 @@
+package ru.dulfi.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.dulfi.dao.OwnerDao;
+import ru.dulfi.dao.PetDao;
+import ru.dulfi.db.DatabaseInitializer;
+import ru.dulfi.db.EntityManagerUtil;
+import ru.dulfi.domain.Owner;
+import ru.dulfi.domain.Pet;
+import ru.dulfi.domain.PetColor;
+import ru.dulfi.dto.OwnerView;
+import ru.dulfi.dto.PetView;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Чтение владельцев с питомцами и питомцев с владельцами в lab2: управляемые сущности через
+ * {@code SELECT DISTINCT ... LEFT JOIN FETCH} против read-only проекций в записи {@link OwnerView}
+ * и {@link PetView}.
+ * <p>
+ * Нужна работающая база из {@code database.properties} lab2. Расход памяти на операцию
+ * показывает профилировщик GC:
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar ProjectionReadBenchmark -prof gc
+ * </pre>
+ * Смотреть на {@code gc.alloc.rate.norm}: это байты, выделенные на одно чтение.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectionReadBenchmark {
+    private static final PetColor[] COLORS = PetColor.values();
+
+    @Param({"2000"})
+    public int owners;
+
+    @Param({"5"})
+    public int petsPerOwner;
+
+    private OwnerDao ownerDao;
+    private PetDao petDao;
+
+    @Setup
+    public void setUp() {
+        DatabaseInitializer.initialize();
+        ownerDao = new OwnerDao();
+        petDao = new PetDao();
+        petDao.deleteAll();
+        ownerDao.deleteAll();
+
+        List<Owner> batch = new ArrayList<>(owners);
+        for (int i = 0; i < owners; i++) {
+            Owner owner = new Owner();
+            owner.setName("owner-" + i);
+            owner.setBirthDate(LocalDate.of(1970, 1, 1).plusDays(i % 10_000));
+            for (int j = 0; j < petsPerOwner; j++) {
+                Pet pet = new Pet();
+                pet.setName("pet-" + i + "-" + j);
+                pet.setBirthDate(LocalDate.of(2015, 1, 1).plusDays((i + j) % 3_000));
+                pet.setBreed("breed-" + j);
+                pet.setColor(COLORS[(i + j) % COLORS.length]);
+                pet.setOwner(owner);
+                owner.getPets().add(pet);
+            }
+            batch.add(owner);
+        }
+        ownerDao.saveAll(batch);
+    }
+
+    @TearDown
+    public void tearDown() {
+        petDao.deleteAll();
+        ownerDao.deleteAll();
+        EntityManagerUtil.close();
+    }
+
+    @Benchmark
+    public List<Owner> ownersWithPetsEntities() {
+        return ownerDao.getAllWithPets();
+    }
+
+    @Benchmark
+    public List<OwnerView> ownersWithPetsProjection() {
+        return ownerDao.getAllViewsWithPets();
+    }
+
+    @Benchmark
+    public List<Pet> petsWithOwnersEntities() {
+        return petDao.getAllWithOwners();
+    }
+
+    @Benchmark
+    public List<PetView> petsWithOwnersProjection() {
+        return petDao.getAllViews();
+    }
+}
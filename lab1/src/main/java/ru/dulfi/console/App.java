@@ -1,19 +1,35 @@
 package ru.dulfi.console;
 
 import ru.dulfi.domain.Account;
+import ru.dulfi.domain.ExportReport;
 import ru.dulfi.exceptions.AccountNotFoundException;
 import ru.dulfi.exceptions.InsufficientFundsException;
+import ru.dulfi.metrics.BankMetrics;
+import ru.dulfi.metrics.MetricsReporter;
 import ru.dulfi.service.BankService;
 import ru.dulfi.service.BankServiceImp;
+import ru.dulfi.service.InstrumentedBankService;
+import ru.dulfi.service.StatementExporter;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Scanner;
 
 /**
  * Точка входа в консольное приложение T-Bank.
  * Позволяет пользователю создавать счёт, проверять баланс, пополнять и снимать деньги, а также просматривать историю операций.
+ * <p>
+ * Метрики сервиса публикуются в JMX как {@code ru.dulfi:type=BankMetrics,name="app"}. Системное свойство
+ * {@value #METRICS_INTERVAL_PROPERTY} включает печать отчёта метрик в консоль с заданным интервалом в секундах.
  */
 public class App {
+    /**
+     * Системное свойство с интервалом печати метрик в секундах.
+     */
+    public static final String METRICS_INTERVAL_PROPERTY = "bank.metrics.interval";
+
     /**
      * Конструктор по умолчанию для класса App.
      */
@@ -24,7 +40,14 @@ public class App {
      * @param args Аргументы командной строки.
      */
     public static void main(String[] args) {
-        BankService bankService = new BankServiceImp();
+        BankMetrics metrics = new BankMetrics();
+        metrics.register("app");
+        BankServiceImp bankServiceImp = new BankServiceImp();
+        BankService bankService = new InstrumentedBankService(bankServiceImp, metrics);
+        long metricsInterval = Long.getLong(METRICS_INTERVAL_PROPERTY, 0);
+        if (metricsInterval > 0) {
+            new MetricsReporter(metrics, System.out, Duration.ofSeconds(metricsInterval));
+        }
 
         Scanner scanner = new Scanner(System.in);
         System.out.println("Добро пожаловать в T-Bank!");
@@ -35,6 +58,7 @@ public class App {
             System.out.println("3. Пополнить счёт");
             System.out.println("4. Снять деньги");
             System.out.println("5. Посмотреть историю операций");
+            System.out.println("6. Выгрузить выписки по всем счетам");
             System.out.println("0. Выход");
             System.out.print(">>> ");
             String choice = scanner.nextLine();
@@ -111,6 +135,20 @@ public class App {
                     }
                     break;
 
+                case "6":
+                    System.out.print("Введите путь к файлу: ");
+                    Path file = Path.of(scanner.nextLine());
+                    System.out.print("Формат (CSV/BINARY): ");
+                    try {
+                        StatementExporter.Format format = StatementExporter.Format.valueOf(scanner.nextLine().trim().toUpperCase());
+                        ExportReport report = new StatementExporter().export(bankServiceImp, file, format);
+                        System.out.printf("Выгружено счетов: %d, операций: %d, %.1f МБ/с\n",
+                                report.getAccounts(), report.getOperations(), report.getMegabytesPerSecond());
+                    } catch (IllegalArgumentException | IOException e) {
+                        System.out.println("Ошибка: " + e.getMessage());
+                    }
+                    break;
+
                 case "0":
                     System.out.println("Выход из программы...");
                     scanner.close();
@@ -6,6 +6,7 @@ import java.math.BigDecimal;
 
 /**
  * Класс, представляющий банковский счёт.
+ * Баланс хранится в {@link BigDecimal}; альтернативное представление — {@link FixedPointAccount}.
  */
 @Getter
 public class Account {
@@ -20,6 +21,14 @@ public class Account {
      */
     private BigDecimal balance;
 
+    /**
+     * Конструктор для наследников, которые хранят баланс в собственном представлении.
+     * @param accountNumber уникальный идентификатор счёта.
+     */
+    protected Account(String accountNumber) {
+        this.accountNumber = accountNumber;
+    }
+
     /**
      * Конструктор для создания нового аккаунта.
      * @param accountNumber уникальный идентификатор счёта.
@@ -59,6 +68,6 @@ public class Account {
         if (balance.compareTo(amount) < 0) {
             throw new InsufficientFundsException("Недостаточно средств");
         }
-        this.balance = this.balance.add(amount);
+        this.balance = this.balance.subtract(amount);
     }
 }
\ No newline at end of file
@@ -4,10 +4,13 @@ import java.math.BigDecimal;
 
 /**
  * Builder для создания объектов {@link Account}.
+ * По умолчанию баланс хранится в {@link BigDecimal}; после {@link #fixedPoint(int)}
+ * создаётся {@link FixedPointAccount} с балансом в минимальных единицах.
  */
 public class AccountBuilder {
     private String accountNumber;
     private BigDecimal balance = BigDecimal.ZERO;
+    private int fixedPointScale = -1;
     /**
      * Конструктор по умолчанию
      */
@@ -33,11 +36,24 @@ public class AccountBuilder {
         return this;
     }
 
+    /**
+     * Выбирает представление баланса в целых минимальных единицах.
+     * @param scale число знаков после запятой в минимальной единице (2 для копеек)
+     * @return текущий экземпляр билдера
+     */
+    public AccountBuilder fixedPoint(int scale) {
+        this.fixedPointScale = scale;
+        return this;
+    }
+
     /**
      * Создаёт объект {@link Account} с заданными параметрами.
      * @return новый экземпляр {@link Account}
      */
     public Account build() {
+        if (fixedPointScale >= 0) {
+            return new FixedPointAccount(accountNumber, balance, fixedPointScale);
+        }
         return new Account(accountNumber, balance);
     }
 }
@@ -0,0 +1,83 @@
+package ru.dulfi.domain;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Формат номеров счетов из 16 цифр идентификатора и контрольной цифры по алгоритму Луна.
+ * Контрольная цифра отсекает опечатки в одной цифре и перестановки соседних цифр ещё до поиска счёта.
+ */
+final class AccountNumberFormat {
+    /**
+     * Наибольший идентификатор, который помещается в номер.
+     */
+    static final long MAX_ID = 9_999_999_999_999_999L;
+
+    private static final int ID_DIGITS = 16;
+    private static final int LENGTH = ID_DIGITS + 1;
+
+    private AccountNumberFormat() {
+    }
+
+    /**
+     * Форматирует идентификатор в номер счёта.
+     * @param id идентификатор от 1 до {@link #MAX_ID}
+     * @return номер счёта
+     */
+    static String format(long id) {
+        byte[] digits = new byte[LENGTH];
+        long rest = id;
+        for (int i = ID_DIGITS - 1; i >= 0; i--) {
+            digits[i] = (byte) ('0' + rest % 10);
+            rest /= 10;
+        }
+        digits[ID_DIGITS] = (byte) ('0' + checkDigit(id));
+        return new String(digits, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Разбирает номер счёта без создания объектов.
+     * @param accountNumber номер счёта
+     * @return идентификатор или {@link AccountNumberGenerator#NO_KEY}, если номер не в этом формате
+     *         или контрольная цифра не сходится
+     */
+    static long parse(String accountNumber) {
+        if (accountNumber == null || accountNumber.length() != LENGTH) {
+            return AccountNumberGenerator.NO_KEY;
+        }
+        long id = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            int digit = accountNumber.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return AccountNumberGenerator.NO_KEY;
+            }
+            if (i < ID_DIGITS) {
+                id = id * 10 + digit;
+            } else if (digit != checkDigit(id)) {
+                return AccountNumberGenerator.NO_KEY;
+            }
+        }
+        return id > 0 ? id : AccountNumberGenerator.NO_KEY;
+    }
+
+    /**
+     * Вычисляет контрольную цифру Луна для идентификатора.
+     * @param id идентификатор
+     * @return контрольная цифра
+     */
+    private static int checkDigit(long id) {
+        int sum = 0;
+        boolean doubled = true;
+        for (long rest = id; rest > 0; rest /= 10) {
+            int digit = (int) (rest % 10);
+            if (doubled) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubled = !doubled;
+        }
+        return (10 - sum % 10) % 10;
+    }
+}
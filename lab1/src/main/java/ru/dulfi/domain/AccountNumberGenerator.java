@@ -0,0 +1,38 @@
+package ru.dulfi.domain;
+
+/**
+ * Источник номеров новых счетов.
+ * <p>
+ * Генератор также переводит свои номера в положительный {@code long}-ключ, по которому сервис ищет счёт
+ * без хеширования строки. Номера, которые генератор не распознаёт (например, созданные другим
+ * генератором до перезапуска), получают {@link #NO_KEY} и ищутся по строке.
+ */
+public interface AccountNumberGenerator {
+    /**
+     * Ключ номера, который генератор не распознаёт.
+     */
+    long NO_KEY = -1;
+
+    /**
+     * Возвращает новый номер счёта.
+     * @return номер счёта
+     */
+    String next();
+
+    /**
+     * Переводит номер счёта в ключ без создания объектов.
+     * Разные номера, распознанные генератором, дают разные ключи.
+     * @param accountNumber номер счёта
+     * @return положительный ключ или {@link #NO_KEY}
+     */
+    long toKey(String accountNumber);
+
+    /**
+     * Сообщает генератору о существующем счёте с заданным ключом, например при восстановлении,
+     * чтобы он не выдал этот номер повторно.
+     * Реализация по умолчанию ничего не делает.
+     * @param key ключ существующего счёта
+     */
+    default void observe(long key) {
+    }
+}
@@ -0,0 +1,52 @@
+package ru.dulfi.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Ежедневное начисление: проценты по годовой ставке за один день и фиксированная комиссия
+ * для счетов с балансом ниже порога.
+ * Проценты округляются до заданного числа знаков по банковскому правилу ({@link RoundingMode#HALF_EVEN}).
+ */
+public class DailyPostingPolicy implements PostingPolicy {
+    /**
+     * Число дней в году для расчёта дневной ставки.
+     */
+    public static final int DAYS_IN_YEAR = 365;
+
+    private final BigDecimal annualRate;
+    private final BigDecimal dailyFee;
+    private final BigDecimal feeFreeBalance;
+    private final int scale;
+
+    /**
+     * Конструктор правил начисления.
+     * @param annualRate годовая ставка, например {@code 0.05} для 5%
+     * @param dailyFee дневная комиссия
+     * @param feeFreeBalance баланс, начиная с которого комиссия не списывается
+     * @param scale число знаков после запятой в суммах процентов
+     * @throws IllegalArgumentException если ставка, комиссия, порог или число знаков отрицательные
+     */
+    public DailyPostingPolicy(BigDecimal annualRate, BigDecimal dailyFee, BigDecimal feeFreeBalance, int scale) {
+        if (annualRate.signum() < 0 || dailyFee.signum() < 0 || feeFreeBalance.signum() < 0 || scale < 0) {
+            throw new IllegalArgumentException("Ставка, комиссия, порог и число знаков не могут быть отрицательными");
+        }
+        this.annualRate = annualRate;
+        this.dailyFee = dailyFee;
+        this.feeFreeBalance = feeFreeBalance;
+        this.scale = scale;
+    }
+
+    @Override
+    public BigDecimal interest(BigDecimal balance) {
+        if (balance.signum() <= 0 || annualRate.signum() == 0) {
+            return BigDecimal.ZERO;
+        }
+        return balance.multiply(annualRate).divide(BigDecimal.valueOf(DAYS_IN_YEAR), scale, RoundingMode.HALF_EVEN);
+    }
+
+    @Override
+    public BigDecimal fee(BigDecimal balance) {
+        return balance.compareTo(feeFreeBalance) < 0 ? dailyFee : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,52 @@
+package ru.dulfi.domain;
+
+import lombok.Getter;
+
+/**
+ * Итоги выгрузки выписок по счетам.
+ */
+@Getter
+public class ExportReport {
+    /**
+     * -- GETTER --
+     *  Возвращает число выгруженных счетов.
+     */
+    private final long accounts;
+    /**
+     * -- GETTER --
+     *  Возвращает число выгруженных операций.
+     */
+    private final long operations;
+    /**
+     * -- GETTER --
+     *  Возвращает размер выгрузки в байтах.
+     */
+    private final long bytes;
+    /**
+     * -- GETTER --
+     *  Возвращает длительность выгрузки в наносекундах.
+     */
+    private final long elapsedNanos;
+
+    /**
+     * Конструктор отчёта.
+     * @param accounts число выгруженных счетов
+     * @param operations число выгруженных операций
+     * @param bytes размер выгрузки в байтах
+     * @param elapsedNanos длительность выгрузки в наносекундах
+     */
+    public ExportReport(long accounts, long operations, long bytes, long elapsedNanos) {
+        this.accounts = accounts;
+        this.operations = operations;
+        this.bytes = bytes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Возвращает скорость выгрузки.
+     * @return мегабайт (10^6 байт) в секунду
+     */
+    public double getMegabytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : bytes * 1e3 / elapsedNanos;
+    }
+}
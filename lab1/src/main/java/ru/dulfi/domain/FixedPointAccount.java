@@ -0,0 +1,138 @@
+package ru.dulfi.domain;
+
+import ru.dulfi.exceptions.InsufficientFundsException;
+
+import java.math.BigDecimal;
+
+/**
+ * Банковский счёт с балансом в целых минимальных единицах (например, копейках).
+ * <p>
+ * Баланс хранится в примитивном {@code long} с фиксированным числом знаков после запятой,
+ * поэтому методы {@link #depositUnits(long)} и {@link #withdrawUnits(long)} не создают объектов.
+ * Суммы в {@link BigDecimal} переводятся в минимальные единицы без округления: сумма, которую
+ * нельзя точно представить с заданным числом знаков, отклоняется с {@link ArithmeticException},
+ * как и переполнение баланса. Сравнение сумм и проверки совпадают с {@link Account}, но
+ * {@link #getBalance()} всегда возвращает значение с масштабом счёта.
+ */
+public class FixedPointAccount extends Account {
+    /**
+     * Максимальное число знаков после запятой, при котором единица валюты помещается в {@code long}.
+     */
+    public static final int MAX_SCALE = 18;
+
+    private final int scale;
+    private long balanceUnits;
+
+    /**
+     * Конструктор для создания нового аккаунта.
+     * @param accountNumber уникальный идентификатор счёта.
+     * @param initialBalance начальный баланс счёта, не может быть отрицательным
+     * @param scale число знаков после запятой в минимальной единице, от 0 до {@link #MAX_SCALE}
+     * @throws IllegalArgumentException если начальный баланс отрицательный или масштаб вне диапазона
+     * @throws ArithmeticException если начальный баланс нельзя точно представить в минимальных единицах
+     */
+    public FixedPointAccount(String accountNumber, BigDecimal initialBalance, int scale) {
+        super(accountNumber);
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new IllegalArgumentException("Число знаков после запятой должно быть от 0 до " + MAX_SCALE);
+        }
+        if (initialBalance.signum() < 0) {
+            throw new IllegalArgumentException("Начальный баланс не может быть отрицательным");
+        }
+        this.scale = scale;
+        this.balanceUnits = toUnits(initialBalance);
+    }
+
+    /**
+     * Возвращает текущий баланс счёта.
+     * @return баланс с масштабом счёта
+     */
+    @Override
+    public BigDecimal getBalance() {
+        return BigDecimal.valueOf(balanceUnits, scale);
+    }
+
+    /**
+     * Возвращает текущий баланс счёта в минимальных единицах.
+     * @return баланс в минимальных единицах
+     */
+    public long getBalanceUnits() {
+        return balanceUnits;
+    }
+
+    /**
+     * Возвращает число знаков после запятой в минимальной единице.
+     * @return масштаб счёта
+     */
+    public int getScale() {
+        return scale;
+    }
+
+    /**
+     * Пополняет счёт на заданную сумму.
+     * @param amount сумма для пополнения, должна быть > 0
+     * @throws IllegalArgumentException если сумма для пополнения не положительная
+     * @throws ArithmeticException если сумму нельзя точно представить или баланс переполнится
+     */
+    @Override
+    public void deposit(BigDecimal amount) {
+        if (amount.signum() <= 0) {
+            throw new IllegalArgumentException("Сумма для депозита должна быть > 0");
+        }
+        depositUnits(toUnits(amount));
+    }
+
+    /**
+     * Снимает с счёта заданную сумму.
+     * @param amount сумма для снятия, должна быть > 0 и не превышать текущий баланс
+     * @throws IllegalArgumentException если сумма не положительная
+     * @throws InsufficientFundsException если на счёте недостаточно средств
+     * @throws ArithmeticException если сумму нельзя точно представить в минимальных единицах
+     */
+    @Override
+    public void withdraw(BigDecimal amount) throws InsufficientFundsException {
+        if (amount.signum() <= 0) {
+            throw new IllegalArgumentException("Сумма для снятия должна быть > 0");
+        }
+        withdrawUnits(toUnits(amount));
+    }
+
+    /**
+     * Пополняет счёт на заданное число минимальных единиц.
+     * @param units сумма в минимальных единицах, должна быть > 0
+     * @throws IllegalArgumentException если сумма не положительная
+     * @throws ArithmeticException если баланс переполнится
+     */
+    public void depositUnits(long units) {
+        if (units <= 0) {
+            throw new IllegalArgumentException("Сумма для депозита должна быть > 0");
+        }
+        balanceUnits = Math.addExact(balanceUnits, units);
+    }
+
+    /**
+     * Снимает со счёта заданное число минимальных единиц.
+     * @param units сумма в минимальных единицах, должна быть > 0 и не превышать баланс
+     * @throws IllegalArgumentException если сумма не положительная
+     * @throws InsufficientFundsException если на счёте недостаточно средств
+     */
+    public void withdrawUnits(long units) throws InsufficientFundsException {
+        if (units <= 0) {
+            throw new IllegalArgumentException("Сумма для снятия должна быть > 0");
+        }
+        if (balanceUnits < units) {
+            throw new InsufficientFundsException("Недостаточно средств");
+        }
+        balanceUnits -= units;
+    }
+
+    /**
+     * Переводит сумму в минимальные единицы без округления.
+     * @param amount сумма
+     * @return сумма в минимальных единицах
+     * @throws ArithmeticException если сумму нельзя точно представить или она не помещается в {@code long}
+     */
+    private long toUnits(BigDecimal amount) {
+        return amount.setScale(scale).unscaledValue().longValueExact();
+    }
+}
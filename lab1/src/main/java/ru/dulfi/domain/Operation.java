@@ -44,4 +44,18 @@ public class Operation {
         this.dateTime = LocalDateTime.now();
     }
 
+    /**
+     * Конструктор для восстановления ранее проведённой операции.
+     * @param accountNumber номер счёта, к которому относится операция
+     * @param type тип операции
+     * @param amount сумма операции
+     * @param dateTime дата и время проведения операции
+     */
+    public Operation(String accountNumber, String type, BigDecimal amount, LocalDateTime dateTime) {
+        this.accountNumber = accountNumber;
+        this.operationType = type;
+        this.amount = amount;
+        this.dateTime = dateTime;
+    }
+
 }
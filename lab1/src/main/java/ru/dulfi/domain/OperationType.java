@@ -0,0 +1,73 @@
+package ru.dulfi.domain;
+
+/**
+ * Типы операций над счётом.
+ * Имена констант совпадают со строковыми типами, которые возвращает {@link Operation#getOperationType()}.
+ */
+public enum OperationType {
+    /**
+     * Открытие счёта с начальным балансом.
+     */
+    CREATE_ACCOUNT,
+    /**
+     * Пополнение счёта.
+     */
+    DEPOSIT,
+    /**
+     * Снятие со счёта.
+     */
+    WITHDRAW,
+    /**
+     * Списание по переводу на другой счёт.
+     */
+    TRANSFER_OUT,
+    /**
+     * Зачисление по переводу с другого счёта.
+     */
+    TRANSFER_IN,
+    /**
+     * Начисление процентов на остаток.
+     */
+    INTEREST,
+    /**
+     * Списание комиссии за обслуживание.
+     */
+    FEE;
+
+    private static final OperationType[] VALUES = values();
+
+    /**
+     * Возвращает компактный код типа для хранения в одном байте.
+     * @return код типа
+     */
+    public byte code() {
+        return (byte) ordinal();
+    }
+
+    /**
+     * Возвращает тип по коду, полученному из {@link #code()}.
+     * @param code код типа
+     * @return тип операции
+     * @throws IllegalArgumentException если код не соответствует ни одному типу
+     */
+    public static OperationType fromCode(int code) {
+        if (code < 0 || code >= VALUES.length) {
+            throw new IllegalArgumentException("Неизвестный код типа операции: " + code);
+        }
+        return VALUES[code];
+    }
+
+    /**
+     * Возвращает тип по строковому имени.
+     * @param name строковый тип операции
+     * @return тип операции
+     * @throws IllegalArgumentException если тип неизвестен
+     */
+    public static OperationType of(String name) {
+        try {
+            return valueOf(name);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Неизвестный тип операции: " + name, e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ru.dulfi.domain;
+
+import java.math.BigDecimal;
+
+/**
+ * Правила пакетного начисления процентов и списания комиссий по счетам.
+ * Методы вызываются параллельно для разных счетов и не должны иметь побочных эффектов.
+ */
+public interface PostingPolicy {
+    /**
+     * Вычисляет проценты, начисляемые на баланс.
+     * @param balance баланс счёта
+     * @return сумма процентов; ноль, если проценты не начисляются
+     */
+    BigDecimal interest(BigDecimal balance);
+
+    /**
+     * Вычисляет комиссию, списываемую после начисления процентов.
+     * Комиссия, превышающая баланс, списывается в размере баланса.
+     * @param balance баланс счёта после начисления процентов
+     * @return сумма комиссии; ноль, если комиссия не списывается
+     */
+    BigDecimal fee(BigDecimal balance);
+}
@@ -0,0 +1,76 @@
+package ru.dulfi.domain;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Итоги пакетного начисления процентов и списания комиссий.
+ */
+@Getter
+public class PostingReport {
+    /**
+     * -- GETTER --
+     *  Возвращает дату и время среза, которыми помечены все операции начисления.
+     */
+    private final LocalDateTime postedAt;
+    /**
+     * -- GETTER --
+     *  Возвращает число обработанных счетов.
+     */
+    private final long accounts;
+    /**
+     * -- GETTER --
+     *  Возвращает число операций начисления процентов.
+     */
+    private final long interestPostings;
+    /**
+     * -- GETTER --
+     *  Возвращает сумму начисленных процентов.
+     */
+    private final BigDecimal totalInterest;
+    /**
+     * -- GETTER --
+     *  Возвращает число операций списания комиссии.
+     */
+    private final long feePostings;
+    /**
+     * -- GETTER --
+     *  Возвращает сумму списанных комиссий.
+     */
+    private final BigDecimal totalFees;
+    /**
+     * -- GETTER --
+     *  Возвращает число счетов, отклонивших начисление (например, из-за точности суммы); их баланс не изменён.
+     */
+    private final long rejected;
+    /**
+     * -- GETTER --
+     *  Возвращает длительность прогона в наносекундах.
+     */
+    private final long elapsedNanos;
+
+    /**
+     * Конструктор отчёта.
+     * @param postedAt дата и время среза
+     * @param accounts число обработанных счетов
+     * @param interestPostings число операций начисления процентов
+     * @param totalInterest сумма начисленных процентов
+     * @param feePostings число операций списания комиссии
+     * @param totalFees сумма списанных комиссий
+     * @param rejected число счетов, отклонивших начисление
+     * @param elapsedNanos длительность прогона в наносекундах
+     */
+    public PostingReport(LocalDateTime postedAt, long accounts, long interestPostings, BigDecimal totalInterest,
+                         long feePostings, BigDecimal totalFees, long rejected, long elapsedNanos) {
+        this.postedAt = postedAt;
+        this.accounts = accounts;
+        this.interestPostings = interestPostings;
+        this.totalInterest = totalInterest;
+        this.feePostings = feePostings;
+        this.totalFees = totalFees;
+        this.rejected = rejected;
+        this.elapsedNanos = elapsedNanos;
+    }
+}
@@ -0,0 +1,27 @@
+package ru.dulfi.domain;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Генератор случайных номеров с контрольной цифрой.
+ * Использует {@link ThreadLocalRandom}, поэтому потоки не блокируют друг друга; повторы
+ * маловероятны и отсекаются сервисом при регистрации счёта. Генератор не криптостойкий:
+ * номера не угадываются перебором подряд, но и не должны служить секретом.
+ */
+public class RandomAccountNumberGenerator implements AccountNumberGenerator {
+    /**
+     * Конструктор по дефолту.
+     */
+    public RandomAccountNumberGenerator() {
+    }
+
+    @Override
+    public String next() {
+        return AccountNumberFormat.format(ThreadLocalRandom.current().nextLong(1, AccountNumberFormat.MAX_ID + 1));
+    }
+
+    @Override
+    public long toKey(String accountNumber) {
+        return AccountNumberFormat.parse(accountNumber);
+    }
+}
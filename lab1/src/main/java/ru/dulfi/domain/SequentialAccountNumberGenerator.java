@@ -0,0 +1,54 @@
+package ru.dulfi.domain;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Генератор последовательных номеров: монотонный 64-битный счётчик с контрольной цифрой.
+ * Выдача номера — один атомарный инкремент без блокировок и без обращения к {@link java.security.SecureRandom}.
+ * Номера предсказуемы, поэтому не должны служить секретом.
+ */
+public class SequentialAccountNumberGenerator implements AccountNumberGenerator {
+    private final AtomicLong nextId;
+
+    /**
+     * Конструктор по дефолту, нумерация начинается с 1.
+     */
+    public SequentialAccountNumberGenerator() {
+        this(1);
+    }
+
+    /**
+     * Конструктор с заданным первым идентификатором.
+     * @param firstId первый идентификатор, от 1
+     * @throws IllegalArgumentException если идентификатор вне допустимого диапазона
+     */
+    public SequentialAccountNumberGenerator(long firstId) {
+        if (firstId <= 0 || firstId > AccountNumberFormat.MAX_ID) {
+            throw new IllegalArgumentException("Первый идентификатор должен быть от 1 до " + AccountNumberFormat.MAX_ID);
+        }
+        this.nextId = new AtomicLong(firstId);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws IllegalStateException если идентификаторы исчерпаны
+     */
+    @Override
+    public String next() {
+        long id = nextId.getAndIncrement();
+        if (id > AccountNumberFormat.MAX_ID) {
+            throw new IllegalStateException("Номера счетов исчерпаны");
+        }
+        return AccountNumberFormat.format(id);
+    }
+
+    @Override
+    public long toKey(String accountNumber) {
+        return AccountNumberFormat.parse(accountNumber);
+    }
+
+    @Override
+    public void observe(long key) {
+        nextId.accumulateAndGet(key + 1, Math::max);
+    }
+}
@@ -0,0 +1,39 @@
+package ru.dulfi.domain;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Класс, представляющий перевод средств между двумя счетами.
+ */
+@Getter
+public class Transfer {
+    /**
+     * -- GETTER --
+     *  Возвращает номер счёта, с которого списываются средства.
+     */
+    private final String fromAccountNumber;
+    /**
+     * -- GETTER --
+     *  Возвращает номер счёта, на который зачисляются средства.
+     */
+    private final String toAccountNumber;
+    /**
+     * -- GETTER --
+     *  Возвращает сумму перевода.
+     */
+    private final BigDecimal amount;
+
+    /**
+     * Конструктор для создания перевода.
+     * @param fromAccountNumber номер счёта списания
+     * @param toAccountNumber номер счёта зачисления
+     * @param amount сумма перевода
+     */
+    public Transfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount) {
+        this.fromAccountNumber = fromAccountNumber;
+        this.toAccountNumber = toAccountNumber;
+        this.amount = amount;
+    }
+}
@@ -0,0 +1,26 @@
+package ru.dulfi.domain;
+
+import java.util.UUID;
+
+/**
+ * Генератор номеров в виде случайного {@link UUID}, как в первых версиях сервиса.
+ * {@link UUID#randomUUID()} использует {@link java.security.SecureRandom}, а номера не имеют
+ * числового ключа и ищутся по строке, поэтому генератор нужен для совместимости, а не для скорости.
+ */
+public class UuidAccountNumberGenerator implements AccountNumberGenerator {
+    /**
+     * Конструктор по дефолту.
+     */
+    public UuidAccountNumberGenerator() {
+    }
+
+    @Override
+    public String next() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Override
+    public long toKey(String accountNumber) {
+        return NO_KEY;
+    }
+}
@@ -0,0 +1,246 @@
+package ru.dulfi.metrics;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Метрики банковского сервиса: гистограммы задержек и счётчики исходов по видам вызовов,
+ * а также время ожидания блокировок.
+ * <p>
+ * Все счётчики — {@link LongAdder} и {@link LatencyHistogram}, поэтому запись не берёт блокировок
+ * и не создаёт объектов. Метрики доступны через JMX ({@link #register(String)}) и в виде текстового
+ * отчёта ({@link #report()}).
+ */
+public class BankMetrics implements BankMetricsMXBean {
+    private static final OperationKind[] KINDS = OperationKind.values();
+    private static final double NANOS_PER_MICRO = 1_000.0;
+
+    private final LatencyHistogram[] latencies = new LatencyHistogram[KINDS.length];
+    private final LongAdder[] calls = new LongAdder[KINDS.length];
+    private final LongAdder insufficientFunds = new LongAdder();
+    private final LongAdder accountNotFound = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LatencyHistogram lockWaits = new LatencyHistogram();
+
+    /**
+     * Конструктор по дефолту.
+     */
+    public BankMetrics() {
+        for (int i = 0; i < KINDS.length; i++) {
+            latencies[i] = new LatencyHistogram();
+            calls[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Учитывает успешный вызов.
+     * @param kind вид вызова
+     * @param nanos задержка в наносекундах
+     */
+    public void recordSuccess(OperationKind kind, long nanos) {
+        calls[kind.ordinal()].increment();
+        latencies[kind.ordinal()].record(nanos);
+    }
+
+    /**
+     * Учитывает вызов, отклонённый из-за нехватки средств.
+     * @param kind вид вызова
+     * @param nanos задержка в наносекундах
+     */
+    public void recordInsufficientFunds(OperationKind kind, long nanos) {
+        insufficientFunds.increment();
+        recordSuccess(kind, nanos);
+    }
+
+    /**
+     * Учитывает вызов по несуществующему счёту.
+     * @param kind вид вызова
+     * @param nanos задержка в наносекундах
+     */
+    public void recordAccountNotFound(OperationKind kind, long nanos) {
+        accountNotFound.increment();
+        recordSuccess(kind, nanos);
+    }
+
+    /**
+     * Учитывает вызов, завершившийся другим исключением.
+     * @param kind вид вызова
+     * @param nanos задержка в наносекундах
+     */
+    public void recordFailure(OperationKind kind, long nanos) {
+        failures.increment();
+        recordSuccess(kind, nanos);
+    }
+
+    /**
+     * Учитывает ожидание занятой блокировки.
+     * @param nanos время ожидания в наносекундах
+     */
+    public void recordLockWait(long nanos) {
+        lockWaits.record(nanos);
+    }
+
+    /**
+     * Возвращает гистограмму задержек вызовов заданного вида.
+     * @param kind вид вызова
+     * @return гистограмма задержек
+     */
+    public LatencyHistogram latency(OperationKind kind) {
+        return latencies[kind.ordinal()];
+    }
+
+    /**
+     * Возвращает число вызовов заданного вида.
+     * @param kind вид вызова
+     * @return число вызовов
+     */
+    public long calls(OperationKind kind) {
+        return calls[kind.ordinal()].sum();
+    }
+
+    /**
+     * Возвращает гистограмму времени ожидания блокировок.
+     * @return гистограмма ожиданий
+     */
+    public LatencyHistogram lockWaits() {
+        return lockWaits;
+    }
+
+    /**
+     * Регистрирует метрики в платформенном MBean-сервере.
+     * @param name значение ключа {@code name} в имени объекта
+     * @return имя зарегистрированного объекта
+     * @throws IllegalStateException если регистрация не удалась, например имя уже занято
+     */
+    public ObjectName register(String name) {
+        try {
+            ObjectName objectName = new ObjectName("ru.dulfi:type=BankMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Не удалось зарегистрировать метрики в JMX", e);
+        }
+    }
+
+    /**
+     * Формирует текстовый отчёт: число вызовов и перцентили задержки по видам вызовов, отказы и ожидания блокировок.
+     * @return многострочный отчёт
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-15s %10s %10s %10s %10s %10s%n", "вызов", "число", "p50, мкс", "p99, мкс", "p99.9, мкс", "max, мкс"));
+        for (OperationKind kind : KINDS) {
+            LatencyHistogram histogram = latency(kind);
+            if (histogram.count() == 0) {
+                continue;
+            }
+            report.append(String.format("%-15s %10d %10.1f %10.1f %10.1f %10.1f%n", kind, calls(kind),
+                    histogram.percentile(50) / NANOS_PER_MICRO, histogram.percentile(99) / NANOS_PER_MICRO,
+                    histogram.percentile(99.9) / NANOS_PER_MICRO, histogram.max() / NANOS_PER_MICRO));
+        }
+        report.append(String.format("отказы по средствам: %d (%.2f%%), нет счёта: %d, ошибки: %d%n",
+                getInsufficientFundsRejections(), getInsufficientFundsRate() * 100, getAccountNotFound(), getFailures()));
+        report.append(String.format("ожидания блокировок: %d, всего %.1f мс, p99 %.1f мкс%n",
+                getLockWaits(), getLockWaitTotalMillis(), getLockWaitP99Micros()));
+        return report.toString();
+    }
+
+    @Override
+    public long getTotalCalls() {
+        long total = 0;
+        for (LongAdder adder : calls) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    @Override
+    public Map<String, Long> getCalls() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (OperationKind kind : KINDS) {
+            result.put(kind.name(), calls(kind));
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Double> getLatencyP50Micros() {
+        return perKind(histogram -> histogram.percentile(50) / NANOS_PER_MICRO);
+    }
+
+    @Override
+    public Map<String, Double> getLatencyP99Micros() {
+        return perKind(histogram -> histogram.percentile(99) / NANOS_PER_MICRO);
+    }
+
+    @Override
+    public Map<String, Double> getLatencyP999Micros() {
+        return perKind(histogram -> histogram.percentile(99.9) / NANOS_PER_MICRO);
+    }
+
+    @Override
+    public Map<String, Double> getLatencyMaxMicros() {
+        return perKind(histogram -> histogram.max() / NANOS_PER_MICRO);
+    }
+
+    @Override
+    public long getInsufficientFundsRejections() {
+        return insufficientFunds.sum();
+    }
+
+    @Override
+    public double getInsufficientFundsRate() {
+        long debits = calls(OperationKind.WITHDRAW) + calls(OperationKind.TRANSFER) + calls(OperationKind.SUBMIT_BATCH);
+        return debits == 0 ? 0 : (double) insufficientFunds.sum() / debits;
+    }
+
+    @Override
+    public long getAccountNotFound() {
+        return accountNotFound.sum();
+    }
+
+    @Override
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    @Override
+    public long getLockWaits() {
+        return lockWaits.count();
+    }
+
+    @Override
+    public double getLockWaitTotalMillis() {
+        return lockWaits.mean() * lockWaits.count() / 1_000_000.0;
+    }
+
+    @Override
+    public double getLockWaitP99Micros() {
+        return lockWaits.percentile(99) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < KINDS.length; i++) {
+            latencies[i].reset();
+            calls[i].reset();
+        }
+        insufficientFunds.reset();
+        accountNotFound.reset();
+        failures.reset();
+        lockWaits.reset();
+    }
+
+    private Map<String, Double> perKind(ToDoubleFunction<LatencyHistogram> metric) {
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (OperationKind kind : KINDS) {
+            result.put(kind.name(), metric.applyAsDouble(latency(kind)));
+        }
+        return result;
+    }
+}
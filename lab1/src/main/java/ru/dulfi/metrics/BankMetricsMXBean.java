@@ -0,0 +1,91 @@
+package ru.dulfi.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX-представление {@link BankMetrics}. Задержки отдаются в микросекундах, таблицы — по видам вызовов.
+ */
+public interface BankMetricsMXBean {
+    /**
+     * Возвращает общее число вызовов.
+     * @return число вызовов
+     */
+    long getTotalCalls();
+
+    /**
+     * Возвращает число вызовов по видам.
+     * @return число вызовов по именам {@link OperationKind}
+     */
+    Map<String, Long> getCalls();
+
+    /**
+     * Возвращает медиану задержки по видам вызовов.
+     * @return медиана в микросекундах
+     */
+    Map<String, Double> getLatencyP50Micros();
+
+    /**
+     * Возвращает 99-й перцентиль задержки по видам вызовов.
+     * @return перцентиль в микросекундах
+     */
+    Map<String, Double> getLatencyP99Micros();
+
+    /**
+     * Возвращает 99.9-й перцентиль задержки по видам вызовов.
+     * @return перцентиль в микросекундах
+     */
+    Map<String, Double> getLatencyP999Micros();
+
+    /**
+     * Возвращает максимальную задержку по видам вызовов.
+     * @return максимум в микросекундах
+     */
+    Map<String, Double> getLatencyMaxMicros();
+
+    /**
+     * Возвращает число отказов из-за нехватки средств.
+     * @return число отказов
+     */
+    long getInsufficientFundsRejections();
+
+    /**
+     * Возвращает долю отказов из-за нехватки средств среди списаний, переводов и пакетов.
+     * @return доля от 0 до 1
+     */
+    double getInsufficientFundsRate();
+
+    /**
+     * Возвращает число обращений к несуществующим счетам.
+     * @return число обращений
+     */
+    long getAccountNotFound();
+
+    /**
+     * Возвращает число вызовов, завершившихся другими исключениями.
+     * @return число вызовов
+     */
+    long getFailures();
+
+    /**
+     * Возвращает число ожиданий занятой блокировки.
+     * @return число ожиданий
+     */
+    long getLockWaits();
+
+    /**
+     * Возвращает суммарное время ожидания блокировок.
+     * @return время в миллисекундах
+     */
+    double getLockWaitTotalMillis();
+
+    /**
+     * Возвращает 99-й перцентиль времени ожидания блокировки.
+     * @return перцентиль в микросекундах
+     */
+    double getLockWaitP99Micros();
+
+    /**
+     * Обнуляет все метрики.
+     */
+    void reset();
+}
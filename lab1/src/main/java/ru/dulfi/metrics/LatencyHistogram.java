@@ -0,0 +1,142 @@
+package ru.dulfi.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Гистограмма задержек в наносекундах с логарифмически-линейными корзинами, как в HdrHistogram.
+ * <p>
+ * Значения до 128 нс хранятся точно, дальше каждый интервал {@code [2^k, 2^(k+1))} делится на 64 равные
+ * корзины, поэтому относительная погрешность перцентилей не превышает 1/64 при фиксированном объёме
+ * памяти. Значения больше {@link #MAX_VALUE} учитываются как {@link #MAX_VALUE}.
+ * <p>
+ * Запись — вычисление индекса сдвигами и один атомарный инкремент без блокировок и без создания
+ * объектов. Счётчики разнесены по нескольким полосам, выбираемым по потоку, чтобы потоки с похожими
+ * задержками не конкурировали за одну строку кэша.
+ */
+public class LatencyHistogram {
+    /**
+     * Наибольшее различимое значение, около 18 минут.
+     */
+    public static final long MAX_VALUE = (1L << 40) - 1;
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF = SUB_BUCKETS / 2;
+    private static final int BUCKETS = SUB_BUCKETS + (63 - Long.numberOfLeadingZeros(MAX_VALUE) - SUB_BUCKET_BITS + 1) * HALF;
+    private static final int STRIPES = Math.min(8, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS * STRIPES);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Конструктор по дефолту.
+     */
+    public LatencyHistogram() {
+    }
+
+    /**
+     * Записывает значение.
+     * @param nanos задержка в наносекундах, отрицательные значения учитываются как 0
+     */
+    public void record(long nanos) {
+        long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+        int stripe = (int) Thread.currentThread().threadId() & (STRIPES - 1);
+        counts.incrementAndGet(stripe * BUCKETS + index(value));
+        count.increment();
+        sum.add(value);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Возвращает число записанных значений.
+     * @return число значений
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * Возвращает среднее значение.
+     * @return среднее в наносекундах или 0, если значений нет
+     */
+    public double mean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Возвращает наибольшее записанное значение.
+     * @return максимум в наносекундах
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * Возвращает значение перцентиля.
+     * @param percentile перцентиль от 0 до 100
+     * @return значение в наносекундах с погрешностью не более 1/64 или 0, если значений нет
+     * @throws IllegalArgumentException если перцентиль вне диапазона
+     */
+    public long percentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Перцентиль должен быть от 0 до 100");
+        }
+        long[] merged = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            long c = counts.get(i);
+            merged[i % BUCKETS] += c;
+            total += c;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += merged[i];
+            if (seen >= target) {
+                return Math.min(highestEquivalent(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Обнуляет гистограмму. Значения, записанные одновременно со сбросом, могут быть частично учтены.
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    private static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS + 1;
+        return SUB_BUCKETS + (shift - 1) * HALF + (int) (value >>> shift) - HALF;
+    }
+
+    private static long highestEquivalent(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int k = index - SUB_BUCKETS;
+        int shift = k / HALF + 1;
+        long subBucket = k % HALF + HALF;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,58 @@
+package ru.dulfi.metrics;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Периодически печатает отчёт {@link BankMetrics} и пропускную способность за прошедший интервал.
+ */
+public class MetricsReporter implements AutoCloseable {
+    private final BankMetrics metrics;
+    private final PrintStream out;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "bank-metrics-reporter");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private long lastCalls;
+    private long lastTime;
+
+    /**
+     * Запускает печать отчёта с заданным интервалом.
+     * @param metrics метрики
+     * @param out поток вывода
+     * @param interval интервал между отчётами
+     * @throws IllegalArgumentException если интервал не положительный
+     */
+    public MetricsReporter(BankMetrics metrics, PrintStream out, Duration interval) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Интервал отчёта должен быть > 0");
+        }
+        this.metrics = metrics;
+        this.out = out;
+        this.lastCalls = metrics.getTotalCalls();
+        this.lastTime = System.nanoTime();
+        long nanos = interval.toNanos();
+        executor.scheduleAtFixedRate(this::dump, nanos, nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Печатает отчёт немедленно.
+     */
+    public synchronized void dump() {
+        long calls = metrics.getTotalCalls();
+        long time = System.nanoTime();
+        double throughput = (calls - lastCalls) * 1e9 / Math.max(1, time - lastTime);
+        lastCalls = calls;
+        lastTime = time;
+        out.printf("%n[метрики] %.0f вызовов/с%n%s", throughput, metrics.report());
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,39 @@
+package ru.dulfi.metrics;
+
+/**
+ * Виды вызовов {@link ru.dulfi.service.BankService}, для которых собираются метрики.
+ */
+public enum OperationKind {
+    /**
+     * Создание счёта.
+     */
+    CREATE_ACCOUNT,
+    /**
+     * Запрос баланса.
+     */
+    GET_BALANCE,
+    /**
+     * Пополнение.
+     */
+    DEPOSIT,
+    /**
+     * Снятие.
+     */
+    WITHDRAW,
+    /**
+     * Перевод между счетами.
+     */
+    TRANSFER,
+    /**
+     * Пакет переводов.
+     */
+    SUBMIT_BATCH,
+    /**
+     * Пакетное начисление процентов и комиссий.
+     */
+    POSTING,
+    /**
+     * Запрос истории операций.
+     */
+    GET_OPERATIONS
+}
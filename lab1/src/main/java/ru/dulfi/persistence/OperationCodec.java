@@ -0,0 +1,186 @@
+package ru.dulfi.persistence;
+
+import ru.dulfi.domain.Operation;
+import ru.dulfi.domain.OperationType;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Двоичный формат записи {@link Operation} в журнал предзаписи.
+ * <p>
+ * Запись: {@code int длина, int crc32, операция}, где операция —
+ * {@code byte тип, long секунды, int наносекунды, short длина номера, номер счёта (UTF-8),
+ * int scale, short длина мантиссы, мантисса}. Пакет операций, который должен восстанавливаться
+ * целиком, пишется одной записью {@code int длина, int crc32, byte 0, int число операций, операции...}
+ * под общей контрольной суммой. Нулевая длина означает конец записанной части сегмента.
+ */
+public final class OperationCodec {
+    /**
+     * Размер заголовка записи: длина и контрольная сумма.
+     */
+    public static final int HEADER_SIZE = Integer.BYTES * 2;
+
+    private static final byte BATCH = 0;
+    private static final int TYPE_COUNT = OperationType.values().length;
+
+    private OperationCodec() {
+    }
+
+    /**
+     * Возвращает полный размер записи операции вместе с заголовком.
+     * @param operation операция
+     * @return размер записи в байтах
+     */
+    public static int recordSize(Operation operation) {
+        return HEADER_SIZE + payloadSize(operation);
+    }
+
+    /**
+     * Возвращает полный размер записи пакета операций вместе с заголовком.
+     * @param operations операции пакета
+     * @return размер записи в байтах
+     */
+    public static int recordSize(List<Operation> operations) {
+        int size = HEADER_SIZE + Byte.BYTES + Integer.BYTES;
+        for (Operation operation : operations) {
+            size += payloadSize(operation);
+        }
+        return size;
+    }
+
+    /**
+     * Записывает операцию в буфер начиная с его текущей позиции.
+     * @param operation операция
+     * @param buffer буфер, в котором достаточно места для {@link #recordSize(Operation)} байт
+     * @throws IllegalArgumentException если тип операции не поддерживается форматом
+     */
+    public static void encode(Operation operation, ByteBuffer buffer) {
+        int start = buffer.position();
+        buffer.position(start + HEADER_SIZE);
+        encodeOperation(operation, buffer);
+        finishRecord(buffer, start);
+    }
+
+    /**
+     * Записывает пакет операций одной записью в буфер начиная с его текущей позиции.
+     * При чтении пакет либо возвращается целиком, либо не возвращается совсем.
+     * @param operations операции пакета
+     * @param buffer буфер, в котором достаточно места для {@link #recordSize(List)} байт
+     * @throws IllegalArgumentException если тип какой-либо операции не поддерживается форматом
+     */
+    public static void encode(List<Operation> operations, ByteBuffer buffer) {
+        int start = buffer.position();
+        buffer.position(start + HEADER_SIZE);
+        buffer.put(BATCH);
+        buffer.putInt(operations.size());
+        for (Operation operation : operations) {
+            encodeOperation(operation, buffer);
+        }
+        finishRecord(buffer, start);
+    }
+
+    /**
+     * Читает запись из буфера начиная с его текущей позиции.
+     * При успехе позиция буфера сдвигается за конец записи.
+     * @param buffer буфер
+     * @return операции записи (одна или пакет) или {@code null}, если записей больше нет или запись повреждена
+     */
+    public static List<Operation> decode(ByteBuffer buffer) {
+        int start = buffer.position();
+        if (buffer.remaining() < HEADER_SIZE) {
+            return null;
+        }
+        int length = buffer.getInt(start);
+        int crc = buffer.getInt(start + Integer.BYTES);
+        int payloadStart = start + HEADER_SIZE;
+        if (length <= 0 || length > buffer.limit() - payloadStart
+                || checksum(buffer, payloadStart, payloadStart + length) != crc) {
+            return null;
+        }
+        buffer.position(payloadStart);
+        List<Operation> operations;
+        if (buffer.get(payloadStart) == BATCH) {
+            buffer.get();
+            int count = buffer.getInt();
+            operations = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Operation operation = decodeOperation(buffer);
+                if (operation == null) {
+                    buffer.position(start);
+                    return null;
+                }
+                operations.add(operation);
+            }
+        } else {
+            Operation operation = decodeOperation(buffer);
+            if (operation == null) {
+                buffer.position(start);
+                return null;
+            }
+            operations = List.of(operation);
+        }
+        buffer.position(payloadStart + length);
+        return operations;
+    }
+
+    private static void encodeOperation(Operation operation, ByteBuffer buffer) {
+        byte[] accountNumber = operation.getAccountNumber().getBytes(StandardCharsets.UTF_8);
+        byte[] unscaled = operation.getAmount().unscaledValue().toByteArray();
+        LocalDateTime dateTime = operation.getDateTime();
+        buffer.put(typeCode(operation.getOperationType()));
+        buffer.putLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(dateTime.getNano());
+        buffer.putShort((short) accountNumber.length);
+        buffer.put(accountNumber);
+        buffer.putInt(operation.getAmount().scale());
+        buffer.putShort((short) unscaled.length);
+        buffer.put(unscaled);
+    }
+
+    private static Operation decodeOperation(ByteBuffer buffer) {
+        int code = buffer.get();
+        if (code < 1 || code > TYPE_COUNT) {
+            return null;
+        }
+        String type = OperationType.fromCode(code - 1).name();
+        LocalDateTime dateTime = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+        byte[] accountNumber = new byte[buffer.getShort()];
+        buffer.get(accountNumber);
+        int scale = buffer.getInt();
+        byte[] unscaled = new byte[buffer.getShort()];
+        buffer.get(unscaled);
+        BigDecimal amount = new BigDecimal(new BigInteger(unscaled), scale);
+        return new Operation(new String(accountNumber, StandardCharsets.UTF_8), type, amount, dateTime);
+    }
+
+    private static void finishRecord(ByteBuffer buffer, int start) {
+        int payloadStart = start + HEADER_SIZE;
+        int end = buffer.position();
+        buffer.putInt(start, end - payloadStart);
+        buffer.putInt(start + Integer.BYTES, checksum(buffer, payloadStart, end));
+    }
+
+    private static int payloadSize(Operation operation) {
+        return Byte.BYTES + Long.BYTES + Integer.BYTES
+                + Short.BYTES + operation.getAccountNumber().getBytes(StandardCharsets.UTF_8).length
+                + Integer.BYTES + Short.BYTES + operation.getAmount().unscaledValue().bitLength() / 8 + 1;
+    }
+
+    private static byte typeCode(String type) {
+        return (byte) (OperationType.of(type).code() + 1);
+    }
+
+    private static int checksum(ByteBuffer buffer, int from, int to) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(from, to - from));
+        return (int) crc.getValue();
+    }
+}
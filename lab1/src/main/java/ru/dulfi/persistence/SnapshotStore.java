@@ -0,0 +1,157 @@
+package ru.dulfi.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Хранилище двоичных снимков балансов счетов.
+ * <p>
+ * Снимок {@code snapshot-<сегмент>.bin} содержит балансы всех счетов на момент, когда журнал
+ * предзаписи начал сегмент с указанным номером; для восстановления достаточно загрузить снимок
+ * и дочитать журнал начиная с этого сегмента.
+ */
+public class SnapshotStore {
+    private static final int MAGIC = 0x42414E4B;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".bin";
+
+    private final Path directory;
+
+    /**
+     * Конструктор хранилища.
+     * @param directory каталог со снимками
+     */
+    public SnapshotStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Атомарно записывает снимок балансов и удаляет более старые снимки.
+     * @param segment номер сегмента журнала, с которого нужно продолжить восстановление
+     * @param balances балансы счетов по их номерам
+     * @throws IOException если не удалось записать снимок
+     */
+    public void write(long segment, Map<String, BigDecimal> balances) throws IOException {
+        Files.createDirectories(directory);
+        Path target = snapshotPath(segment);
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (OutputStream file = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(
+                     new CheckedOutputStream(new BufferedOutputStream(file, 1 << 16), crc))) {
+            out.writeInt(MAGIC);
+            out.writeLong(segment);
+            out.writeInt(balances.size());
+            for (Map.Entry<String, BigDecimal> entry : balances.entrySet()) {
+                byte[] unscaled = entry.getValue().unscaledValue().toByteArray();
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue().scale());
+                out.writeShort(unscaled.length);
+                out.write(unscaled);
+            }
+            out.flush();
+            new DataOutputStream(file).writeLong(crc.getValue());
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        for (long older : listSnapshots()) {
+            if (older < segment) {
+                Files.deleteIfExists(snapshotPath(older));
+            }
+        }
+    }
+
+    /**
+     * Загружает самый свежий неповреждённый снимок.
+     * @return снимок или {@code null}, если снимков нет
+     * @throws IOException если не удалось прочитать каталог
+     */
+    public Snapshot loadLatest() throws IOException {
+        List<Long> snapshots = listSnapshots();
+        snapshots.sort(Comparator.reverseOrder());
+        for (long segment : snapshots) {
+            Snapshot snapshot = read(snapshotPath(segment));
+            if (snapshot != null) {
+                return snapshot;
+            }
+        }
+        return null;
+    }
+
+    private Snapshot read(Path path) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream file = new BufferedInputStream(Files.newInputStream(path), 1 << 16);
+             DataInputStream in = new DataInputStream(new CheckedInputStream(file, crc))) {
+            if (in.readInt() != MAGIC) {
+                return null;
+            }
+            long segment = in.readLong();
+            int count = in.readInt();
+            Map<String, BigDecimal> balances = new LinkedHashMap<>(Math.max(16, (int) (count / 0.75f) + 1));
+            for (int i = 0; i < count; i++) {
+                String accountNumber = in.readUTF();
+                int scale = in.readInt();
+                byte[] unscaled = new byte[in.readShort()];
+                in.readFully(unscaled);
+                balances.put(accountNumber, new BigDecimal(new BigInteger(unscaled), scale));
+            }
+            long expected = crc.getValue();
+            if (new DataInputStream(file).readLong() != expected) {
+                return null;
+            }
+            return new Snapshot(segment, balances);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private List<Long> listSnapshots() throws IOException {
+        List<Long> snapshots = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return snapshots;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name, PREFIX.length(), name.length() - SUFFIX.length(), 10))
+                    .forEach(snapshots::add);
+        }
+        return snapshots;
+    }
+
+    private Path snapshotPath(long segment) {
+        return directory.resolve(String.format("%s%016d%s", PREFIX, segment, SUFFIX));
+    }
+
+    /**
+     * Загруженный снимок балансов.
+     * @param segment номер сегмента журнала, с которого нужно продолжить восстановление
+     * @param balances балансы счетов по их номерам
+     */
+    public record Snapshot(long segment, Map<String, BigDecimal> balances) {
+    }
+}
@@ -0,0 +1,15 @@
+package ru.dulfi.persistence;
+
+/**
+ * Режим сброса записей журнала предзаписи на диск.
+ */
+public enum SyncMode {
+    /**
+     * Сброс на диск после каждой операции.
+     */
+    PER_OPERATION,
+    /**
+     * Групповая фиксация: фоновый поток сбрасывает на диск сразу все накопившиеся записи.
+     */
+    GROUP_COMMIT
+}
@@ -0,0 +1,379 @@
+package ru.dulfi.persistence;
+
+import ru.dulfi.domain.Operation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Журнал предзаписи (write-ahead log) операций банка.
+ * <p>
+ * Журнал состоит из сегментов фиксированного размера {@code wal-<номер>.log}, каждый из которых
+ * отображается в память целиком. Запись операции — это копирование нескольких десятков байт
+ * в отображённый буфер; сброс на диск выполняется либо после каждой операции
+ * ({@link SyncMode#PER_OPERATION}), либо фоновым потоком, который одним {@code msync}
+ * подтверждает все накопившиеся записи ({@link SyncMode#GROUP_COMMIT}).
+ */
+public class WriteAheadLog implements Closeable {
+    /**
+     * Размер сегмента по умолчанию.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final SyncMode syncMode;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushRequested = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+    private final Thread flusher;
+
+    private long segment;
+    private MappedByteBuffer buffer;
+    private long appended;
+    private long durable;
+    private boolean closed;
+    private IOException failure;
+
+    /**
+     * Открывает журнал для записи в новый сегмент с заданным номером.
+     * @param directory каталог журнала
+     * @param firstSegment номер первого сегмента для записи
+     * @param segmentSize размер сегмента в байтах
+     * @param syncMode режим сброса записей на диск
+     * @throws IOException если не удалось создать сегмент
+     */
+    public WriteAheadLog(Path directory, long firstSegment, int segmentSize, SyncMode syncMode) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.syncMode = syncMode;
+        Files.createDirectories(directory);
+        openSegment(firstSegment);
+        if (syncMode == SyncMode.GROUP_COMMIT) {
+            flusher = new Thread(this::flushLoop, "wal-group-commit");
+            flusher.setDaemon(true);
+            flusher.start();
+        } else {
+            flusher = null;
+        }
+    }
+
+    /**
+     * Дописывает операцию в журнал.
+     * В режиме {@link SyncMode#PER_OPERATION} запись становится устойчивой до возврата из метода,
+     * в режиме {@link SyncMode#GROUP_COMMIT} — после {@link #awaitDurable(long)}.
+     * @param operation операция
+     * @return порядковый номер записи для {@link #awaitDurable(long)}
+     */
+    public long append(Operation operation) {
+        return append(OperationCodec.recordSize(operation), buffer -> OperationCodec.encode(operation, buffer));
+    }
+
+    /**
+     * Дописывает пакет операций в журнал одной записью: при восстановлении пакет будет
+     * прочитан либо целиком, либо не прочитан совсем.
+     * @param operations операции пакета
+     * @return порядковый номер записи для {@link #awaitDurable(long)}
+     * @throws IllegalArgumentException если пакет не помещается в сегмент журнала
+     */
+    public long append(List<Operation> operations) {
+        return append(OperationCodec.recordSize(operations), buffer -> OperationCodec.encode(operations, buffer));
+    }
+
+    /**
+     * Ожидает, пока запись с заданным номером и все предыдущие не будут сброшены на диск.
+     * @param sequence номер записи, полученный из {@link #append(Operation)}
+     */
+    public void awaitDurable(long sequence) {
+        lock.lock();
+        try {
+            while (durable < sequence) {
+                ensureOpen();
+                flushRequested.signal();
+                flushed.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает номер последней дописанной записи.
+     * @return номер записи
+     */
+    public long lastSequence() {
+        lock.lock();
+        try {
+            return appended;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Сбрасывает текущий сегмент на диск и начинает новый.
+     * Все записи, сделанные до вызова, оказываются в сегментах с меньшими номерами.
+     * @return номер нового сегмента
+     */
+    public long roll() {
+        lock.lock();
+        try {
+            ensureOpen();
+            rollLocked();
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось начать новый сегмент журнала", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Удаляет сегменты с номерами меньше заданного.
+     * @param segment номер первого сохраняемого сегмента
+     * @throws IOException если не удалось удалить сегмент
+     */
+    public void deleteSegmentsBefore(long segment) throws IOException {
+        for (long number : listSegments(directory)) {
+            if (number < segment) {
+                Files.deleteIfExists(segmentPath(directory, number));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            try {
+                if (failure == null) {
+                    forceLocked(buffer);
+                    durable = appended;
+                }
+            } finally {
+                closed = true;
+                flushRequested.signalAll();
+                flushed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (flusher != null) {
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Последовательно читает операции из сегментов журнала начиная с заданного.
+     * Чтение сегмента останавливается на первой пустой или повреждённой записи;
+     * операции пакета передаются обработчику только если пакет прочитан целиком.
+     * @param directory каталог журнала
+     * @param fromSegment номер первого читаемого сегмента
+     * @param consumer обработчик операций
+     * @return номер последнего прочитанного сегмента или {@code fromSegment - 1}, если сегментов нет
+     * @throws IOException если не удалось прочитать сегмент
+     */
+    public static long replay(Path directory, long fromSegment, Consumer<Operation> consumer) throws IOException {
+        long last = fromSegment - 1;
+        for (long number : listSegments(directory)) {
+            if (number < fromSegment) {
+                continue;
+            }
+            try (FileChannel channel = FileChannel.open(segmentPath(directory, number), StandardOpenOption.READ)) {
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                List<Operation> operations;
+                while ((operations = OperationCodec.decode(segment)) != null) {
+                    operations.forEach(consumer);
+                }
+            }
+            last = number;
+        }
+        return last;
+    }
+
+    /**
+     * Возвращает отсортированные номера сегментов в каталоге.
+     * @param directory каталог журнала
+     * @return номера сегментов по возрастанию
+     * @throws IOException если не удалось прочитать каталог
+     */
+    public static List<Long> listSegments(Path directory) throws IOException {
+        List<Long> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name, SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length(), 10))
+                    .sorted()
+                    .forEach(segments::add);
+        }
+        return segments;
+    }
+
+    private long append(int size, Consumer<ByteBuffer> encoder) {
+        if (size + OperationCodec.HEADER_SIZE > segmentSize) {
+            throw new IllegalArgumentException("Запись не помещается в сегмент журнала");
+        }
+        lock.lock();
+        try {
+            ensureOpen();
+            if (buffer.remaining() < size + OperationCodec.HEADER_SIZE) {
+                rollLocked();
+            }
+            int start = buffer.position();
+            encoder.accept(buffer);
+            if (syncMode == SyncMode.PER_OPERATION) {
+                try {
+                    forceLocked(buffer);
+                } catch (IOException e) {
+                    discard(start);
+                    throw e;
+                }
+            }
+            long sequence = ++appended;
+            if (syncMode == SyncMode.PER_OPERATION) {
+                durable = sequence;
+            }
+            return sequence;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать операцию в журнал", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        lock.lock();
+        try {
+            while (!closed) {
+                if (durable == appended) {
+                    flushRequested.awaitUninterruptibly();
+                    continue;
+                }
+                long target = appended;
+                MappedByteBuffer current = buffer;
+                lock.unlock();
+                try {
+                    force(current);
+                } catch (RuntimeException e) {
+                    lock.lock();
+                    fail(e);
+                    return;
+                }
+                lock.lock();
+                durable = Math.max(durable, target);
+                flushed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Сбрасывает отображённый сегмент на диск.
+     * @param segment буфер сегмента
+     * @throws UncheckedIOException если сброс не удался
+     */
+    protected void force(MappedByteBuffer segment) {
+        segment.force();
+    }
+
+    /**
+     * Сбрасывает сегмент на диск под блокировкой журнала.
+     * Ошибка сброса переводит журнал в состояние сбоя: все последующие записи отклоняются.
+     * @param segment буфер сегмента
+     * @throws IOException если сброс не удался
+     */
+    private void forceLocked(MappedByteBuffer segment) throws IOException {
+        try {
+            force(segment);
+        } catch (RuntimeException e) {
+            throw fail(e);
+        }
+    }
+
+    /**
+     * Переводит журнал в состояние сбоя и будит всех ожидающих.
+     * Должен вызываться под блокировкой журнала.
+     * @param e ошибка сброса на диск
+     * @return причина сбоя
+     */
+    private IOException fail(RuntimeException e) {
+        failure = e instanceof UncheckedIOException unchecked
+                ? unchecked.getCause()
+                : new IOException("Не удалось сбросить журнал на диск", e);
+        flushed.signalAll();
+        flushRequested.signalAll();
+        return failure;
+    }
+
+    /**
+     * Затирает неподтверждённую запись, начинающуюся с заданной позиции текущего сегмента,
+     * чтобы при восстановлении чтение остановилось перед ней.
+     * @param start позиция начала записи
+     */
+    private void discard(int start) {
+        int end = buffer.position();
+        for (int i = start; i < end; i++) {
+            buffer.put(i, (byte) 0);
+        }
+        buffer.position(start);
+    }
+
+    private void rollLocked() throws IOException {
+        forceLocked(buffer);
+        durable = appended;
+        flushed.signalAll();
+        openSegment(segment + 1);
+    }
+
+    private void openSegment(long number) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(directory, number),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+        segment = number;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Журнал закрыт");
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Журнал недоступен после ошибки записи", failure);
+        }
+    }
+
+    private static Path segmentPath(Path directory, long number) {
+        return directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+}
@@ -0,0 +1,115 @@
+package ru.dulfi.service;
+
+import ru.dulfi.domain.Account;
+import ru.dulfi.domain.AccountNumberGenerator;
+import ru.dulfi.storage.LongKeyIndex;
+import ru.dulfi.storage.OperationJournal;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+/**
+ * Справочник счетов сервиса: счёт и его журнал по номеру.
+ * <p>
+ * Номера, которые распознаёт {@link AccountNumberGenerator}, переводятся в числовой ключ и ищутся
+ * в {@link LongKeyIndex} без хеширования строки и без блокировок. Прочие номера (например, созданные
+ * другим генератором до перезапуска) хранятся в обычной {@link ConcurrentHashMap}.
+ */
+final class AccountDirectory {
+    private final AccountNumberGenerator generator;
+    private final LongKeyIndex<Entry> index = new LongKeyIndex<>();
+    private final ConcurrentMap<String, Entry> foreign = new ConcurrentHashMap<>();
+
+    /**
+     * Счёт, его журнал и хеш для выбора полосы блокировки.
+     * @param account счёт
+     * @param journal журнал операций счёта
+     * @param hash хеш номера счёта
+     */
+    record Entry(Account account, OperationJournal journal, int hash) {
+    }
+
+    /**
+     * Создаёт пустой справочник.
+     * @param generator генератор номеров новых счетов
+     */
+    AccountDirectory(AccountNumberGenerator generator) {
+        this.generator = generator;
+    }
+
+    /**
+     * Возвращает номер для нового счёта.
+     * @return номер счёта
+     */
+    String nextNumber() {
+        return generator.next();
+    }
+
+    /**
+     * Создаёт запись справочника для счёта с пустым журналом, не регистрируя её.
+     * @param account счёт
+     * @return запись справочника
+     */
+    Entry newEntry(Account account) {
+        String accountNumber = account.getAccountNumber();
+        long key = generator.toKey(accountNumber);
+        int hash = key > 0 ? Long.hashCode(key * 0x9E3779B97F4A7C15L) : accountNumber.hashCode();
+        return new Entry(account, new OperationJournal(accountNumber), hash);
+    }
+
+    /**
+     * Находит запись по номеру счёта.
+     * @param accountNumber номер счета
+     * @return запись или {@code null}, если счёта нет
+     */
+    Entry get(String accountNumber) {
+        long key = generator.toKey(accountNumber);
+        return key > 0 ? index.get(key) : foreign.get(accountNumber);
+    }
+
+    /**
+     * Регистрирует запись, если счёта с таким номером ещё нет.
+     * @param entry запись
+     * @return {@code true}, если запись зарегистрирована, и {@code false}, если номер уже занят
+     */
+    boolean add(Entry entry) {
+        String accountNumber = entry.account().getAccountNumber();
+        long key = generator.toKey(accountNumber);
+        return key > 0
+                ? index.putIfAbsent(key, entry) == null
+                : foreign.putIfAbsent(accountNumber, entry) == null;
+    }
+
+    /**
+     * Регистрирует запись, заменяя прежнюю, и сообщает генератору о занятом номере.
+     * @param entry запись
+     */
+    void put(Entry entry) {
+        String accountNumber = entry.account().getAccountNumber();
+        long key = generator.toKey(accountNumber);
+        if (key > 0) {
+            generator.observe(key);
+            index.put(key, entry);
+        } else {
+            foreign.put(accountNumber, entry);
+        }
+    }
+
+    /**
+     * Возвращает число счетов.
+     * @return число счетов
+     */
+    int size() {
+        return index.size() + foreign.size();
+    }
+
+    /**
+     * Обходит все записи справочника.
+     * @param action действие для каждой записи
+     */
+    void forEach(Consumer<Entry> action) {
+        index.forEach(action);
+        foreign.values().forEach(action);
+    }
+}
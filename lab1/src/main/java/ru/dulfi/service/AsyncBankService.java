@@ -0,0 +1,86 @@
+package ru.dulfi.service;
+
+import ru.dulfi.domain.Account;
+import ru.dulfi.domain.Operation;
+import ru.dulfi.domain.Transfer;
+import ru.dulfi.exceptions.AccountNotFoundException;
+import ru.dulfi.exceptions.InsufficientFundsException;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Асинхронный вариант {@link BankService}: методы не блокируют вызывающий поток и возвращают
+ * {@link CompletableFuture}.
+ * <p>
+ * Ошибки операций завершают результат исключительно: например, {@link AccountNotFoundException}
+ * или {@link InsufficientFundsException} становятся причиной исключения, а {@link CompletableFuture#join()}
+ * выбрасывает их обёрнутыми в {@link java.util.concurrent.CompletionException}.
+ * Операции над одним счётом выполняются в порядке вызова методов.
+ */
+public interface AsyncBankService extends AutoCloseable {
+    /**
+     * Создает новый счет с заданным начальным балансом.
+     * @param balance начальный баланс
+     * @return созданный счет
+     */
+    CompletableFuture<Account> createAccount(BigDecimal balance);
+    /**
+     * Возвращает текущий баланс счета.
+     * @param accountNumber номер счета
+     * @return баланс; завершается {@link AccountNotFoundException}, если счет не найден
+     */
+    CompletableFuture<BigDecimal> getBalance(String accountNumber);
+    /**
+     * Пополняет счет на указанную сумму.
+     * @param accountNumber номер счета
+     * @param amount сумма пополнения
+     * @return завершается после пополнения или с {@link AccountNotFoundException}
+     */
+    CompletableFuture<Void> deposit(String accountNumber, BigDecimal amount);
+    /**
+     * Снимает деньги со счета.
+     * @param accountNumber номер счета
+     * @param amount сумма снятия
+     * @return завершается после снятия или с {@link AccountNotFoundException} / {@link InsufficientFundsException}
+     */
+    CompletableFuture<Void> withdraw(String accountNumber, BigDecimal amount);
+    /**
+     * Атомарно переводит средства между счетами.
+     * Перевод выполняется после всех ранее вызванных операций над обоими счетами.
+     * @param fromAccountNumber номер счета списания
+     * @param toAccountNumber номер счета зачисления
+     * @param amount сумма перевода
+     * @return завершается после перевода или с {@link AccountNotFoundException} / {@link InsufficientFundsException}
+     */
+    CompletableFuture<Void> transfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount);
+    /**
+     * Атомарно применяет пакет переводов.
+     * Пакет выполняется после всех ранее вызванных операций над его счетами.
+     * @param transfers переводы
+     * @return завершается после пакета или с {@link AccountNotFoundException} / {@link InsufficientFundsException}
+     */
+    CompletableFuture<Void> submitBatch(List<Transfer> transfers);
+    /**
+     * Возвращает историю операций по счету.
+     * @param accountNumber номер счета
+     * @return список операций; завершается {@link AccountNotFoundException}, если счет не найден
+     */
+    CompletableFuture<List<Operation>> getOperations(String accountNumber);
+    /**
+     * Возвращает последние операции по счету.
+     * @param accountNumber номер счета
+     * @param count максимальное количество операций
+     * @return список операций; завершается {@link AccountNotFoundException}, если счет не найден
+     */
+    CompletableFuture<List<Operation>> getLastOperations(String accountNumber, int count);
+
+    /**
+     * Дожидается завершения принятых операций и освобождает потоки.
+     * Операции, вызванные одновременно с закрытием или после него, могут завершиться
+     * {@link java.util.concurrent.RejectedExecutionException}.
+     */
+    @Override
+    void close();
+}
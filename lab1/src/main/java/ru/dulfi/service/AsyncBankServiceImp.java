@@ -0,0 +1,232 @@
+package ru.dulfi.service;
+
+import ru.dulfi.domain.Account;
+import ru.dulfi.domain.Operation;
+import ru.dulfi.domain.Transfer;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Реализация {@link AsyncBankService} поверх синхронного {@link BankService}.
+ * <p>
+ * Каждая операция выполняется в отдельном виртуальном потоке, поэтому тысячи одновременных сессий
+ * не требуют тысяч потоков ОС. Порядок операций над одним счётом сохраняет почтовый ящик счёта
+ * (mailbox): операция ставится в очередь за последней принятой операцией этого счёта и запускается
+ * только после её завершения. Перевод или пакет ставится в очередь всех своих счетов сразу, поэтому
+ * выполняется после предыдущих и до последующих операций над каждым из них. Почтовые ящики создаются
+ * при первой операции над счётом и удаляются, когда его очередь пустеет.
+ * <p>
+ * Обёрнутый сервис должен допускать одновременные операции над разными счетами,
+ * например {@link ConcurrentBankService}.
+ */
+public class AsyncBankServiceImp implements AsyncBankService {
+    private final BankService delegate;
+    private final ExecutorService executor;
+    private final ConcurrentMap<String, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    /**
+     * Конструктор по дефолту: {@link ConcurrentBankService} и виртуальный поток на операцию.
+     */
+    public AsyncBankServiceImp() {
+        this(new ConcurrentBankService());
+    }
+
+    /**
+     * Конструктор с заданным сервисом и виртуальным потоком на операцию.
+     * @param delegate синхронный сервис
+     */
+    public AsyncBankServiceImp(BankService delegate) {
+        this(delegate, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * Конструктор с заданным сервисом и исполнителем операций.
+     * @param delegate синхронный сервис
+     * @param executor исполнитель операций; закрывается вместе с сервисом
+     */
+    public AsyncBankServiceImp(BankService delegate, ExecutorService executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Account> createAccount(BigDecimal balance) {
+        return CompletableFuture.supplyAsync(() -> delegate.createAccount(balance), executor);
+    }
+
+    @Override
+    public CompletableFuture<BigDecimal> getBalance(String accountNumber) {
+        return submit(List.of(accountNumber), () -> delegate.getBalance(accountNumber));
+    }
+
+    @Override
+    public CompletableFuture<Void> deposit(String accountNumber, BigDecimal amount) {
+        return submit(List.of(accountNumber), () -> {
+            delegate.deposit(accountNumber, amount);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> withdraw(String accountNumber, BigDecimal amount) {
+        return submit(List.of(accountNumber), () -> {
+            delegate.withdraw(accountNumber, amount);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> transfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount) {
+        return submit(List.of(fromAccountNumber, toAccountNumber), () -> {
+            delegate.transfer(fromAccountNumber, toAccountNumber, amount);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> submitBatch(List<Transfer> transfers) {
+        List<Transfer> copy = List.copyOf(transfers);
+        List<String> accountNumbers = new ArrayList<>(copy.size() * 2);
+        for (Transfer transfer : copy) {
+            accountNumbers.add(transfer.getFromAccountNumber());
+            accountNumbers.add(transfer.getToAccountNumber());
+        }
+        return submit(accountNumbers, () -> {
+            delegate.submitBatch(copy);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<Operation>> getOperations(String accountNumber) {
+        return submit(List.of(accountNumber), () -> delegate.getOperations(accountNumber));
+    }
+
+    @Override
+    public CompletableFuture<List<Operation>> getLastOperations(String accountNumber, int count) {
+        return submit(List.of(accountNumber), () -> delegate.getLastOperations(accountNumber, count));
+    }
+
+    @Override
+    public void close() {
+        List<CompletableFuture<?>> tails = new ArrayList<>();
+        for (Mailbox mailbox : mailboxes.values()) {
+            tails.add(mailbox.tail);
+        }
+        CompletableFuture.allOf(tails.toArray(CompletableFuture[]::new)).exceptionally(error -> null).join();
+        executor.close();
+    }
+
+    /**
+     * Ставит операцию в очереди заданных счетов.
+     * Операция запускается, когда завершены все предыдущие операции этих счетов.
+     * @param accountNumbers номера счетов
+     * @param task операция
+     * @param <T> тип результата
+     * @return результат операции
+     */
+    private <T> CompletableFuture<T> submit(Iterable<String> accountNumbers, Callable<T> task) {
+        TreeSet<String> ordered = new TreeSet<>();
+        accountNumbers.forEach(ordered::add);
+        Mailbox[] locked = new Mailbox[ordered.size()];
+        CompletableFuture<T> result = new CompletableFuture<>();
+        CompletableFuture<?>[] previous = new CompletableFuture<?>[locked.length];
+        int count = 0;
+        try {
+            for (String accountNumber : ordered) {
+                Mailbox mailbox = lockMailbox(accountNumber);
+                locked[count] = mailbox;
+                previous[count] = mailbox.tail;
+                mailbox.tail = result;
+                count++;
+            }
+        } finally {
+            for (int i = count - 1; i >= 0; i--) {
+                locked[i].lock.unlock();
+            }
+        }
+        CompletableFuture.allOf(previous).whenComplete((ignored, error) -> run(task, result));
+        result.whenComplete((ignored, error) -> {
+            for (Mailbox mailbox : locked) {
+                mailbox.retireIfIdle(result);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Запускает операцию в исполнителе и завершает ею результат.
+     * @param task операция
+     * @param result результат операции
+     * @param <T> тип результата
+     */
+    private <T> void run(Callable<T> task, CompletableFuture<T> result) {
+        try {
+            executor.execute(() -> {
+                try {
+                    result.complete(task.call());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Находит или создаёт почтовый ящик счёта и захватывает его блокировку.
+     * @param accountNumber номер счета
+     * @return почтовый ящик с захваченной блокировкой
+     */
+    private Mailbox lockMailbox(String accountNumber) {
+        while (true) {
+            Mailbox mailbox = mailboxes.computeIfAbsent(accountNumber, Mailbox::new);
+            mailbox.lock.lock();
+            if (!mailbox.retired) {
+                return mailbox;
+            }
+            mailbox.lock.unlock();
+        }
+    }
+
+    /**
+     * Почтовый ящик счёта: последняя принятая операция, за которой ставится следующая.
+     */
+    private final class Mailbox {
+        private final String accountNumber;
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile CompletableFuture<?> tail = CompletableFuture.completedFuture(null);
+        private boolean retired;
+
+        private Mailbox(String accountNumber) {
+            this.accountNumber = accountNumber;
+        }
+
+        /**
+         * Удаляет ящик, если завершившаяся операция была последней в очереди.
+         * @param completed завершившаяся операция
+         */
+        private void retireIfIdle(CompletableFuture<?> completed) {
+            lock.lock();
+            try {
+                if (tail == completed && !retired) {
+                    retired = true;
+                    mailboxes.remove(accountNumber, this);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -2,13 +2,21 @@ package ru.dulfi.service;
 
 import ru.dulfi.domain.Account;
 import ru.dulfi.domain.Operation;
+import ru.dulfi.domain.PostingPolicy;
+import ru.dulfi.domain.PostingReport;
+import ru.dulfi.domain.Transfer;
 import ru.dulfi.exceptions.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
  * Интерфейс, определяющий базовые операции системы банкомата.
+ * <p>
+ * Изменяющие операции имеют варианты с ключом идемпотентности: повторный запрос с тем же ключом
+ * (например, повтор терминала после таймаута) не проводит операцию второй раз, а возвращает исход
+ * первого запроса. Ключи хранятся ограниченное время, см. {@link IdempotencyCache}.
  */
 public interface BankService {
     /**
@@ -18,6 +26,14 @@ public interface BankService {
      * @return созданный счет
      */
     Account createAccount(BigDecimal balance);
+    /**
+     * Создает новый счет не более одного раза для ключа идемпотентности.
+     * @param balance начальный баланс
+     * @param idempotencyKey ключ идемпотентности
+     * @return счет, созданный первым запросом с этим ключом
+     * @throws IllegalArgumentException если ключ пустой или уже использован для другого запроса
+     */
+    Account createAccount(BigDecimal balance, String idempotencyKey);
     /**
      * Возвращает текущий баланс счета.
      * @param accountNumber номер счета
@@ -32,6 +48,15 @@ public interface BankService {
      * @throws AccountNotFoundException если счет не найден
      */
     void deposit(String accountNumber, BigDecimal amount) throws AccountNotFoundException;
+    /**
+     * Пополняет счет не более одного раза для ключа идемпотентности.
+     * @param accountNumber номер счета
+     * @param amount сумма пополнения
+     * @param idempotencyKey ключ идемпотентности
+     * @throws AccountNotFoundException если счет не найден при первом запросе с этим ключом
+     * @throws IllegalArgumentException если ключ пустой или уже использован для другого запроса
+     */
+    void deposit(String accountNumber, BigDecimal amount, String idempotencyKey) throws AccountNotFoundException;
     /**
      * Снимает с счета заданную сумму.
      * @param accountNumber номер счета
@@ -40,6 +65,55 @@ public interface BankService {
      * @throws InsufficientFundsException если на счете недостаточно средств
      */
     void withdraw(String accountNumber, BigDecimal amount) throws AccountNotFoundException, InsufficientFundsException;
+    /**
+     * Снимает с счета сумму не более одного раза для ключа идемпотентности.
+     * @param accountNumber номер счета
+     * @param amount сумма для снятия
+     * @param idempotencyKey ключ идемпотентности
+     * @throws AccountNotFoundException если счет не найден при первом запросе с этим ключом
+     * @throws InsufficientFundsException если средств не хватило при первом запросе с этим ключом
+     * @throws IllegalArgumentException если ключ пустой или уже использован для другого запроса
+     */
+    void withdraw(String accountNumber, BigDecimal amount, String idempotencyKey) throws AccountNotFoundException, InsufficientFundsException;
+    /**
+     * Атомарно переводит сумму с одного счета на другой.
+     * В историю обоих счетов записываются парные операции TRANSFER_OUT и TRANSFER_IN.
+     * @param fromAccountNumber номер счета списания
+     * @param toAccountNumber номер счета зачисления
+     * @param amount сумма перевода
+     * @throws AccountNotFoundException если один из счетов не найден
+     * @throws InsufficientFundsException если на счете списания недостаточно средств
+     * @throws IllegalArgumentException если счета списания и зачисления совпадают
+     */
+    void transfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount) throws AccountNotFoundException, InsufficientFundsException;
+    /**
+     * Переводит сумму между счетами не более одного раза для ключа идемпотентности.
+     * @param fromAccountNumber номер счета списания
+     * @param toAccountNumber номер счета зачисления
+     * @param amount сумма перевода
+     * @param idempotencyKey ключ идемпотентности
+     * @throws AccountNotFoundException если один из счетов не найден при первом запросе с этим ключом
+     * @throws InsufficientFundsException если средств не хватило при первом запросе с этим ключом
+     * @throws IllegalArgumentException если ключ пустой, уже использован для другого запроса или счета совпадают
+     */
+    void transfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount, String idempotencyKey) throws AccountNotFoundException, InsufficientFundsException;
+    /**
+     * Атомарно применяет пакет переводов: либо все переводы проводятся в заданном порядке, либо ни один.
+     * Перевод может использовать средства, зачисленные предыдущими переводами того же пакета.
+     * @param transfers переводы
+     * @throws AccountNotFoundException если один из счетов не найден
+     * @throws InsufficientFundsException если какому-либо переводу не хватает средств
+     * @throws IllegalArgumentException если в каком-либо переводе счета списания и зачисления совпадают
+     */
+    void submitBatch(List<Transfer> transfers) throws AccountNotFoundException, InsufficientFundsException;
+    /**
+     * Начисляет проценты и списывает комиссии по всем счетам одним согласованным срезом.
+     * Для каждого изменённого счёта в историю записываются операции INTEREST и FEE с общим временем среза.
+     * Счёт, отклонивший начисление, остаётся без изменений и учитывается в отчёте.
+     * @param policy правила начисления
+     * @return итоги прогона
+     */
+    PostingReport post(PostingPolicy policy);
     /**
      * Возвращает историю операций по счету.
      * @param accountNumber номер счета
@@ -47,4 +121,30 @@ public interface BankService {
      * @throws AccountNotFoundException если счет не найден
      */
     List<Operation> getOperations(String accountNumber) throws AccountNotFoundException;
+    /**
+     * Возвращает операции по счету, проведённые в полуинтервале времени {@code [from, to)}.
+     * @param accountNumber номер счета
+     * @param from начало интервала, включительно
+     * @param to конец интервала, не включительно
+     * @return список операций в порядке проведения
+     * @throws AccountNotFoundException если счет не найден
+     */
+    List<Operation> getOperations(String accountNumber, LocalDateTime from, LocalDateTime to) throws AccountNotFoundException;
+    /**
+     * Возвращает страницу истории операций по счету.
+     * @param accountNumber номер счета
+     * @param offset количество пропускаемых операций от начала истории
+     * @param limit максимальное количество возвращаемых операций
+     * @return список операций в порядке проведения
+     * @throws AccountNotFoundException если счет не найден
+     */
+    List<Operation> getOperations(String accountNumber, int offset, int limit) throws AccountNotFoundException;
+    /**
+     * Возвращает последние операции по счету.
+     * @param accountNumber номер счета
+     * @param count максимальное количество операций
+     * @return список операций в порядке проведения
+     * @throws AccountNotFoundException если счет не найден
+     */
+    List<Operation> getLastOperations(String accountNumber, int count) throws AccountNotFoundException;
 }
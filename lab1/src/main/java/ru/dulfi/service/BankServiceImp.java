@@ -2,58 +2,110 @@ package ru.dulfi.service;
 
 import ru.dulfi.domain.Account;
 import ru.dulfi.domain.AccountBuilder;
+import ru.dulfi.domain.AccountNumberGenerator;
 import ru.dulfi.domain.Operation;
+import ru.dulfi.domain.PostingPolicy;
+import ru.dulfi.domain.PostingReport;
+import ru.dulfi.domain.RandomAccountNumberGenerator;
+import ru.dulfi.domain.SequentialAccountNumberGenerator;
+import ru.dulfi.domain.Transfer;
 import ru.dulfi.exceptions.AccountNotFoundException;
 import ru.dulfi.exceptions.InsufficientFundsException;
+import ru.dulfi.storage.OperationJournal;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Реализация интерфейса {@link BankService}.
- * Номер счета генерируется автоматически с помощью {@link UUID} и создается через Builder.
+ * Номер счета выдаёт {@link AccountNumberGenerator} (по умолчанию {@link RandomAccountNumberGenerator}),
+ * счёт создается через Builder. Номера по умолчанию нельзя перебрать подряд; предсказуемый
+ * {@link SequentialAccountNumberGenerator} подключается явно через конструктор с генератором.
+ * История операций хранится в отдельном {@link OperationJournal} для каждого счёта.
  */
 public class BankServiceImp implements BankService {
-    private final Map<String, Account> accounts = new HashMap<>();
-    private final List<Operation> operations = new ArrayList<>();
+    private final AccountDirectory directory;
+    private final IdempotencyCache idempotency;
 
     /**
      * Конструктор по дефолту
      */
-    public BankServiceImp() {}
+    public BankServiceImp() {
+        this(new IdempotencyCache());
+    }
+
+    /**
+     * Конструктор с заданным кэшем ключей идемпотентности.
+     * @param idempotency кэш ключей идемпотентности
+     */
+    public BankServiceImp(IdempotencyCache idempotency) {
+        this(new RandomAccountNumberGenerator(), idempotency);
+    }
+
+    /**
+     * Конструктор с заданным генератором номеров и кэшем ключей идемпотентности.
+     * @param generator генератор номеров новых счетов
+     * @param idempotency кэш ключей идемпотентности
+     */
+    public BankServiceImp(AccountNumberGenerator generator, IdempotencyCache idempotency) {
+        this.directory = new AccountDirectory(generator);
+        this.idempotency = idempotency;
+    }
 
     @Override
     public Account createAccount(BigDecimal initialBalance) {
-        String accountNumber = UUID.randomUUID().toString();
-        Account account = new AccountBuilder()
-                .accountNumber(accountNumber)
-                .balance(initialBalance)
-                .build();
-        accounts.put(accountNumber, account);
-        operations.add(new Operation(accountNumber, "CREATE_ACCOUNT", initialBalance));
+        AccountDirectory.Entry entry;
+        do {
+            Account account = new AccountBuilder()
+                    .accountNumber(directory.nextNumber())
+                    .balance(initialBalance)
+                    .build();
+            entry = directory.newEntry(account);
+        } while (!directory.add(entry));
+        Account account = entry.account();
+        entry.journal().append(new Operation(account.getAccountNumber(), "CREATE_ACCOUNT", initialBalance));
         return account;
     }
 
     @Override
-    public BigDecimal   getBalance(String accountNumber) throws AccountNotFoundException {
-        Account account = accounts.get(accountNumber);
-        if (account == null) {
-            throw new AccountNotFoundException("Счёт не найден: " + accountNumber);
+    public Account createAccount(BigDecimal initialBalance, String idempotencyKey) {
+        try {
+            return idempotency.execute(idempotencyKey, IdempotencyCache.fingerprint("CREATE_ACCOUNT", initialBalance),
+                    () -> createAccount(initialBalance));
+        } catch (AccountNotFoundException | InsufficientFundsException e) {
+            throw new IllegalStateException("Создание счёта не может завершиться такой ошибкой", e);
         }
-        return account.getBalance();
+    }
+
+    @Override
+    public BigDecimal   getBalance(String accountNumber) throws AccountNotFoundException {
+        return getAccount(accountNumber).getBalance();
     }
 
     @Override
     public void deposit(String accountNumber, BigDecimal amount) throws AccountNotFoundException {
-        Account account = getAccount(accountNumber);
-        account.deposit(amount);
-        operations.add(new Operation(accountNumber, "DEPOSIT", amount));
+        AccountDirectory.Entry entry = getEntry(accountNumber);
+        entry.account().deposit(amount);
+        entry.journal().append(new Operation(accountNumber, "DEPOSIT", amount));
+    }
+
+    @Override
+    public void deposit(String accountNumber, BigDecimal amount, String idempotencyKey) throws AccountNotFoundException {
+        try {
+            idempotency.execute(idempotencyKey, IdempotencyCache.fingerprint("DEPOSIT", accountNumber, amount), () -> {
+                deposit(accountNumber, amount);
+                return null;
+            });
+        } catch (InsufficientFundsException e) {
+            throw new IllegalStateException("Пополнение не может завершиться такой ошибкой", e);
+        }
     }
 
     @Override
     public void withdraw(String accountNumber, BigDecimal amount) throws AccountNotFoundException, InsufficientFundsException {
-        Account account = getAccount(accountNumber);
+        AccountDirectory.Entry entry = getEntry(accountNumber);
+        Account account = entry.account();
         if (amount.compareTo(BigDecimal.ZERO) <= 0) {
             throw new InsufficientFundsException("Сумма должна быть > 0");
         }
@@ -61,16 +113,67 @@ public class BankServiceImp implements BankService {
             throw new InsufficientFundsException("Недостаточно средств");
         }
         account.withdraw(amount);
-        operations.add(new Operation(accountNumber, "WITHDRAW", amount));
+        entry.journal().append(new Operation(accountNumber, "WITHDRAW", amount));
+    }
+
+    @Override
+    public void withdraw(String accountNumber, BigDecimal amount, String idempotencyKey) throws AccountNotFoundException, InsufficientFundsException {
+        idempotency.execute(idempotencyKey, IdempotencyCache.fingerprint("WITHDRAW", accountNumber, amount), () -> {
+            withdraw(accountNumber, amount);
+            return null;
+        });
+    }
+
+    @Override
+    public void transfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount) throws AccountNotFoundException, InsufficientFundsException {
+        submitBatch(List.of(new Transfer(fromAccountNumber, toAccountNumber, amount)));
+    }
+
+    @Override
+    public void transfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount, String idempotencyKey) throws AccountNotFoundException, InsufficientFundsException {
+        idempotency.execute(idempotencyKey, IdempotencyCache.fingerprint("TRANSFER", fromAccountNumber, toAccountNumber, amount), () -> {
+            transfer(fromAccountNumber, toAccountNumber, amount);
+            return null;
+        });
+    }
+
+    @Override
+    public void submitBatch(List<Transfer> transfers) throws AccountNotFoundException, InsufficientFundsException {
+        Map<String, Account> involved = new HashMap<>();
+        for (Transfer transfer : transfers) {
+            TransferBatch.check(transfer);
+            involved.put(transfer.getFromAccountNumber(), getAccount(transfer.getFromAccountNumber()));
+            involved.put(transfer.getToAccountNumber(), getAccount(transfer.getToAccountNumber()));
+        }
+        TransferBatch.validate(transfers, involved);
+        for (Operation operation : TransferBatch.apply(transfers, involved)) {
+            directory.get(operation.getAccountNumber()).journal().append(operation);
+        }
+    }
+
+    @Override
+    public PostingReport post(PostingPolicy policy) {
+        return PostingEngine.post(directory, policy);
     }
 
     @Override
     public List<Operation> getOperations(String accountNumber) throws AccountNotFoundException {
-        getAccount(accountNumber);
-        List<Operation> result = operations.stream()
-                .filter(operation -> operation.getAccountNumber().equals(accountNumber))
-                .collect(Collectors.toList());
-        return result;
+        return getJournal(accountNumber).getAll();
+    }
+
+    @Override
+    public List<Operation> getOperations(String accountNumber, LocalDateTime from, LocalDateTime to) throws AccountNotFoundException {
+        return getJournal(accountNumber).getRange(from, to);
+    }
+
+    @Override
+    public List<Operation> getOperations(String accountNumber, int offset, int limit) throws AccountNotFoundException {
+        return getJournal(accountNumber).getPage(offset, limit);
+    }
+
+    @Override
+    public List<Operation> getLastOperations(String accountNumber, int count) throws AccountNotFoundException {
+        return getJournal(accountNumber).getLast(count);
     }
 
     /**
@@ -80,10 +183,38 @@ public class BankServiceImp implements BankService {
      * @throws AccountNotFoundException если счет не найден
      */
     private Account getAccount(String accountNumber) throws AccountNotFoundException {
-        Account account = accounts.get(accountNumber);
-        if (account == null) {
+        return getEntry(accountNumber).account();
+    }
+
+    /**
+     * Находит журнал операций счета по номеру.
+     * @param accountNumber номер счета
+     * @return журнал операций счета
+     * @throws AccountNotFoundException если счет не найден
+     */
+    private OperationJournal getJournal(String accountNumber) throws AccountNotFoundException {
+        return getEntry(accountNumber).journal();
+    }
+
+    /**
+     * Возвращает справочник счетов сервиса.
+     * @return справочник счетов
+     */
+    AccountDirectory directory() {
+        return directory;
+    }
+
+    /**
+     * Находит счет и его журнал по номеру.
+     * @param accountNumber номер счета
+     * @return запись справочника счетов
+     * @throws AccountNotFoundException если счет не найден
+     */
+    private AccountDirectory.Entry getEntry(String accountNumber) throws AccountNotFoundException {
+        AccountDirectory.Entry entry = directory.get(accountNumber);
+        if (entry == null) {
             throw new AccountNotFoundException("Счёт не найден: " + accountNumber);
         }
-        return account;
+        return entry;
     }
 }
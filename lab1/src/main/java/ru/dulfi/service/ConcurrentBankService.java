@@ -0,0 +1,492 @@
+package ru.dulfi.service;
+
+import ru.dulfi.domain.Account;
+import ru.dulfi.domain.AccountBuilder;
+import ru.dulfi.domain.AccountNumberGenerator;
+import ru.dulfi.domain.Operation;
+import ru.dulfi.domain.PostingPolicy;
+import ru.dulfi.domain.PostingReport;
+import ru.dulfi.domain.RandomAccountNumberGenerator;
+import ru.dulfi.domain.SequentialAccountNumberGenerator;
+import ru.dulfi.domain.Transfer;
+import ru.dulfi.exceptions.AccountNotFoundException;
+import ru.dulfi.exceptions.InsufficientFundsException;
+import ru.dulfi.storage.OperationJournal;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Потокобезопасная реализация интерфейса {@link BankService}.
+ * Номера счетов выдаёт {@link AccountNumberGenerator} (по умолчанию {@link RandomAccountNumberGenerator},
+ * номера которого нельзя перебрать подряд; предсказуемый {@link SequentialAccountNumberGenerator}
+ * подключается явно), а поиск по номеру идёт по числовому ключу без блокировок. Изменения баланса защищаются набором
+ * блокировок (lock striping): номер счёта отображается на одну из полос, поэтому операции
+ * над счетами из разных полос выполняются параллельно без глобальной блокировки.
+ * История каждого счёта пишется в собственный {@link OperationJournal} под блокировкой его полосы
+ * и читается без блокировок.
+ * <p>
+ * Переводы захватывают блокировки всех затронутых полос в порядке возрастания их номеров, поэтому
+ * пересекающиеся пакеты не могут взаимно заблокироваться, а непересекающиеся идут параллельно.
+ * Пакетное начисление ({@link #post(PostingPolicy)}) удерживает блокировки всех полос и обрабатывает
+ * счета параллельно в {@link java.util.concurrent.ForkJoinPool}.
+ */
+public class ConcurrentBankService implements BankService {
+    private static final int MIN_STRIPES = 16;
+
+    private final AccountDirectory directory;
+    private final ReentrantLock[] locks;
+    private final int mask;
+    private final IdempotencyCache idempotency;
+    private volatile LongConsumer lockWaitListener = nanos -> {
+    };
+
+    /**
+     * Конструктор по дефолту.
+     * Число полос блокировок выбирается по количеству доступных процессоров.
+     */
+    public ConcurrentBankService() {
+        this(Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    /**
+     * Конструктор с явным числом полос блокировок.
+     * @param stripes желаемое число полос, округляется вверх до степени двойки
+     * @throws IllegalArgumentException если число полос не положительное
+     */
+    public ConcurrentBankService(int stripes) {
+        this(stripes, new RandomAccountNumberGenerator(), new IdempotencyCache());
+    }
+
+    /**
+     * Конструктор с явным числом полос блокировок и кэшем ключей идемпотентности.
+     * @param stripes желаемое число полос, округляется вверх до степени двойки
+     * @param idempotency кэш ключей идемпотентности
+     * @throws IllegalArgumentException если число полос не положительное
+     */
+    public ConcurrentBankService(int stripes, IdempotencyCache idempotency) {
+        this(stripes, new RandomAccountNumberGenerator(), idempotency);
+    }
+
+    /**
+     * Конструктор с явным числом полос блокировок, генератором номеров и кэшем ключей идемпотентности.
+     * @param stripes желаемое число полос, округляется вверх до степени двойки
+     * @param generator генератор номеров новых счетов
+     * @param idempotency кэш ключей идемпотентности
+     * @throws IllegalArgumentException если число полос не положительное
+     */
+    public ConcurrentBankService(int stripes, AccountNumberGenerator generator, IdempotencyCache idempotency) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Число полос блокировок должно быть > 0");
+        }
+        int size = Integer.highestOneBit(Math.max(stripes, MIN_STRIPES) - 1) << 1;
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.directory = new AccountDirectory(generator);
+        this.idempotency = idempotency;
+    }
+
+    @Override
+    public Account createAccount(BigDecimal initialBalance) {
+        while (true) {
+            Account account = new AccountBuilder()
+                    .accountNumber(directory.nextNumber())
+                    .balance(initialBalance)
+                    .build();
+            AccountDirectory.Entry entry = directory.newEntry(account);
+            ReentrantLock lock = lockFor(entry);
+            acquire(lock);
+            try {
+                if (directory.get(account.getAccountNumber()) == null) {
+                    record(entry, new Operation(account.getAccountNumber(), "CREATE_ACCOUNT", initialBalance), BigDecimal.ZERO);
+                    directory.add(entry);
+                    return account;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public Account createAccount(BigDecimal initialBalance, String idempotencyKey) {
+        try {
+            return idempotency.execute(idempotencyKey, IdempotencyCache.fingerprint("CREATE_ACCOUNT", initialBalance),
+                    () -> createAccount(initialBalance));
+        } catch (AccountNotFoundException | InsufficientFundsException e) {
+            throw new IllegalStateException("Создание счёта не может завершиться такой ошибкой", e);
+        }
+    }
+
+    @Override
+    public BigDecimal getBalance(String accountNumber) throws AccountNotFoundException {
+        AccountDirectory.Entry entry = getEntry(accountNumber);
+        ReentrantLock lock = lockFor(entry);
+        acquire(lock);
+        try {
+            return entry.account().getBalance();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deposit(String accountNumber, BigDecimal amount) throws AccountNotFoundException {
+        AccountDirectory.Entry entry = getEntry(accountNumber);
+        ReentrantLock lock = lockFor(entry);
+        acquire(lock);
+        try {
+            entry.account().deposit(amount);
+            record(entry, new Operation(accountNumber, "DEPOSIT", amount), amount);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deposit(String accountNumber, BigDecimal amount, String idempotencyKey) throws AccountNotFoundException {
+        try {
+            idempotency.execute(idempotencyKey, IdempotencyCache.fingerprint("DEPOSIT", accountNumber, amount), () -> {
+                deposit(accountNumber, amount);
+                return null;
+            });
+        } catch (InsufficientFundsException e) {
+            throw new IllegalStateException("Пополнение не может завершиться такой ошибкой", e);
+        }
+    }
+
+    @Override
+    public void withdraw(String accountNumber, BigDecimal amount) throws AccountNotFoundException, InsufficientFundsException {
+        AccountDirectory.Entry entry = getEntry(accountNumber);
+        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new InsufficientFundsException("Сумма должна быть > 0");
+        }
+        ReentrantLock lock = lockFor(entry);
+        acquire(lock);
+        try {
+            Account account = entry.account();
+            if (account.getBalance().compareTo(amount) < 0) {
+                throw new InsufficientFundsException("Недостаточно средств");
+            }
+            account.withdraw(amount);
+            record(entry, new Operation(accountNumber, "WITHDRAW", amount), amount.negate());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void withdraw(String accountNumber, BigDecimal amount, String idempotencyKey) throws AccountNotFoundException, InsufficientFundsException {
+        idempotency.execute(idempotencyKey, IdempotencyCache.fingerprint("WITHDRAW", accountNumber, amount), () -> {
+            withdraw(accountNumber, amount);
+            return null;
+        });
+    }
+
+    @Override
+    public void transfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount) throws AccountNotFoundException, InsufficientFundsException {
+        submitBatch(List.of(new Transfer(fromAccountNumber, toAccountNumber, amount)));
+    }
+
+    @Override
+    public void transfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount, String idempotencyKey) throws AccountNotFoundException, InsufficientFundsException {
+        idempotency.execute(idempotencyKey, IdempotencyCache.fingerprint("TRANSFER", fromAccountNumber, toAccountNumber, amount), () -> {
+            transfer(fromAccountNumber, toAccountNumber, amount);
+            return null;
+        });
+    }
+
+    @Override
+    public void submitBatch(List<Transfer> transfers) throws AccountNotFoundException, InsufficientFundsException {
+        Map<String, AccountDirectory.Entry> entries = new HashMap<>();
+        Map<String, Account> involved = new HashMap<>();
+        for (Transfer transfer : transfers) {
+            TransferBatch.check(transfer);
+            for (String accountNumber : List.of(transfer.getFromAccountNumber(), transfer.getToAccountNumber())) {
+                AccountDirectory.Entry entry = getEntry(accountNumber);
+                entries.put(accountNumber, entry);
+                involved.put(accountNumber, entry.account());
+            }
+        }
+        if (entries.isEmpty()) {
+            return;
+        }
+        int[] stripes = entries.values().stream().mapToInt(this::stripe).sorted().distinct().toArray();
+        int locked = 0;
+        try {
+            for (int stripe : stripes) {
+                acquire(locks[stripe]);
+                locked++;
+            }
+            TransferBatch.validate(transfers, involved);
+            List<Operation> operations = TransferBatch.apply(transfers, involved);
+            try {
+                onOperations(operations);
+            } catch (RuntimeException | Error e) {
+                TransferBatch.revert(transfers, involved);
+                throw e;
+            }
+            for (Operation operation : operations) {
+                entries.get(operation.getAccountNumber()).journal().append(operation);
+            }
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                locks[stripes[i]].unlock();
+            }
+        }
+    }
+
+    @Override
+    public PostingReport post(PostingPolicy policy) {
+        return withAllLocks(() -> postLocked(policy));
+    }
+
+    @Override
+    public List<Operation> getOperations(String accountNumber) throws AccountNotFoundException {
+        return getEntry(accountNumber).journal().getAll();
+    }
+
+    @Override
+    public List<Operation> getOperations(String accountNumber, LocalDateTime from, LocalDateTime to) throws AccountNotFoundException {
+        return getEntry(accountNumber).journal().getRange(from, to);
+    }
+
+    @Override
+    public List<Operation> getOperations(String accountNumber, int offset, int limit) throws AccountNotFoundException {
+        return getEntry(accountNumber).journal().getPage(offset, limit);
+    }
+
+    @Override
+    public List<Operation> getLastOperations(String accountNumber, int count) throws AccountNotFoundException {
+        return getEntry(accountNumber).journal().getLast(count);
+    }
+
+    /**
+     * Задаёт получателя времени ожидания блокировок полос.
+     * Получатель вызывается, только если блокировка была занята, с временем ожидания в наносекундах;
+     * захват свободной блокировки время не измеряет.
+     * @param listener получатель времени ожидания
+     */
+    public void setLockWaitListener(LongConsumer listener) {
+        this.lockWaitListener = listener;
+    }
+
+    /**
+     * Вызывается после изменения баланса каждой операцией, но до записи операции в журнал счёта,
+     * пока удерживается блокировка полосы её счёта. Поэтому для одного счёта вызовы упорядочены так же,
+     * как операции в его журнале. Если метод бросает исключение, изменение баланса отменяется
+     * (новый счёт не создаётся), а исключение пробрасывается вызывающему.
+     * Реализация по умолчанию ничего не делает.
+     * @param operation проведённая операция
+     */
+    protected void onOperation(Operation operation) {
+    }
+
+    /**
+     * Вызывается после проведения пакета переводов, пока удерживаются блокировки полос всех его счетов.
+     * Если метод бросает исключение, весь пакет отменяется. Реализация по умолчанию вызывает {@link #onOperation(Operation)} для каждой операции пакета;
+     * переопределение может обработать пакет целиком, например записать его атомарно.
+     * @param operations операции пакета в порядке проведения
+     */
+    protected void onOperations(List<Operation> operations) {
+        for (Operation operation : operations) {
+            onOperation(operation);
+        }
+    }
+
+    /**
+     * Проводит пакетное начисление по всем счетам.
+     * Должен вызываться внутри {@link #withAllLocks(Supplier)}; {@link #onOperation(Operation)} для операций
+     * начисления не вызывается.
+     * @param policy правила начисления
+     * @return итоги прогона
+     */
+    protected PostingReport postLocked(PostingPolicy policy) {
+        return PostingEngine.post(directory, policy);
+    }
+
+    /**
+     * Восстанавливает счёт с заданным балансом без записи операции в журнал.
+     * @param accountNumber номер счета
+     * @param balance баланс счета
+     */
+    protected void restoreAccount(String accountNumber, BigDecimal balance) {
+        Account account = new AccountBuilder()
+                .accountNumber(accountNumber)
+                .balance(balance)
+                .build();
+        AccountDirectory.Entry entry = directory.newEntry(account);
+        ReentrantLock lock = lockFor(entry);
+        acquire(lock);
+        try {
+            directory.put(entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Повторно применяет ранее проведённую операцию, сохраняя её дату.
+     * {@link #onOperation(Operation)} при этом не вызывается.
+     * @param operation операция
+     * @throws IllegalStateException если операция не согласуется с текущим состоянием счетов
+     */
+    protected void restore(Operation operation) {
+        String accountNumber = operation.getAccountNumber();
+        if (operation.getOperationType().equals("CREATE_ACCOUNT")) {
+            restoreAccount(accountNumber, operation.getAmount());
+        }
+        AccountDirectory.Entry entry = directory.get(accountNumber);
+        if (entry == null) {
+            throw new IllegalStateException("Операция по неизвестному счёту: " + accountNumber);
+        }
+        Account account = entry.account();
+        ReentrantLock lock = lockFor(entry);
+        acquire(lock);
+        try {
+            switch (operation.getOperationType()) {
+                case "CREATE_ACCOUNT" -> {
+                }
+                case "DEPOSIT", TransferBatch.TRANSFER_IN, "INTEREST" -> account.deposit(operation.getAmount());
+                case "WITHDRAW", TransferBatch.TRANSFER_OUT, "FEE" -> account.withdraw(operation.getAmount());
+                default -> throw new IllegalStateException("Неизвестный тип операции: " + operation.getOperationType());
+            }
+            entry.journal().append(operation);
+        } catch (InsufficientFundsException e) {
+            throw new IllegalStateException("Недостаточно средств при восстановлении счёта " + accountNumber, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Выполняет действие, удерживая блокировки всех полос.
+     * Пока действие выполняется, ни одна операция не может изменить баланс какого-либо счёта.
+     * @param action действие
+     * @param <T> тип результата
+     * @return результат действия
+     */
+    protected <T> T withAllLocks(Supplier<T> action) {
+        int locked = 0;
+        try {
+            for (ReentrantLock lock : locks) {
+                acquire(lock);
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                locks[i].unlock();
+            }
+        }
+    }
+
+    /**
+     * Копирует балансы всех счетов.
+     * Согласованный срез получается, только если метод вызван внутри {@link #withAllLocks(Supplier)}.
+     * @return балансы счетов по их номерам
+     */
+    protected Map<String, BigDecimal> copyBalances() {
+        Map<String, BigDecimal> balances = new HashMap<>(Math.max(16, (int) (directory.size() / 0.75f) + 1));
+        directory.forEach(entry -> balances.put(entry.account().getAccountNumber(), entry.account().getBalance()));
+        return balances;
+    }
+
+    /**
+     * Уведомляет {@link #onOperation(Operation)} и только после этого записывает операцию в журнал счёта.
+     * Если уведомление не удалось, изменение баланса отменяется и исключение пробрасывается дальше.
+     * Должен вызываться под блокировкой полосы счёта.
+     * @param entry запись справочника счетов
+     * @param operation операция
+     * @param change изменение баланса операцией: положительное при зачислении, отрицательное при списании
+     */
+    private void record(AccountDirectory.Entry entry, Operation operation, BigDecimal change) {
+        try {
+            onOperation(operation);
+        } catch (RuntimeException | Error e) {
+            revert(entry.account(), change);
+            throw e;
+        }
+        entry.journal().append(operation);
+    }
+
+    /**
+     * Отменяет изменение баланса счёта.
+     * @param account счёт
+     * @param change отменяемое изменение баланса
+     */
+    private static void revert(Account account, BigDecimal change) {
+        if (change.signum() > 0) {
+            try {
+                account.withdraw(change);
+            } catch (InsufficientFundsException e) {
+                throw new IllegalStateException("Не удалось отменить операцию", e);
+            }
+        } else if (change.signum() < 0) {
+            account.deposit(change.negate());
+        }
+    }
+
+    /**
+     * Возвращает справочник счетов сервиса.
+     * @return справочник счетов
+     */
+    AccountDirectory directory() {
+        return directory;
+    }
+
+    /**
+     * Находит счет и его журнал по номеру.
+     * @param accountNumber номер счета
+     * @return запись справочника счетов
+     * @throws AccountNotFoundException если счет не найден
+     */
+    private AccountDirectory.Entry getEntry(String accountNumber) throws AccountNotFoundException {
+        AccountDirectory.Entry entry = directory.get(accountNumber);
+        if (entry == null) {
+            throw new AccountNotFoundException("Счёт не найден: " + accountNumber);
+        }
+        return entry;
+    }
+
+    /**
+     * Захватывает блокировку полосы и сообщает время ожидания, если она была занята.
+     * @param lock блокировка полосы
+     */
+    private void acquire(ReentrantLock lock) {
+        if (lock.tryLock()) {
+            return;
+        }
+        long start = System.nanoTime();
+        lock.lock();
+        lockWaitListener.accept(System.nanoTime() - start);
+    }
+
+    /**
+     * Возвращает блокировку полосы, к которой относится счёт.
+     * @param entry запись справочника счетов
+     * @return блокировка полосы
+     */
+    private ReentrantLock lockFor(AccountDirectory.Entry entry) {
+        return locks[stripe(entry)];
+    }
+
+    /**
+     * Возвращает номер полосы, к которой относится счёт.
+     * @param entry запись справочника счетов
+     * @return номер полосы
+     */
+    private int stripe(AccountDirectory.Entry entry) {
+        int h = entry.hash();
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,234 @@
+package ru.dulfi.service;
+
+import ru.dulfi.domain.Account;
+import ru.dulfi.domain.Operation;
+import ru.dulfi.domain.PostingPolicy;
+import ru.dulfi.domain.PostingReport;
+import ru.dulfi.domain.Transfer;
+import ru.dulfi.exceptions.AccountNotFoundException;
+import ru.dulfi.exceptions.InsufficientFundsException;
+import ru.dulfi.persistence.SnapshotStore;
+import ru.dulfi.persistence.SyncMode;
+import ru.dulfi.persistence.WriteAheadLog;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Реализация {@link BankService}, переживающая перезапуск.
+ * <p>
+ * Каждая операция перед подтверждением записывается в {@link WriteAheadLog}. После заданного числа
+ * операций в фоне снимается двоичный снимок балансов ({@link SnapshotStore}), а поглощённые им
+ * сегменты журнала удаляются. При запуске загружается последний снимок и дочитывается хвост
+ * журнала, поэтому время восстановления ограничено интервалом между снимками, а не всей историей.
+ * Пакет переводов пишется в журнал одной записью и после сбоя восстанавливается целиком или не восстанавливается.
+ * Пакетное начисление ({@link #post(PostingPolicy)}) затрагивает все счета, поэтому вместо журнала
+ * сохраняется снимком, записанным в том же срезе.
+ * <p>
+ * История операций, поглощённая снимком, после перезапуска не восстанавливается:
+ * {@link #getOperations(String)} возвращает только операции, проведённые после снимка.
+ * Ключи идемпотентности тоже не сохраняются: повтор запроса после перезапуска будет проведён заново.
+ */
+public class DurableBankService extends ConcurrentBankService implements AutoCloseable {
+    /**
+     * Число операций между снимками по умолчанию.
+     */
+    public static final long DEFAULT_SNAPSHOT_INTERVAL = 1_000_000;
+
+    private final SnapshotStore snapshots;
+    private final WriteAheadLog log;
+    private final long snapshotInterval;
+    private final AtomicLong sinceSnapshot = new AtomicLong();
+    private final AtomicBoolean snapshotScheduled = new AtomicBoolean();
+    private final ExecutorService snapshotExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "bank-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Открывает хранилище в каталоге с групповой фиксацией журнала.
+     * @param directory каталог журнала и снимков
+     * @throws IOException если не удалось восстановить состояние или открыть журнал
+     */
+    public DurableBankService(Path directory) throws IOException {
+        this(directory, SyncMode.GROUP_COMMIT, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    /**
+     * Открывает хранилище в каталоге и восстанавливает состояние из снимка и журнала.
+     * @param directory каталог журнала и снимков
+     * @param syncMode режим сброса журнала на диск
+     * @param snapshotInterval число операций между снимками
+     * @throws IOException если не удалось восстановить состояние или открыть журнал
+     * @throws IllegalArgumentException если интервал между снимками не положительный
+     */
+    public DurableBankService(Path directory, SyncMode syncMode, long snapshotInterval) throws IOException {
+        if (snapshotInterval <= 0) {
+            throw new IllegalArgumentException("Интервал между снимками должен быть > 0");
+        }
+        this.snapshots = new SnapshotStore(directory);
+        this.snapshotInterval = snapshotInterval;
+        this.log = new WriteAheadLog(directory, recover(directory), WriteAheadLog.DEFAULT_SEGMENT_SIZE, syncMode);
+    }
+
+    @Override
+    public Account createAccount(BigDecimal initialBalance) {
+        Account account = super.createAccount(initialBalance);
+        awaitDurable();
+        return account;
+    }
+
+    @Override
+    public void deposit(String accountNumber, BigDecimal amount) throws AccountNotFoundException {
+        super.deposit(accountNumber, amount);
+        awaitDurable();
+    }
+
+    @Override
+    public void withdraw(String accountNumber, BigDecimal amount) throws AccountNotFoundException, InsufficientFundsException {
+        super.withdraw(accountNumber, amount);
+        awaitDurable();
+    }
+
+    @Override
+    public void transfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount) throws AccountNotFoundException, InsufficientFundsException {
+        super.transfer(fromAccountNumber, toAccountNumber, amount);
+        awaitDurable();
+    }
+
+    @Override
+    public void submitBatch(List<Transfer> transfers) throws AccountNotFoundException, InsufficientFundsException {
+        super.submitBatch(transfers);
+        awaitDurable();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Операции начисления не пишутся в журнал: в том же срезе снимается и записывается снимок балансов,
+     * поэтому операции блокируются до записи снимка на диск. Операции начисления попадают в историю счетов
+     * только после записи снимка; если записать его не удалось, балансы возвращаются к значениям до начисления.
+     * @throws UncheckedIOException если не удалось записать снимок
+     */
+    @Override
+    public PostingReport post(PostingPolicy policy) {
+        PostingCut cut = withAllLocks(() -> {
+            PostingEngine.Posting posting = PostingEngine.apply(directory(), policy);
+            long segment;
+            try {
+                segment = log.roll();
+                snapshots.write(segment, copyBalances());
+            } catch (IOException e) {
+                posting.revert();
+                throw new UncheckedIOException("Не удалось записать снимок после начисления", e);
+            } catch (RuntimeException e) {
+                posting.revert();
+                throw e;
+            }
+            posting.commit();
+            sinceSnapshot.set(0);
+            return new PostingCut(posting.report(), segment);
+        });
+        try {
+            log.deleteSegmentsBefore(cut.segment());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось удалить сегменты журнала", e);
+        }
+        return cut.report();
+    }
+
+    /**
+     * Снимает снимок балансов и удаляет поглощённые им сегменты журнала.
+     * Операции блокируются только на время копирования балансов, запись снимка идёт без блокировок.
+     * @throws IOException если не удалось записать снимок
+     */
+    public void snapshot() throws IOException {
+        SnapshotStore.Snapshot snapshot = withAllLocks(() -> {
+            sinceSnapshot.set(0);
+            return new SnapshotStore.Snapshot(log.roll(), copyBalances());
+        });
+        snapshots.write(snapshot.segment(), snapshot.balances());
+        log.deleteSegmentsBefore(snapshot.segment());
+    }
+
+    @Override
+    public void close() throws IOException {
+        snapshotExecutor.shutdown();
+        try {
+            snapshotExecutor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.close();
+    }
+
+    @Override
+    protected void onOperation(Operation operation) {
+        log.append(operation);
+        countOperations(1);
+    }
+
+    @Override
+    protected void onOperations(List<Operation> operations) {
+        log.append(operations);
+        countOperations(operations.size());
+    }
+
+    /**
+     * Учитывает записанные операции и при достижении интервала планирует снимок в фоне.
+     * @param count число записанных операций
+     */
+    private void countOperations(int count) {
+        if (sinceSnapshot.addAndGet(count) >= snapshotInterval && snapshotScheduled.compareAndSet(false, true)) {
+            snapshotExecutor.execute(() -> {
+                try {
+                    snapshot();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Не удалось записать снимок", e);
+                } finally {
+                    snapshotScheduled.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Загружает последний снимок и применяет операции из журнала, записанные после него.
+     * @param directory каталог журнала и снимков
+     * @return номер сегмента, с которого нужно продолжить запись журнала
+     * @throws IOException если не удалось прочитать снимок или журнал
+     */
+    private long recover(Path directory) throws IOException {
+        SnapshotStore.Snapshot snapshot = snapshots.loadLatest();
+        long fromSegment = 0;
+        if (snapshot != null) {
+            snapshot.balances().forEach(this::restoreAccount);
+            fromSegment = snapshot.segment();
+        }
+        return WriteAheadLog.replay(directory, fromSegment, this::restore) + 1;
+    }
+
+    /**
+     * Дожидается сброса на диск всех записей журнала, сделанных к моменту вызова.
+     */
+    private void awaitDurable() {
+        log.awaitDurable(log.lastSequence());
+    }
+
+    /**
+     * Итоги начисления и сегмент журнала, с которого начинается записанный снимок.
+     * @param report итоги начисления
+     * @param segment номер сегмента
+     */
+    private record PostingCut(PostingReport report, long segment) {
+    }
+}
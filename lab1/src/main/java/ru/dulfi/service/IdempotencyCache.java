@@ -0,0 +1,222 @@
+package ru.dulfi.service;
+
+import ru.dulfi.exceptions.AccountNotFoundException;
+import ru.dulfi.exceptions.InsufficientFundsException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Кэш результатов операций по ключам идемпотентности.
+ * <p>
+ * Первый запрос с ключом выполняет операцию и запоминает её исход: результат или
+ * {@link AccountNotFoundException} / {@link InsufficientFundsException}. Повторные запросы с тем же ключом
+ * не выполняют операцию, а за O(1) получают тот же исход; параллельный повтор дожидается первого запроса.
+ * Прочие исключения (например, ошибка записи журнала) не запоминаются, и повтор выполнит операцию заново.
+ * <p>
+ * Кэш ограничен по числу ключей и по времени: записи вытесняются в порядке добавления, когда их
+ * больше заданного числа или они старше заданного срока. Запись, операция которой ещё выполняется,
+ * не вытесняется, чтобы повтор не выполнил операцию второй раз. Кэш хранится только в памяти и не переживает
+ * перезапуск.
+ */
+public class IdempotencyCache {
+    /**
+     * Число ключей по умолчанию.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 100_000;
+    /**
+     * Срок хранения ключа по умолчанию.
+     */
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(30);
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> order = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+
+    /**
+     * Конструктор по дефолту.
+     */
+    public IdempotencyCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_TTL);
+    }
+
+    /**
+     * Конструктор с заданными ограничениями.
+     * @param maxEntries максимальное число хранимых ключей
+     * @param ttl срок хранения ключа
+     * @throws IllegalArgumentException если ограничения не положительные
+     */
+    public IdempotencyCache(int maxEntries, Duration ttl) {
+        this(maxEntries, ttl, System::nanoTime);
+    }
+
+    /**
+     * Конструктор с заданными ограничениями и источником времени.
+     * @param maxEntries максимальное число хранимых ключей
+     * @param ttl срок хранения ключа
+     * @param clock источник времени в наносекундах
+     * @throws IllegalArgumentException если ограничения не положительные
+     */
+    public IdempotencyCache(int maxEntries, Duration ttl, LongSupplier clock) {
+        if (maxEntries <= 0 || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Размер кэша и срок хранения ключей должны быть > 0");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * Строит описание запроса для {@link #execute(String, String, Action)}.
+     * Суммы приводятся к каноническому виду, поэтому повтор с той же суммой в другой записи
+     * (например, {@code 10.00} вместо {@code 10}) считается тем же запросом.
+     * @param operation тип операции
+     * @param parts параметры запроса
+     * @return описание запроса
+     */
+    public static String fingerprint(String operation, Object... parts) {
+        StringBuilder fingerprint = new StringBuilder(operation);
+        for (Object part : parts) {
+            fingerprint.append(' ').append(part instanceof BigDecimal amount
+                    ? amount.stripTrailingZeros().toPlainString()
+                    : part);
+        }
+        return fingerprint.toString();
+    }
+
+    /**
+     * Действие, исход которого запоминается по ключу.
+     * @param <T> тип результата
+     */
+    @FunctionalInterface
+    public interface Action<T> {
+        /**
+         * Выполняет действие.
+         * @return результат
+         * @throws AccountNotFoundException если счёт не найден
+         * @throws InsufficientFundsException если недостаточно средств
+         */
+        T run() throws AccountNotFoundException, InsufficientFundsException;
+    }
+
+    /**
+     * Выполняет действие один раз для ключа и возвращает его исход при повторах.
+     * @param key ключ идемпотентности
+     * @param fingerprint описание запроса; повтор ключа с другим описанием отклоняется
+     * @param action действие
+     * @param <T> тип результата
+     * @return результат первого выполнения
+     * @throws AccountNotFoundException если его выбросило первое выполнение
+     * @throws InsufficientFundsException если его выбросило первое выполнение
+     * @throws IllegalArgumentException если ключ пустой или уже использован для другого запроса
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, String fingerprint, Action<T> action) throws AccountNotFoundException, InsufficientFundsException {
+        if (key == null || key.isEmpty()) {
+            throw new IllegalArgumentException("Ключ идемпотентности не может быть пустым");
+        }
+        long now = clock.getAsLong();
+        Entry entry = new Entry(key, fingerprint, now);
+        Entry existing = entries.putIfAbsent(key, entry);
+        while (existing != null && existing.isExpired(now, ttlNanos)) {
+            existing = entries.replace(key, existing, entry) ? null : entries.putIfAbsent(key, entry);
+        }
+        if (existing != null) {
+            if (!existing.fingerprint.equals(fingerprint)) {
+                throw new IllegalArgumentException("Ключ идемпотентности уже использован для другого запроса: " + key);
+            }
+            return (T) await(existing);
+        }
+        order.add(entry);
+        queued.incrementAndGet();
+        evict(now);
+        try {
+            T result = action.run();
+            entry.outcome.complete(result);
+            return result;
+        } catch (AccountNotFoundException | InsufficientFundsException e) {
+            entry.outcome.completeExceptionally(e);
+            throw e;
+        } catch (RuntimeException | Error e) {
+            entries.remove(key, entry);
+            entry.outcome.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Возвращает число хранимых ключей.
+     * @return число ключей
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Вытесняет самые старые завершённые записи, пока их больше допустимого или они просрочены.
+     * Вытеснение останавливается на записи, операция которой ещё выполняется.
+     * @param now текущее время
+     */
+    private void evict(long now) {
+        Entry head;
+        while ((head = order.peek()) != null && head.outcome.isDone()
+                && (queued.get() > maxEntries || head.isExpired(now, ttlNanos))) {
+            if (order.remove(head)) {
+                queued.decrementAndGet();
+                entries.remove(head.key, head);
+            }
+        }
+    }
+
+    private static Object await(Entry entry) throws AccountNotFoundException, InsufficientFundsException {
+        try {
+            return entry.outcome.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof AccountNotFoundException accountNotFound) {
+                throw accountNotFound;
+            }
+            if (cause instanceof InsufficientFundsException insufficientFunds) {
+                throw insufficientFunds;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Запись кэша: исход операции по одному ключу.
+     */
+    private static final class Entry {
+        private final String key;
+        private final String fingerprint;
+        private final long createdAt;
+        private final CompletableFuture<Object> outcome = new CompletableFuture<>();
+
+        private Entry(String key, String fingerprint, long createdAt) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.createdAt = createdAt;
+        }
+
+        private boolean isExpired(long now, long ttlNanos) {
+            return outcome.isDone() && now - createdAt > ttlNanos;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package ru.dulfi.service;
+
+import ru.dulfi.domain.Account;
+import ru.dulfi.domain.Operation;
+import ru.dulfi.domain.PostingPolicy;
+import ru.dulfi.domain.PostingReport;
+import ru.dulfi.domain.Transfer;
+import ru.dulfi.exceptions.AccountNotFoundException;
+import ru.dulfi.exceptions.InsufficientFundsException;
+import ru.dulfi.metrics.BankMetrics;
+import ru.dulfi.metrics.OperationKind;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Обёртка над {@link BankService}, собирающая {@link BankMetrics}: задержку и исход каждого вызова.
+ * Если обёрнут {@link ConcurrentBankService}, учитывается и время ожидания занятых блокировок полос.
+ * <p>
+ * На вызов приходятся два {@link System#nanoTime()} и несколько атомарных инкрементов без блокировок
+ * и без создания объектов, поэтому обёртку можно держать включённой постоянно.
+ */
+public class InstrumentedBankService implements BankService {
+    private final BankService delegate;
+    private final BankMetrics metrics;
+
+    /**
+     * Конструктор обёртки.
+     * @param delegate обёрнутый сервис
+     * @param metrics метрики, в которые пишутся результаты
+     */
+    public InstrumentedBankService(BankService delegate, BankMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+        if (delegate instanceof ConcurrentBankService concurrent) {
+            concurrent.setLockWaitListener(metrics::recordLockWait);
+        }
+    }
+
+    /**
+     * Возвращает метрики сервиса.
+     * @return метрики
+     */
+    public BankMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public Account createAccount(BigDecimal balance) {
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return delegate.createAccount(balance);
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            record(OperationKind.CREATE_ACCOUNT, start, failure);
+        }
+    }
+
+    @Override
+    public Account createAccount(BigDecimal balance, String idempotencyKey) {
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return delegate.createAccount(balance, idempotencyKey);
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            record(OperationKind.CREATE_ACCOUNT, start, failure);
+        }
+    }
+
+    @Override
+    public BigDecimal getBalance(String accountNumber) throws AccountNotFoundException {
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return delegate.getBalance(accountNumber);
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            record(OperationKind.GET_BALANCE, start, failure);
+        }
+    }
+
+    @Override
+    public void deposit(String accountNumber, BigDecimal amount) throws AccountNotFoundException {
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            delegate.deposit(accountNumber, amount);
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            record(OperationKind.DEPOSIT, start, failure);
+        }
+    }
+
+    @Override
+    public void deposit(String accountNumber, BigDecimal amount, String idempotencyKey) throws AccountNotFoundException {
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            delegate.deposit(accountNumber, amount, idempotencyKey);
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            record(OperationKind.DEPOSIT, start, failure);
+        }
+    }
+
+    @Override
+    public void withdraw(String accountNumber, BigDecimal amount) throws AccountNotFoundException, InsufficientFundsException {
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            delegate.withdraw(accountNumber, amount);
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            record(OperationKind.WITHDRAW, start, failure);
+        }
+    }
+
+    @Override
+    public void withdraw(String accountNumber, BigDecimal amount, String idempotencyKey) throws AccountNotFoundException, InsufficientFundsException {
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            delegate.withdraw(accountNumber, amount, idempotencyKey);
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            record(OperationKind.WITHDRAW, start, failure);
+        }
+    }
+
+    @Override
+    public void transfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount) throws AccountNotFoundException, InsufficientFundsException {
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            delegate.transfer(fromAccountNumber, toAccountNumber, amount);
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            record(OperationKind.TRANSFER, start, failure);
+        }
+    }
+
+    @Override
+    public void transfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount, String idempotencyKey) throws AccountNotFoundException, InsufficientFundsException {
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            delegate.transfer(fromAccountNumber, toAccountNumber, amount, idempotencyKey);
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            record(OperationKind.TRANSFER, start, failure);
+        }
+    }
+
+    @Override
+    public void submitBatch(List<Transfer> transfers) throws AccountNotFoundException, InsufficientFundsException {
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            delegate.submitBatch(transfers);
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            record(OperationKind.SUBMIT_BATCH, start, failure);
+        }
+    }
+
+    @Override
+    public PostingReport post(PostingPolicy policy) {
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return delegate.post(policy);
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            record(OperationKind.POSTING, start, failure);
+        }
+    }
+
+    @Override
+    public List<Operation> getOperations(String accountNumber) throws AccountNotFoundException {
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return delegate.getOperations(accountNumber);
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            record(OperationKind.GET_OPERATIONS, start, failure);
+        }
+    }
+
+    @Override
+    public List<Operation> getOperations(String accountNumber, LocalDateTime from, LocalDateTime to) throws AccountNotFoundException {
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return delegate.getOperations(accountNumber, from, to);
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            record(OperationKind.GET_OPERATIONS, start, failure);
+        }
+    }
+
+    @Override
+    public List<Operation> getOperations(String accountNumber, int offset, int limit) throws AccountNotFoundException {
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return delegate.getOperations(accountNumber, offset, limit);
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            record(OperationKind.GET_OPERATIONS, start, failure);
+        }
+    }
+
+    @Override
+    public List<Operation> getLastOperations(String accountNumber, int count) throws AccountNotFoundException {
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return delegate.getLastOperations(accountNumber, count);
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            record(OperationKind.GET_OPERATIONS, start, failure);
+        }
+    }
+
+    /**
+     * Учитывает завершившийся вызов.
+     * @param kind вид вызова
+     * @param start время начала вызова по {@link System#nanoTime()}
+     * @param failure исключение вызова или {@code null}, если вызов успешен
+     */
+    private void record(OperationKind kind, long start, Throwable failure) {
+        long nanos = System.nanoTime() - start;
+        if (failure == null) {
+            metrics.recordSuccess(kind, nanos);
+        } else if (failure instanceof InsufficientFundsException) {
+            metrics.recordInsufficientFunds(kind, nanos);
+        } else if (failure instanceof AccountNotFoundException) {
+            metrics.recordAccountNotFound(kind, nanos);
+        } else {
+            metrics.recordFailure(kind, nanos);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package ru.dulfi.service;
+
+import ru.dulfi.domain.Account;
+import ru.dulfi.domain.Operation;
+import ru.dulfi.domain.OperationType;
+import ru.dulfi.domain.PostingPolicy;
+import ru.dulfi.domain.PostingReport;
+import ru.dulfi.exceptions.InsufficientFundsException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Пакетное начисление процентов и списание комиссий по всем счетам справочника.
+ * <p>
+ * Счета делятся на диапазоны, которые обрабатываются параллельно в {@link ForkJoinPool#commonPool()}:
+ * для каждого счёта вычисляются проценты и комиссия и изменяется баланс. Операции INTEREST и FEE
+ * дописываются в журналы счетов отдельным шагом ({@link Posting#commit()}), поэтому прогон можно
+ * сохранить на диск до того, как он станет виден в истории, и отменить ({@link Posting#revert()}),
+ * если сохранить не удалось. Все операции прогона помечаются одним временем среза. Каждый счёт
+ * обрабатывается ровно одной задачей, поэтому журналы по-прежнему имеют одного писателя.
+ * <p>
+ * Вызывающий код отвечает за то, чтобы счета не изменялись во время прогона; тогда прогон образует
+ * согласованный срез.
+ */
+final class PostingEngine {
+    private static final int MIN_PARTITION = 1024;
+    private static final int PARTITIONS_PER_THREAD = 8;
+
+    private PostingEngine() {
+    }
+
+    /**
+     * Проводит начисление по всем счетам справочника.
+     * @param directory справочник счетов
+     * @param policy правила начисления
+     * @return итоги прогона
+     */
+    static PostingReport post(AccountDirectory directory, PostingPolicy policy) {
+        Posting posting = apply(directory, policy);
+        posting.commit();
+        return posting.report();
+    }
+
+    /**
+     * Изменяет балансы всех счетов справочника, не записывая операции в их журналы.
+     * @param directory справочник счетов
+     * @param policy правила начисления
+     * @return прогон, который нужно зафиксировать или отменить
+     */
+    static Posting apply(AccountDirectory directory, PostingPolicy policy) {
+        long start = System.nanoTime();
+        LocalDateTime postedAt = LocalDateTime.now();
+        List<AccountDirectory.Entry> entries = new ArrayList<>(directory.size());
+        directory.forEach(entries::add);
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int partition = Math.max(MIN_PARTITION, entries.size() / (pool.getParallelism() * PARTITIONS_PER_THREAD));
+        Totals totals = pool.invoke(new Partition(entries, 0, entries.size(), partition, policy, postedAt));
+        return new Posting(start, postedAt, entries.size(), totals);
+    }
+
+    /**
+     * Прогон начисления, балансы которого уже изменены, а операции ещё не записаны в журналы счетов.
+     */
+    static final class Posting {
+        private final long start;
+        private final LocalDateTime postedAt;
+        private final int accounts;
+        private final Totals totals;
+
+        private Posting(long start, LocalDateTime postedAt, int accounts, Totals totals) {
+            this.start = start;
+            this.postedAt = postedAt;
+            this.accounts = accounts;
+            this.totals = totals;
+        }
+
+        /**
+         * Дописывает операции INTEREST и FEE в журналы счетов.
+         */
+        void commit() {
+            totals.postings.parallelStream().forEach(posting -> posting.commit(postedAt));
+        }
+
+        /**
+         * Возвращает балансы счетов к значениям до прогона; журналы счетов не затрагиваются.
+         */
+        void revert() {
+            totals.postings.parallelStream().forEach(AccountPosting::revert);
+        }
+
+        /**
+         * Возвращает итоги прогона.
+         * @return итоги прогона
+         */
+        PostingReport report() {
+            return new PostingReport(postedAt, accounts, totals.interestPostings, totals.interest,
+                    totals.feePostings, totals.fees, totals.rejected, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Начисляет проценты и списывает комиссию по одному счёту.
+     * Если счёт отклоняет сумму, его баланс возвращается к исходному и начисление не учитывается.
+     * @param entry запись справочника
+     * @param policy правила начисления
+     * @param postedAt время среза
+     * @param totals итоги, в которые добавляется результат
+     */
+    private static void postAccount(AccountDirectory.Entry entry, PostingPolicy policy, LocalDateTime postedAt, Totals totals) {
+        Account account = entry.account();
+        BigDecimal balance = account.getBalance();
+        BigDecimal interest = policy.interest(balance);
+        BigDecimal fee = policy.fee(balance.add(interest)).min(balance.add(interest));
+        boolean credit = interest.signum() > 0;
+        boolean debit = fee.signum() > 0;
+        if (!credit && !debit) {
+            return;
+        }
+        boolean credited = false;
+        try {
+            if (credit) {
+                account.deposit(interest);
+                credited = true;
+            }
+            if (debit) {
+                account.withdraw(fee);
+            }
+        } catch (RuntimeException | InsufficientFundsException e) {
+            if (credited) {
+                undoDeposit(account, interest);
+            }
+            totals.rejected++;
+            return;
+        }
+        totals.postings.add(new AccountPosting(entry, credit ? interest : BigDecimal.ZERO, debit ? fee : BigDecimal.ZERO));
+        if (credit) {
+            totals.interestPostings++;
+            totals.interest = totals.interest.add(interest);
+        }
+        if (debit) {
+            totals.feePostings++;
+            totals.fees = totals.fees.add(fee);
+        }
+    }
+
+    private static void undoDeposit(Account account, BigDecimal amount) {
+        try {
+            account.withdraw(amount);
+        } catch (InsufficientFundsException e) {
+            throw new IllegalStateException("Не удалось отменить начисление по счёту " + account.getAccountNumber(), e);
+        }
+    }
+
+    /**
+     * Проведённое по счёту начисление.
+     * @param entry запись справочника
+     * @param interest начисленные проценты или ноль
+     * @param fee списанная комиссия или ноль
+     */
+    private record AccountPosting(AccountDirectory.Entry entry, BigDecimal interest, BigDecimal fee) {
+        private void commit(LocalDateTime postedAt) {
+            String accountNumber = entry.account().getAccountNumber();
+            if (interest.signum() > 0) {
+                entry.journal().append(new Operation(accountNumber, OperationType.INTEREST.name(), interest, postedAt));
+            }
+            if (fee.signum() > 0) {
+                entry.journal().append(new Operation(accountNumber, OperationType.FEE.name(), fee, postedAt));
+            }
+        }
+
+        private void revert() {
+            Account account = entry.account();
+            if (fee.signum() > 0) {
+                account.deposit(fee);
+            }
+            if (interest.signum() > 0) {
+                undoDeposit(account, interest);
+            }
+        }
+    }
+
+    /**
+     * Итоги обработки диапазона счетов.
+     */
+    private static final class Totals {
+        private final List<AccountPosting> postings = new ArrayList<>();
+        private long interestPostings;
+        private long feePostings;
+        private long rejected;
+        private BigDecimal interest = BigDecimal.ZERO;
+        private BigDecimal fees = BigDecimal.ZERO;
+
+        private Totals merge(Totals other) {
+            postings.addAll(other.postings);
+            interestPostings += other.interestPostings;
+            feePostings += other.feePostings;
+            rejected += other.rejected;
+            interest = interest.add(other.interest);
+            fees = fees.add(other.fees);
+            return this;
+        }
+    }
+
+    /**
+     * Задача обработки диапазона {@code [from, to)} счетов: делится пополам, пока диапазон больше порога.
+     */
+    private static final class Partition extends RecursiveTask<Totals> {
+        private final List<AccountDirectory.Entry> entries;
+        private final int from;
+        private final int to;
+        private final int threshold;
+        private final PostingPolicy policy;
+        private final LocalDateTime postedAt;
+
+        private Partition(List<AccountDirectory.Entry> entries, int from, int to, int threshold,
+                          PostingPolicy policy, LocalDateTime postedAt) {
+            this.entries = entries;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.policy = policy;
+            this.postedAt = postedAt;
+        }
+
+        @Override
+        protected Totals compute() {
+            if (to - from <= threshold) {
+                Totals totals = new Totals();
+                for (int i = from; i < to; i++) {
+                    postAccount(entries.get(i), policy, postedAt, totals);
+                }
+                return totals;
+            }
+            int mid = (from + to) >>> 1;
+            Partition left = new Partition(entries, from, mid, threshold, policy, postedAt);
+            left.fork();
+            Totals right = new Partition(entries, mid, to, threshold, policy, postedAt).compute();
+            return left.join().merge(right);
+        }
+    }
+}
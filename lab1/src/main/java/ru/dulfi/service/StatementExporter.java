@@ -0,0 +1,335 @@
+package ru.dulfi.service;
+
+import ru.dulfi.domain.ExportReport;
+import ru.dulfi.domain.Operation;
+import ru.dulfi.domain.OperationType;
+import ru.dulfi.storage.OperationJournal;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.function.Consumer;
+
+/**
+ * Потоковая выгрузка выписок по всем счетам сервиса в файл.
+ * <p>
+ * Операции читаются прямо из колонок {@link OperationJournal} без создания объектов {@link Operation}
+ * и пишутся в {@link FileChannel} через один переиспользуемый прямой буфер, поэтому расход памяти
+ * не зависит от объёма истории. Операции сгруппированы по счетам. Поддерживаются два формата:
+ * <ul>
+ *     <li>{@link Format#CSV}: заголовок {@code account_number,operation_type,amount,date_time}, сумма
+ *     в виде {@link BigDecimal#toPlainString()}, время в формате ISO-8601 (UTC);</li>
+ *     <li>{@link Format#BINARY}: {@code int MAGIC, byte VERSION}, затем для каждого счёта
+ *     {@code short длина номера, номер (UTF-8), int число операций} и операции
+ *     {@code byte тип, byte масштаб, long мантисса, long время в наносекундах от эпохи}. Сумма, мантисса
+ *     которой не помещается в {@code long}, пишется как {@code byte тип, byte -128, int масштаб,
+ *     int длина, мантисса, long время}. Читается {@link #readBinary(Path, Consumer)}.</li>
+ * </ul>
+ * История каждого счёта выгружается на момент начала его обработки. Экземпляр не потокобезопасен.
+ */
+public class StatementExporter {
+    /**
+     * Размер буфера записи по умолчанию.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+    /**
+     * Сигнатура двоичного формата, {@code "STMT"}.
+     */
+    public static final int MAGIC = 0x53544D54;
+    /**
+     * Версия двоичного формата.
+     */
+    public static final byte VERSION = 1;
+
+    private static final byte[] CSV_HEADER = "account_number,operation_type,amount,date_time\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[][] TYPE_NAMES = typeNames();
+    private static final byte OVERFLOW_SCALE = Byte.MIN_VALUE;
+    private static final int MAX_NUMBER_LENGTH = Short.MAX_VALUE;
+    private static final int MAX_CSV_ROW_TAIL = 256;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    /**
+     * Формат выгрузки.
+     */
+    public enum Format {
+        /**
+         * Текст CSV.
+         */
+        CSV,
+        /**
+         * Компактный двоичный формат с префиксами длины.
+         */
+        BINARY
+    }
+
+    private final ByteBuffer buffer;
+    private final byte[] digits = new byte[20];
+    private FileChannel channel;
+    private long written;
+
+    /**
+     * Конструктор по дефолту.
+     */
+    public StatementExporter() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Конструктор с заданным размером буфера.
+     * @param bufferSize размер буфера записи в байтах
+     * @throws IllegalArgumentException если буфер меньше 64 КиБ
+     */
+    public StatementExporter(int bufferSize) {
+        if (bufferSize < 1 << 16) {
+            throw new IllegalArgumentException("Размер буфера должен быть не меньше 64 КиБ");
+        }
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * Выгружает выписки по всем счетам сервиса, перезаписывая файл.
+     * @param service {@link BankServiceImp} или {@link ConcurrentBankService} (в том числе {@link DurableBankService})
+     * @param file файл выгрузки
+     * @param format формат выгрузки
+     * @return итоги выгрузки
+     * @throws IOException если не удалось записать файл
+     * @throws IllegalArgumentException если сервис не поддерживает выгрузку
+     */
+    public ExportReport export(BankService service, Path file, Format format) throws IOException {
+        AccountDirectory directory = directoryOf(service);
+        long start = System.nanoTime();
+        long[] counts = new long[2];
+        buffer.clear();
+        written = 0;
+        try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel = fileChannel;
+            if (format == Format.CSV) {
+                buffer.put(CSV_HEADER);
+            } else {
+                buffer.putInt(MAGIC).put(VERSION);
+            }
+            directory.forEach(entry -> {
+                try {
+                    counts[1] += format == Format.CSV
+                            ? writeCsv(entry.account().getAccountNumber(), entry.journal())
+                            : writeBinary(entry.account().getAccountNumber(), entry.journal());
+                    counts[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            channel = null;
+        }
+        return new ExportReport(counts[0], counts[1], written, System.nanoTime() - start);
+    }
+
+    /**
+     * Читает выгрузку в формате {@link Format#BINARY}.
+     * @param file файл выгрузки
+     * @param consumer получатель операций в порядке выгрузки
+     * @throws IOException если файл не удалось прочитать или он повреждён
+     */
+    public static void readBinary(Path file, Consumer<Operation> consumer) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                throw new IOException("Файл не является выгрузкой выписок: " + file);
+            }
+            while (true) {
+                int length;
+                try {
+                    length = in.readUnsignedShort();
+                } catch (EOFException e) {
+                    return;
+                }
+                byte[] number = in.readNBytes(length);
+                if (number.length != length) {
+                    throw new EOFException("Выгрузка оборвана");
+                }
+                String accountNumber = new String(number, StandardCharsets.UTF_8);
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    OperationType type = OperationType.fromCode(in.readByte());
+                    byte scale = in.readByte();
+                    BigDecimal amount;
+                    if (scale == OVERFLOW_SCALE) {
+                        int realScale = in.readInt();
+                        byte[] unscaled = in.readNBytes(in.readInt());
+                        amount = new BigDecimal(new BigInteger(unscaled), realScale);
+                    } else {
+                        amount = BigDecimal.valueOf(in.readLong(), scale);
+                    }
+                    long time = in.readLong();
+                    consumer.accept(new Operation(accountNumber, type.name(), amount, LocalDateTime.ofEpochSecond(
+                            Math.floorDiv(time, NANOS_PER_SECOND), (int) Math.floorMod(time, NANOS_PER_SECOND), ZoneOffset.UTC)));
+                }
+            }
+        }
+    }
+
+    private int writeBinary(String accountNumber, OperationJournal journal) throws IOException {
+        byte[] number = accountNumber.getBytes(StandardCharsets.UTF_8);
+        if (number.length > MAX_NUMBER_LENGTH) {
+            throw new IllegalStateException("Слишком длинный номер счёта: " + accountNumber);
+        }
+        int count = journal.size();
+        ensure(Short.BYTES + number.length + Integer.BYTES);
+        buffer.putShort((short) number.length).put(number).putInt(count);
+        return journal.forEachRow(count, (type, units, scale, amount, epochNanos) -> {
+            if (amount == null) {
+                ensure(2 + Long.BYTES * 2);
+                buffer.put(type.code()).put((byte) scale).putLong(units).putLong(epochNanos);
+            } else {
+                byte[] unscaled = amount.unscaledValue().toByteArray();
+                ensure(2 + Integer.BYTES * 2 + unscaled.length + Long.BYTES);
+                buffer.put(type.code()).put(OVERFLOW_SCALE).putInt(amount.scale()).putInt(unscaled.length)
+                        .put(unscaled).putLong(epochNanos);
+            }
+        });
+    }
+
+    private int writeCsv(String accountNumber, OperationJournal journal) throws IOException {
+        byte[] number = csvField(accountNumber);
+        return journal.forEachRow(journal.size(), (type, units, scale, amount, epochNanos) -> {
+            byte[] overflow = amount == null ? null : amount.toPlainString().getBytes(StandardCharsets.US_ASCII);
+            ensure(number.length + MAX_CSV_ROW_TAIL + Math.abs(scale) + (overflow == null ? 0 : overflow.length));
+            buffer.put(number).put((byte) ',').put(TYPE_NAMES[type.ordinal()]).put((byte) ',');
+            if (overflow == null) {
+                putDecimal(units, scale);
+            } else {
+                buffer.put(overflow);
+            }
+            buffer.put((byte) ',');
+            putDateTime(epochNanos);
+            buffer.put((byte) '\n');
+        });
+    }
+
+    /**
+     * Пишет число {@code units * 10^-scale} так же, как {@link BigDecimal#toPlainString()}.
+     */
+    private void putDecimal(long units, int scale) {
+        if (units < 0) {
+            buffer.put((byte) '-');
+        }
+        int length = 0;
+        long rest = units;
+        do {
+            digits[digits.length - 1 - length++] = (byte) ('0' + Math.abs(rest % 10));
+            rest /= 10;
+        } while (rest != 0);
+        int from = digits.length - length;
+        if (scale <= 0) {
+            buffer.put(digits, from, length);
+            if (units != 0) {
+                for (int i = 0; i < -scale; i++) {
+                    buffer.put((byte) '0');
+                }
+            }
+        } else if (length > scale) {
+            buffer.put(digits, from, length - scale).put((byte) '.').put(digits, from + length - scale, scale);
+        } else {
+            buffer.put((byte) '0').put((byte) '.');
+            for (int i = length; i < scale; i++) {
+                buffer.put((byte) '0');
+            }
+            buffer.put(digits, from, length);
+        }
+    }
+
+    /**
+     * Пишет время в формате {@code yyyy-MM-ddTHH:mm:ss.nnnnnnnnn}; годы вне 0..9999 пишутся через {@link LocalDateTime#toString()}.
+     */
+    private void putDateTime(long epochNanos) {
+        LocalDateTime dateTime = LocalDateTime.ofEpochSecond(Math.floorDiv(epochNanos, NANOS_PER_SECOND),
+                (int) Math.floorMod(epochNanos, NANOS_PER_SECOND), ZoneOffset.UTC);
+        int year = dateTime.getYear();
+        if (year < 0 || year > 9999) {
+            buffer.put(dateTime.toString().getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        putPadded(year, 4);
+        buffer.put((byte) '-');
+        putPadded(dateTime.getMonthValue(), 2);
+        buffer.put((byte) '-');
+        putPadded(dateTime.getDayOfMonth(), 2);
+        buffer.put((byte) 'T');
+        putPadded(dateTime.getHour(), 2);
+        buffer.put((byte) ':');
+        putPadded(dateTime.getMinute(), 2);
+        buffer.put((byte) ':');
+        putPadded(dateTime.getSecond(), 2);
+        buffer.put((byte) '.');
+        putPadded(dateTime.getNano(), 9);
+    }
+
+    private void putPadded(int value, int width) {
+        for (int i = width - 1; i >= 0; i--) {
+            digits[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        buffer.put(digits, 0, width);
+    }
+
+    /**
+     * Освобождает в буфере место под запись заданного размера, сбрасывая его содержимое в файл.
+     */
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+            if (buffer.remaining() < bytes) {
+                throw new IllegalStateException("Запись размером " + bytes + " байт не помещается в буфер выгрузки");
+            }
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static byte[] csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value.getBytes(StandardCharsets.UTF_8);
+        }
+        return ('"' + value.replace("\"", "\"\"") + '"').getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[][] typeNames() {
+        OperationType[] types = OperationType.values();
+        byte[][] names = new byte[types.length][];
+        for (OperationType type : types) {
+            names[type.ordinal()] = type.name().getBytes(StandardCharsets.US_ASCII);
+        }
+        return names;
+    }
+
+    private static AccountDirectory directoryOf(BankService service) {
+        if (service instanceof BankServiceImp imp) {
+            return imp.directory();
+        }
+        if (service instanceof ConcurrentBankService concurrent) {
+            return concurrent.directory();
+        }
+        throw new IllegalArgumentException("Выгрузка не поддерживается для " + service.getClass().getName());
+    }
+}
@@ -0,0 +1,132 @@
+package ru.dulfi.service;
+
+import ru.dulfi.domain.Account;
+import ru.dulfi.domain.Operation;
+import ru.dulfi.domain.Transfer;
+import ru.dulfi.exceptions.InsufficientFundsException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Общая логика пакетных переводов для реализаций {@link BankService}.
+ * <p>
+ * Пакет проводится в два шага: {@link #validate(List, Map)} проверяет его целиком на копии балансов,
+ * не изменяя счета, а {@link #apply(List, Map)} изменяет счета. Вызывающий код отвечает за то,
+ * чтобы балансы участвующих счетов не менялись между этими шагами.
+ */
+final class TransferBatch {
+    /**
+     * Тип операции списания по переводу.
+     */
+    static final String TRANSFER_OUT = "TRANSFER_OUT";
+    /**
+     * Тип операции зачисления по переводу.
+     */
+    static final String TRANSFER_IN = "TRANSFER_IN";
+
+    private TransferBatch() {
+    }
+
+    /**
+     * Проверяет перевод без обращения к счетам.
+     * @param transfer перевод
+     * @throws InsufficientFundsException если сумма перевода не положительная
+     * @throws IllegalArgumentException если счета списания и зачисления совпадают
+     */
+    static void check(Transfer transfer) throws InsufficientFundsException {
+        if (transfer.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new InsufficientFundsException("Сумма должна быть > 0");
+        }
+        if (transfer.getFromAccountNumber().equals(transfer.getToAccountNumber())) {
+            throw new IllegalArgumentException("Счета списания и зачисления совпадают: " + transfer.getFromAccountNumber());
+        }
+    }
+
+    /**
+     * Проверяет, что переводы можно провести по порядку, не изменяя счета.
+     * @param transfers переводы
+     * @param accounts участвующие счета по их номерам
+     * @throws InsufficientFundsException если какому-либо переводу не хватает средств
+     */
+    static void validate(List<Transfer> transfers, Map<String, Account> accounts) throws InsufficientFundsException {
+        Map<String, BigDecimal> balances = new HashMap<>();
+        for (Transfer transfer : transfers) {
+            String from = transfer.getFromAccountNumber();
+            String to = transfer.getToAccountNumber();
+            BigDecimal fromBalance = balances.getOrDefault(from, accounts.get(from).getBalance());
+            if (fromBalance.compareTo(transfer.getAmount()) < 0) {
+                throw new InsufficientFundsException("Недостаточно средств на счёте " + from);
+            }
+            BigDecimal toBalance = balances.getOrDefault(to, accounts.get(to).getBalance());
+            balances.put(from, fromBalance.subtract(transfer.getAmount()));
+            balances.put(to, toBalance.add(transfer.getAmount()));
+        }
+    }
+
+    /**
+     * Проводит проверенные переводы по порядку.
+     * Если счёт отклоняет сумму (например, {@link ru.dulfi.domain.FixedPointAccount} — сумму с лишними
+     * знаками после запятой), уже проведённые переводы отменяются и исключение пробрасывается дальше.
+     * @param transfers переводы, прошедшие {@link #validate(List, Map)}
+     * @param accounts участвующие счета по их номерам
+     * @return операции TRANSFER_OUT и TRANSFER_IN в порядке проведения
+     */
+    static List<Operation> apply(List<Transfer> transfers, Map<String, Account> accounts) {
+        List<Operation> operations = new ArrayList<>(transfers.size() * 2);
+        int applied = 0;
+        try {
+            for (Transfer transfer : transfers) {
+                Account from = accounts.get(transfer.getFromAccountNumber());
+                Account to = accounts.get(transfer.getToAccountNumber());
+                from.withdraw(transfer.getAmount());
+                try {
+                    to.deposit(transfer.getAmount());
+                } catch (RuntimeException e) {
+                    from.deposit(transfer.getAmount());
+                    throw e;
+                }
+                applied++;
+                operations.add(new Operation(from.getAccountNumber(), TRANSFER_OUT, transfer.getAmount()));
+                operations.add(new Operation(to.getAccountNumber(), TRANSFER_IN, transfer.getAmount()));
+            }
+        } catch (InsufficientFundsException e) {
+            rollback(transfers, accounts, applied);
+            throw new IllegalStateException("Баланс изменился после проверки пакета переводов", e);
+        } catch (RuntimeException e) {
+            rollback(transfers, accounts, applied);
+            throw e;
+        }
+        return operations;
+    }
+
+    /**
+     * Отменяет все переводы пакета, проведённые {@link #apply(List, Map)}.
+     * @param transfers проведённые переводы
+     * @param accounts участвующие счета по их номерам
+     */
+    static void revert(List<Transfer> transfers, Map<String, Account> accounts) {
+        rollback(transfers, accounts, transfers.size());
+    }
+
+    /**
+     * Отменяет первые {@code applied} переводов в обратном порядке.
+     * @param transfers переводы
+     * @param accounts участвующие счета по их номерам
+     * @param applied число проведённых переводов
+     */
+    private static void rollback(List<Transfer> transfers, Map<String, Account> accounts, int applied) {
+        for (int i = applied - 1; i >= 0; i--) {
+            Transfer transfer = transfers.get(i);
+            try {
+                accounts.get(transfer.getToAccountNumber()).withdraw(transfer.getAmount());
+            } catch (InsufficientFundsException e) {
+                throw new IllegalStateException("Не удалось отменить перевод", e);
+            }
+            accounts.get(transfer.getFromAccountNumber()).deposit(transfer.getAmount());
+        }
+    }
+}
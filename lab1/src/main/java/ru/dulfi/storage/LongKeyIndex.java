@@ -0,0 +1,208 @@
+package ru.dulfi.storage;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Потокобезопасный индекс по положительным ключам {@code long} без упаковки ключей в объекты.
+ * <p>
+ * Индекс разбит на сегменты, каждый из которых — таблица с открытой адресацией и линейным
+ * пробированием. Запись выполняется под блокировкой своего сегмента, поэтому добавления в разные
+ * сегменты не конкурируют. Чтение не берёт блокировок и не создаёт объектов; только промах
+ * перепроверяется под блокировкой, так как мог совпасть с расширением таблицы.
+ * Удаление не поддерживается.
+ * @param <V> тип значений
+ */
+public class LongKeyIndex<V> {
+    private static final int SEGMENT_BITS = 6;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long EMPTY = 0;
+
+    private final Segment<V>[] segments;
+
+    /**
+     * Создаёт пустой индекс.
+     */
+    @SuppressWarnings("unchecked")
+    public LongKeyIndex() {
+        segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment<>();
+        }
+    }
+
+    /**
+     * Возвращает значение по ключу.
+     * @param key положительный ключ
+     * @return значение или {@code null}, если ключа нет
+     */
+    public V get(long key) {
+        long hash = mix(key);
+        Segment<V> segment = segmentFor(hash);
+        V value = segment.table.find(key, (int) hash);
+        return value != null ? value : segment.getLocked(key, (int) hash);
+    }
+
+    /**
+     * Добавляет значение, если ключа ещё нет.
+     * @param key положительный ключ
+     * @param value значение
+     * @return {@code null}, если значение добавлено, иначе уже сохранённое значение
+     * @throws IllegalArgumentException если ключ не положительный
+     */
+    public V putIfAbsent(long key, V value) {
+        return update(key, value, false);
+    }
+
+    /**
+     * Сохраняет значение, заменяя прежнее.
+     * @param key положительный ключ
+     * @param value значение
+     * @throws IllegalArgumentException если ключ не положительный
+     */
+    public void put(long key, V value) {
+        update(key, value, true);
+    }
+
+    /**
+     * Возвращает число ключей в индексе.
+     * @return число ключей
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<V> segment : segments) {
+            size += segment.count;
+        }
+        return size;
+    }
+
+    /**
+     * Обходит значения индекса. Значения, добавленные во время обхода, могут быть пропущены.
+     * @param action действие для каждого значения
+     */
+    public void forEach(Consumer<? super V> action) {
+        for (Segment<V> segment : segments) {
+            Table<V> table = segment.table;
+            for (int i = 0; i < table.values.length(); i++) {
+                V value = table.values.get(i);
+                if (value != null) {
+                    action.accept(value);
+                }
+            }
+        }
+    }
+
+    private V update(long key, V value, boolean replace) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("Ключ индекса должен быть > 0");
+        }
+        long hash = mix(key);
+        Segment<V> segment = segmentFor(hash);
+        segment.lock.lock();
+        try {
+            return segment.update(key, (int) hash, value, replace);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    private Segment<V> segmentFor(long hash) {
+        return segments[(int) (hash >>> (Long.SIZE - SEGMENT_BITS))];
+    }
+
+    private static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    /**
+     * Сегмент индекса: таблица и блокировка её писателей.
+     */
+    private static final class Segment<V> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile Table<V> table = new Table<>(INITIAL_CAPACITY);
+        private volatile int count;
+
+        private V getLocked(long key, int hash) {
+            lock.lock();
+            try {
+                return table.find(key, hash);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private V update(long key, int hash, V value, boolean replace) {
+            Table<V> current = table;
+            int slot = current.slot(key, hash);
+            if (current.keys.get(slot) == key) {
+                V existing = current.values.get(slot);
+                if (replace) {
+                    current.values.set(slot, value);
+                }
+                return existing;
+            }
+            if ((count + 1) * 2 > current.values.length()) {
+                current = current.resize();
+                slot = current.slot(key, hash);
+                table = current;
+            }
+            current.values.set(slot, value);
+            current.keys.set(slot, key);
+            count++;
+            return null;
+        }
+    }
+
+    /**
+     * Таблица с открытой адресацией. Значение записывается раньше ключа, поэтому читатель,
+     * увидевший ключ, видит и опубликованное значение.
+     */
+    private static final class Table<V> {
+        private final AtomicLongArray keys;
+        private final AtomicReferenceArray<V> values;
+        private final int mask;
+
+        private Table(int capacity) {
+            keys = new AtomicLongArray(capacity);
+            values = new AtomicReferenceArray<>(capacity);
+            mask = capacity - 1;
+        }
+
+        private V find(long key, int hash) {
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                long current = keys.get(i);
+                if (current == key) {
+                    return values.get(i);
+                }
+                if (current == EMPTY) {
+                    return null;
+                }
+            }
+        }
+
+        private int slot(long key, int hash) {
+            int i = hash & mask;
+            while (keys.get(i) != EMPTY && keys.get(i) != key) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+
+        private Table<V> resize() {
+            Table<V> resized = new Table<>((mask + 1) * 2);
+            for (int i = 0; i <= mask; i++) {
+                long key = keys.get(i);
+                if (key != EMPTY) {
+                    int slot = resized.slot(key, (int) mix(key));
+                    resized.values.set(slot, values.get(i));
+                    resized.keys.set(slot, key);
+                }
+            }
+            return resized;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package ru.dulfi.storage;
+
+import ru.dulfi.domain.Operation;
+import ru.dulfi.domain.OperationType;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Журнал операций одного счёта: append-only лог в колоночном представлении.
+ * <p>
+ * Операции не хранятся объектами: каждая занимает строку в примитивных колонках — байт типа
+ * ({@link OperationType#code()}), сумма в минимальных единицах ({@code long} мантисса и байт масштаба)
+ * и время в наносекундах от эпохи. Номер счёта хранится один раз на журнал. Колонки разбиты на блоки,
+ * размер которых удваивается, поэтому короткая история не резервирует место впрок, а добавление
+ * не копирует уже записанные строки. Суммы, мантисса которых не помещается в {@code long}, хранятся
+ * отдельно без потери точности.
+ * <p>
+ * Объекты {@link Operation} создаются только при чтении: выборки возвращают неизменяемые представления,
+ * которые материализуют операцию при обращении к элементу.
+ * <p>
+ * Журнал рассчитан на одного писателя (вызовы {@link #append(Operation)} должны быть
+ * упорядочены внешней блокировкой счёта) и любое число читателей без блокировок.
+ */
+public class OperationJournal {
+    private static final int FIRST_CHUNK_SHIFT = 2;
+    private static final int FIRST_CHUNK_SIZE = 1 << FIRST_CHUNK_SHIFT;
+    private static final int MAX_SIZE = Integer.MAX_VALUE - FIRST_CHUNK_SIZE;
+    private static final byte OVERFLOW_SCALE = Byte.MIN_VALUE;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final String accountNumber;
+    private volatile Chunk[] chunks = new Chunk[1];
+    private Map<Integer, BigDecimal> overflow;
+    private volatile int size;
+
+    /**
+     * Создаёт пустой журнал счёта.
+     * @param accountNumber номер счёта, к которому относятся все операции журнала
+     */
+    public OperationJournal(String accountNumber) {
+        this.accountNumber = accountNumber;
+    }
+
+    /**
+     * Добавляет операцию в конец журнала.
+     * Операции должны добавляться в порядке их проведения.
+     * @param operation операция
+     * @throws IllegalArgumentException если операция относится к другому счёту или её тип неизвестен
+     * @throws ArithmeticException если время операции не представимо в наносекундах от эпохи
+     */
+    public void append(Operation operation) {
+        if (!accountNumber.equals(operation.getAccountNumber())) {
+            throw new IllegalArgumentException("Операция относится к другому счёту: " + operation.getAccountNumber());
+        }
+        byte type = OperationType.of(operation.getOperationType()).code();
+        long time = toEpochNanos(operation.getDateTime());
+        int index = size;
+        if (index == MAX_SIZE) {
+            throw new IllegalStateException("Журнал счёта переполнен");
+        }
+        int n = index + FIRST_CHUNK_SIZE;
+        int high = Integer.highestOneBit(n);
+        int chunkIndex = Integer.numberOfTrailingZeros(high) - FIRST_CHUNK_SHIFT;
+        Chunk[] directory = chunks;
+        if (chunkIndex == directory.length) {
+            directory = Arrays.copyOf(directory, chunkIndex + 1);
+        }
+        Chunk chunk = directory[chunkIndex];
+        if (chunk == null) {
+            chunk = new Chunk(high);
+            directory[chunkIndex] = chunk;
+            chunks = directory;
+        }
+        int offset = n - high;
+        BigDecimal amount = operation.getAmount();
+        int scale = amount.scale();
+        if (scale > OVERFLOW_SCALE && scale <= Byte.MAX_VALUE && amount.unscaledValue().bitLength() < Long.SIZE) {
+            chunk.units[offset] = amount.unscaledValue().longValue();
+            chunk.scales[offset] = (byte) scale;
+        } else {
+            if (overflow == null) {
+                overflow = new ConcurrentHashMap<>();
+            }
+            overflow.put(index, amount);
+            chunk.scales[offset] = OVERFLOW_SCALE;
+        }
+        chunk.types[offset] = type;
+        chunk.times[offset] = time;
+        size = index + 1;
+    }
+
+    /**
+     * Возвращает количество операций в журнале.
+     * @return количество операций
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Возвращает все операции журнала.
+     * @return список операций в порядке проведения
+     */
+    public List<Operation> getAll() {
+        return view(0, size);
+    }
+
+    /**
+     * Возвращает страницу операций.
+     * @param offset количество пропускаемых операций от начала журнала
+     * @param limit максимальное количество возвращаемых операций
+     * @return список операций в порядке проведения
+     * @throws IllegalArgumentException если смещение или лимит отрицательные
+     */
+    public List<Operation> getPage(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Смещение и лимит не могут быть отрицательными");
+        }
+        int end = size;
+        int from = Math.min(offset, end);
+        return view(from, (int) Math.min((long) from + limit, end));
+    }
+
+    /**
+     * Возвращает последние операции журнала, не просматривая более ранние.
+     * @param count максимальное количество операций
+     * @return список операций в порядке проведения
+     * @throws IllegalArgumentException если количество отрицательное
+     */
+    public List<Operation> getLast(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Количество операций не может быть отрицательным");
+        }
+        int end = size;
+        return view(Math.max(0, end - count), end);
+    }
+
+    /**
+     * Возвращает операции, проведённые в полуинтервале времени {@code [from, to)}.
+     * Границы ищутся двоичным поиском по колонке времени, так как операции лежат в журнале
+     * по возрастанию времени.
+     * @param from начало интервала, включительно
+     * @param to конец интервала, не включительно
+     * @return список операций в порядке проведения
+     * @throws IllegalArgumentException если начало интервала позже конца
+     */
+    public List<Operation> getRange(LocalDateTime from, LocalDateTime to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Начало интервала не может быть позже конца");
+        }
+        int end = size;
+        Chunk[] directory = chunks;
+        return view(lowerBound(directory, end, from), lowerBound(directory, end, to));
+    }
+
+    /**
+     * Обходит первые операции журнала по порядку, не создавая объектов {@link Operation}.
+     * @param limit максимальное количество операций
+     * @param visitor получатель строк журнала
+     * @return количество посещённых операций
+     * @throws IOException если его выбросил получатель
+     */
+    public int forEachRow(int limit, RowVisitor visitor) throws IOException {
+        int end = Math.min(size, Math.max(limit, 0));
+        Chunk[] directory = chunks;
+        int index = 0;
+        for (int c = 0; index < end; c++) {
+            Chunk chunk = directory[c];
+            int rows = Math.min(chunk.types.length, end - index);
+            for (int offset = 0; offset < rows; offset++, index++) {
+                OperationType type = OperationType.fromCode(chunk.types[offset]);
+                byte scale = chunk.scales[offset];
+                if (scale == OVERFLOW_SCALE) {
+                    visitor.visit(type, 0, 0, overflow.get(index), chunk.times[offset]);
+                } else {
+                    visitor.visit(type, chunk.units[offset], scale, null, chunk.times[offset]);
+                }
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Получатель строк журнала для {@link #forEachRow(int, RowVisitor)}.
+     */
+    @FunctionalInterface
+    public interface RowVisitor {
+        /**
+         * Обрабатывает одну операцию.
+         * Сумма передаётся как {@code units * 10^-scale}; если мантисса не помещается в {@code long},
+         * сумма передаётся целиком в {@code amount}, а {@code units} и {@code scale} равны нулю.
+         * @param type тип операции
+         * @param units мантисса суммы
+         * @param scale масштаб суммы
+         * @param amount сумма, не представимая мантиссой {@code long}, иначе {@code null}
+         * @param epochNanos время операции в наносекундах от эпохи (UTC)
+         * @throws IOException если не удалось обработать операцию
+         */
+        void visit(OperationType type, long units, int scale, BigDecimal amount, long epochNanos) throws IOException;
+    }
+
+    private static int lowerBound(Chunk[] directory, int end, LocalDateTime dateTime) {
+        long time = toEpochNanosSaturated(dateTime);
+        int low = 0;
+        int high = end;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int n = mid + FIRST_CHUNK_SIZE;
+            int chunkHigh = Integer.highestOneBit(n);
+            long midTime = directory[Integer.numberOfTrailingZeros(chunkHigh) - FIRST_CHUNK_SHIFT].times[n - chunkHigh];
+            if (midTime < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private List<Operation> view(int from, int to) {
+        if (from >= to) {
+            return Collections.emptyList();
+        }
+        return new View(chunks, from, to);
+    }
+
+    private Operation materialize(Chunk[] directory, int index) {
+        int n = index + FIRST_CHUNK_SIZE;
+        int high = Integer.highestOneBit(n);
+        Chunk chunk = directory[Integer.numberOfTrailingZeros(high) - FIRST_CHUNK_SHIFT];
+        int offset = n - high;
+        byte scale = chunk.scales[offset];
+        BigDecimal amount = scale == OVERFLOW_SCALE
+                ? overflow.get(index)
+                : BigDecimal.valueOf(chunk.units[offset], scale);
+        return new Operation(accountNumber, OperationType.fromCode(chunk.types[offset]).name(), amount,
+                toDateTime(chunk.times[offset]));
+    }
+
+    private static long toEpochNanos(LocalDateTime dateTime) {
+        return Math.addExact(Math.multiplyExact(dateTime.toEpochSecond(ZoneOffset.UTC), NANOS_PER_SECOND),
+                dateTime.getNano());
+    }
+
+    private static long toEpochNanosSaturated(LocalDateTime dateTime) {
+        try {
+            return toEpochNanos(dateTime);
+        } catch (ArithmeticException e) {
+            return dateTime.getYear() < 1970 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+    }
+
+    private static LocalDateTime toDateTime(long epochNanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochNanos, NANOS_PER_SECOND),
+                (int) Math.floorMod(epochNanos, NANOS_PER_SECOND), ZoneOffset.UTC);
+    }
+
+    /**
+     * Блок колонок журнала.
+     */
+    private static final class Chunk {
+        private final byte[] types;
+        private final byte[] scales;
+        private final long[] units;
+        private final long[] times;
+
+        private Chunk(int capacity) {
+            types = new byte[capacity];
+            scales = new byte[capacity];
+            units = new long[capacity];
+            times = new long[capacity];
+        }
+    }
+
+    /**
+     * Неизменяемое представление диапазона строк журнала.
+     * Строки журнала после записи не меняются, поэтому представление остаётся согласованным
+     * при дальнейших добавлениях.
+     */
+    private final class View extends AbstractList<Operation> implements RandomAccess {
+        private final Chunk[] directory;
+        private final int from;
+        private final int to;
+
+        private View(Chunk[] directory, int from, int to) {
+            this.directory = directory;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Operation get(int index) {
+            if (index < 0 || index >= to - from) {
+                throw new IndexOutOfBoundsException("Индекс " + index + " вне диапазона 0.." + (to - from));
+            }
+            return materialize(directory, from + index);
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+
+        @Override
+        public List<Operation> subList(int fromIndex, int toIndex) {
+            if (fromIndex < 0 || toIndex > size() || fromIndex > toIndex) {
+                throw new IndexOutOfBoundsException("Диапазон " + fromIndex + ".." + toIndex + " вне 0.." + size());
+            }
+            return view(from + fromIndex, from + toIndex);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package ru.dulfi;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.dulfi.domain.AccountNumberGenerator;
+import ru.dulfi.domain.RandomAccountNumberGenerator;
+import ru.dulfi.domain.SequentialAccountNumberGenerator;
+import ru.dulfi.domain.UuidAccountNumberGenerator;
+import ru.dulfi.exceptions.AccountNotFoundException;
+import ru.dulfi.service.BankService;
+import ru.dulfi.service.BankServiceImp;
+import ru.dulfi.service.ConcurrentBankService;
+import ru.dulfi.service.IdempotencyCache;
+
+import java.math.BigDecimal;
+
+public class AccountNumberGeneratorTest {
+    @Test
+    void testSequentialNumbersHaveCheckDigit() {
+        AccountNumberGenerator generator = new SequentialAccountNumberGenerator();
+        String first = generator.next();
+        String second = generator.next();
+        Assertions.assertEquals("00000000000000018", first);
+        Assertions.assertEquals(1, generator.toKey(first));
+        Assertions.assertEquals(2, generator.toKey(second));
+        Assertions.assertEquals(AccountNumberGenerator.NO_KEY, generator.toKey("00000000000000019"));
+        Assertions.assertEquals(AccountNumberGenerator.NO_KEY, generator.toKey("00000000000000081"));
+        Assertions.assertEquals(AccountNumberGenerator.NO_KEY, generator.toKey("0000000000000001"));
+        Assertions.assertEquals(AccountNumberGenerator.NO_KEY, generator.toKey("0000000000000001x"));
+    }
+
+    @Test
+    void testSequentialSkipsObservedNumbers() {
+        AccountNumberGenerator generator = new SequentialAccountNumberGenerator();
+        generator.observe(41);
+        Assertions.assertEquals(42, generator.toKey(generator.next()));
+    }
+
+    @Test
+    void testRandomNumbersRoundTrip() {
+        AccountNumberGenerator generator = new RandomAccountNumberGenerator();
+        for (int i = 0; i < 1_000; i++) {
+            Assertions.assertTrue(generator.toKey(generator.next()) > 0);
+        }
+    }
+
+    @Test
+    void testServicesWithEachGenerator() throws AccountNotFoundException {
+        AccountNumberGenerator[] generators = {
+                new SequentialAccountNumberGenerator(),
+                new RandomAccountNumberGenerator(),
+                new UuidAccountNumberGenerator()
+        };
+        for (AccountNumberGenerator generator : generators) {
+            BankService[] services = {
+                    new BankServiceImp(generator, new IdempotencyCache()),
+                    new ConcurrentBankService(16, generator, new IdempotencyCache())
+            };
+            for (BankService bankService : services) {
+                String accountNumber = bankService.createAccount(BigDecimal.TEN).getAccountNumber();
+                bankService.deposit(accountNumber, BigDecimal.ONE);
+                Assertions.assertEquals(BigDecimal.valueOf(11), bankService.getBalance(accountNumber));
+                Assertions.assertThrows(AccountNotFoundException.class, () -> bankService.getBalance(accountNumber + "0"));
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package ru.dulfi;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.dulfi.domain.Transfer;
+import ru.dulfi.exceptions.AccountNotFoundException;
+import ru.dulfi.exceptions.InsufficientFundsException;
+import ru.dulfi.service.AsyncBankService;
+import ru.dulfi.service.AsyncBankServiceImp;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class AsyncBankServiceImpTest {
+    @Test
+    void testOperationsOnAccountRunInCallOrder() {
+        try (AsyncBankService bankService = new AsyncBankServiceImp()) {
+            String accountNumber = bankService.createAccount(BigDecimal.ZERO).join().getAccountNumber();
+            List<CompletableFuture<Void>> deposits = new ArrayList<>();
+            for (int i = 0; i < 1_000; i++) {
+                deposits.add(bankService.deposit(accountNumber, BigDecimal.ONE));
+            }
+            CompletableFuture<Void> withdraw = bankService.withdraw(accountNumber, BigDecimal.valueOf(1_000));
+            CompletableFuture<BigDecimal> balance = bankService.getBalance(accountNumber);
+
+            withdraw.join();
+            Assertions.assertEquals(0, balance.join().signum());
+            deposits.forEach(deposit -> Assertions.assertTrue(deposit.isDone()));
+            Assertions.assertEquals(1_002, bankService.getOperations(accountNumber).join().size());
+            Assertions.assertEquals("WITHDRAW", bankService.getLastOperations(accountNumber, 1).join().get(0).getOperationType());
+        }
+    }
+
+    @Test
+    void testFailureCompletesFutureAndKeepsQueueRunning() {
+        try (AsyncBankService bankService = new AsyncBankServiceImp()) {
+            String accountNumber = bankService.createAccount(BigDecimal.TEN).join().getAccountNumber();
+            CompletableFuture<Void> withdraw = bankService.withdraw(accountNumber, BigDecimal.valueOf(100));
+            CompletableFuture<Void> deposit = bankService.deposit(accountNumber, BigDecimal.ONE);
+            CompletionException e = Assertions.assertThrows(CompletionException.class, withdraw::join);
+            Assertions.assertInstanceOf(InsufficientFundsException.class, e.getCause());
+            deposit.join();
+            Assertions.assertEquals(BigDecimal.valueOf(11), bankService.getBalance(accountNumber).join());
+            e = Assertions.assertThrows(CompletionException.class, () -> bankService.getBalance("missing").join());
+            Assertions.assertInstanceOf(AccountNotFoundException.class, e.getCause());
+        }
+    }
+
+    @Test
+    void testConcurrentSessionsKeepTotal() {
+        int accounts = 100;
+        int sessions = 10_000;
+        try (AsyncBankService bankService = new AsyncBankServiceImp()) {
+            String[] accountNumbers = new String[accounts];
+            for (int i = 0; i < accounts; i++) {
+                accountNumbers[i] = bankService.createAccount(BigDecimal.valueOf(100)).join().getAccountNumber();
+            }
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < sessions; i++) {
+                int from = random.nextInt(accounts);
+                int to = (from + 1 + random.nextInt(accounts - 1)) % accounts;
+                futures.add(i % 10 == 0
+                        ? bankService.submitBatch(List.of(new Transfer(accountNumbers[from], accountNumbers[to], BigDecimal.ONE),
+                                new Transfer(accountNumbers[to], accountNumbers[from], BigDecimal.TEN)))
+                        : bankService.transfer(accountNumbers[from], accountNumbers[to], BigDecimal.valueOf(random.nextInt(1, 20))));
+            }
+            for (CompletableFuture<Void> future : futures) {
+                future.exceptionally(e -> {
+                    Assertions.assertInstanceOf(InsufficientFundsException.class, e);
+                    return null;
+                }).join();
+            }
+            BigDecimal total = BigDecimal.ZERO;
+            for (String accountNumber : accountNumbers) {
+                total = total.add(bankService.getBalance(accountNumber).join());
+            }
+            Assertions.assertEquals(BigDecimal.valueOf(100L * accounts), total);
+        }
+    }
+}
@@ -3,12 +3,18 @@ package ru.dulfi;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import ru.dulfi.domain.Account;
+import ru.dulfi.domain.Operation;
+import ru.dulfi.domain.DailyPostingPolicy;
+import ru.dulfi.domain.PostingReport;
+import ru.dulfi.domain.Transfer;
 import ru.dulfi.exceptions.AccountNotFoundException;
 import ru.dulfi.exceptions.InsufficientFundsException;
 import ru.dulfi.service.BankService;
 import ru.dulfi.service.BankServiceImp;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 
 public class BankServiceImpTest {
 
@@ -49,7 +55,7 @@ public class BankServiceImpTest {
         String accountNumber = account.getAccountNumber();
         bankService.withdraw(accountNumber, BigDecimal.valueOf(50.0));
         BigDecimal balance = bankService.getBalance(accountNumber);
-        Assertions.assertEquals(BigDecimal.valueOf(250.0), balance);
+        Assertions.assertEquals(BigDecimal.valueOf(150.0), balance);
     }
 
     @Test
@@ -88,4 +94,183 @@ public class BankServiceImpTest {
             bankService.getOperations("NoSuchAccount");
         });
     }
+
+    @Test
+    void testGetOperationsPage() throws AccountNotFoundException {
+        BankService bankService = new BankServiceImp();
+        String accountNumber = bankService.createAccount(BigDecimal.ZERO).getAccountNumber();
+        for (int i = 1; i <= 200; i++) {
+            bankService.deposit(accountNumber, BigDecimal.valueOf(i));
+        }
+        List<Operation> page = bankService.getOperations(accountNumber, 60, 10);
+        Assertions.assertEquals(10, page.size());
+        Assertions.assertEquals(BigDecimal.valueOf(60), page.get(0).getAmount());
+        Assertions.assertEquals(BigDecimal.valueOf(69), page.get(9).getAmount());
+        Assertions.assertTrue(bankService.getOperations(accountNumber, 500, 10).isEmpty());
+    }
+
+    @Test
+    void testGetLastOperations() throws AccountNotFoundException {
+        BankService bankService = new BankServiceImp();
+        String accountNumber = bankService.createAccount(BigDecimal.ZERO).getAccountNumber();
+        for (int i = 1; i <= 100; i++) {
+            bankService.deposit(accountNumber, BigDecimal.valueOf(i));
+        }
+        List<Operation> last = bankService.getLastOperations(accountNumber, 3);
+        Assertions.assertEquals(List.of(BigDecimal.valueOf(98), BigDecimal.valueOf(99), BigDecimal.valueOf(100)),
+                last.stream().map(Operation::getAmount).toList());
+        Assertions.assertEquals(101, bankService.getLastOperations(accountNumber, 1000).size());
+    }
+
+    @Test
+    void testGetOperationsByTimeRange() throws AccountNotFoundException {
+        BankService bankService = new BankServiceImp();
+        String accountNumber = bankService.createAccount(BigDecimal.ZERO).getAccountNumber();
+        bankService.deposit(accountNumber, BigDecimal.ONE);
+        List<Operation> all = bankService.getOperations(accountNumber);
+        LocalDateTime from = all.get(0).getDateTime();
+        LocalDateTime to = all.get(all.size() - 1).getDateTime().plusNanos(1);
+        Assertions.assertEquals(all.size(), bankService.getOperations(accountNumber, from, to).size());
+        Assertions.assertTrue(bankService.getOperations(accountNumber, to, to.plusDays(1)).isEmpty());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            bankService.getOperations(accountNumber, to, from);
+        });
+    }
+
+    @Test
+    void testTransferSuccess() throws AccountNotFoundException, InsufficientFundsException {
+        BankService bankService = new BankServiceImp();
+        String from = bankService.createAccount(BigDecimal.valueOf(100)).getAccountNumber();
+        String to = bankService.createAccount(BigDecimal.valueOf(10)).getAccountNumber();
+        bankService.transfer(from, to, BigDecimal.valueOf(40));
+        Assertions.assertEquals(BigDecimal.valueOf(60), bankService.getBalance(from));
+        Assertions.assertEquals(BigDecimal.valueOf(50), bankService.getBalance(to));
+        Assertions.assertEquals("TRANSFER_OUT", bankService.getLastOperations(from, 1).get(0).getOperationType());
+        Assertions.assertEquals("TRANSFER_IN", bankService.getLastOperations(to, 1).get(0).getOperationType());
+    }
+
+    @Test
+    void testTransfer_SameAccount() {
+        BankService bankService = new BankServiceImp();
+        String accountNumber = bankService.createAccount(BigDecimal.valueOf(100)).getAccountNumber();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            bankService.transfer(accountNumber, accountNumber, BigDecimal.ONE);
+        });
+    }
+
+    @Test
+    void testSubmitBatchUsesFundsFromEarlierTransfers() throws AccountNotFoundException, InsufficientFundsException {
+        BankService bankService = new BankServiceImp();
+        String first = bankService.createAccount(BigDecimal.valueOf(100)).getAccountNumber();
+        String second = bankService.createAccount(BigDecimal.ZERO).getAccountNumber();
+        String third = bankService.createAccount(BigDecimal.ZERO).getAccountNumber();
+        bankService.submitBatch(List.of(
+                new Transfer(first, second, BigDecimal.valueOf(70)),
+                new Transfer(second, third, BigDecimal.valueOf(50))));
+        Assertions.assertEquals(BigDecimal.valueOf(30), bankService.getBalance(first));
+        Assertions.assertEquals(BigDecimal.valueOf(20), bankService.getBalance(second));
+        Assertions.assertEquals(BigDecimal.valueOf(50), bankService.getBalance(third));
+    }
+
+    @Test
+    void testSubmitBatch_AllOrNothing() throws AccountNotFoundException {
+        BankService bankService = new BankServiceImp();
+        String first = bankService.createAccount(BigDecimal.valueOf(100)).getAccountNumber();
+        String second = bankService.createAccount(BigDecimal.valueOf(10)).getAccountNumber();
+        Assertions.assertThrows(InsufficientFundsException.class, () -> {
+            bankService.submitBatch(List.of(
+                    new Transfer(first, second, BigDecimal.valueOf(50)),
+                    new Transfer(second, first, BigDecimal.valueOf(500))));
+        });
+        Assertions.assertThrows(AccountNotFoundException.class, () -> {
+            bankService.submitBatch(List.of(
+                    new Transfer(first, second, BigDecimal.valueOf(50)),
+                    new Transfer(second, "NoSuchAccount", BigDecimal.ONE)));
+        });
+        Assertions.assertEquals(BigDecimal.valueOf(100), bankService.getBalance(first));
+        Assertions.assertEquals(BigDecimal.valueOf(10), bankService.getBalance(second));
+        Assertions.assertEquals(1, bankService.getOperations(first).size());
+    }
+
+    @Test
+    void testDepositWithSameKeyAppliedOnce() throws AccountNotFoundException {
+        BankService bankService = new BankServiceImp();
+        String accountNumber = bankService.createAccount(BigDecimal.valueOf(100)).getAccountNumber();
+        bankService.deposit(accountNumber, BigDecimal.valueOf(50), "atm-1");
+        bankService.deposit(accountNumber, BigDecimal.valueOf(50), "atm-1");
+        bankService.deposit(accountNumber, BigDecimal.valueOf(50), "atm-2");
+        Assertions.assertEquals(BigDecimal.valueOf(200), bankService.getBalance(accountNumber));
+        Assertions.assertEquals(3, bankService.getOperations(accountNumber).size());
+    }
+
+    @Test
+    void testCreateAccountWithSameKeyReturnsSameAccount() {
+        BankService bankService = new BankServiceImp();
+        Account first = bankService.createAccount(BigDecimal.TEN, "open-1");
+        Account second = bankService.createAccount(BigDecimal.TEN, "open-1");
+        Assertions.assertSame(first, second);
+    }
+
+    @Test
+    void testWithdrawWithSameKeyRepeatsFailure() throws AccountNotFoundException, InsufficientFundsException {
+        BankService bankService = new BankServiceImp();
+        String accountNumber = bankService.createAccount(BigDecimal.valueOf(10)).getAccountNumber();
+        Assertions.assertThrows(InsufficientFundsException.class, () -> {
+            bankService.withdraw(accountNumber, BigDecimal.valueOf(50), "atm-1");
+        });
+        bankService.deposit(accountNumber, BigDecimal.valueOf(100));
+        Assertions.assertThrows(InsufficientFundsException.class, () -> {
+            bankService.withdraw(accountNumber, BigDecimal.valueOf(50), "atm-1");
+        });
+        bankService.withdraw(accountNumber, BigDecimal.valueOf(50), "atm-2");
+        Assertions.assertEquals(BigDecimal.valueOf(60), bankService.getBalance(accountNumber));
+    }
+
+    @Test
+    void testRetryWithDifferentAmountScaleAppliedOnce() throws AccountNotFoundException {
+        BankService bankService = new BankServiceImp();
+        String accountNumber = bankService.createAccount(BigDecimal.valueOf(100)).getAccountNumber();
+        bankService.deposit(accountNumber, new BigDecimal("10"), "atm-1");
+        bankService.deposit(accountNumber, new BigDecimal("10.00"), "atm-1");
+        Assertions.assertEquals(BigDecimal.valueOf(110), bankService.getBalance(accountNumber));
+        Assertions.assertEquals(2, bankService.getOperations(accountNumber).size());
+    }
+
+    @Test
+    void testIdempotencyKeyReusedForOtherRequest() throws AccountNotFoundException {
+        BankService bankService = new BankServiceImp();
+        String accountNumber = bankService.createAccount(BigDecimal.valueOf(100)).getAccountNumber();
+        bankService.deposit(accountNumber, BigDecimal.valueOf(50), "atm-1");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            bankService.deposit(accountNumber, BigDecimal.valueOf(70), "atm-1");
+        });
+        Assertions.assertEquals(BigDecimal.valueOf(150), bankService.getBalance(accountNumber));
+    }
+
+    @Test
+    void testPostInterestAndFees() throws AccountNotFoundException {
+        BankService bankService = new BankServiceImp();
+        String rich = bankService.createAccount(BigDecimal.valueOf(36_500)).getAccountNumber();
+        String poor = bankService.createAccount(BigDecimal.valueOf(50)).getAccountNumber();
+        String empty = bankService.createAccount(BigDecimal.ZERO).getAccountNumber();
+        PostingReport report = bankService.post(new DailyPostingPolicy(
+                new BigDecimal("0.05"), BigDecimal.ONE, BigDecimal.valueOf(100), 2));
+
+        Assertions.assertEquals(new BigDecimal("36505.00"), bankService.getBalance(rich));
+        Assertions.assertEquals(new BigDecimal("49.01"), bankService.getBalance(poor));
+        Assertions.assertEquals(BigDecimal.ZERO, bankService.getBalance(empty));
+        Assertions.assertEquals(3, report.getAccounts());
+        Assertions.assertEquals(2, report.getInterestPostings());
+        Assertions.assertEquals(new BigDecimal("5.01"), report.getTotalInterest());
+        Assertions.assertEquals(1, report.getFeePostings());
+        Assertions.assertEquals(BigDecimal.ONE, report.getTotalFees());
+        Assertions.assertEquals(0, report.getRejected());
+
+        List<Operation> operations = bankService.getOperations(poor);
+        Assertions.assertEquals(List.of("CREATE_ACCOUNT", "INTEREST", "FEE"),
+                operations.stream().map(Operation::getOperationType).toList());
+        Assertions.assertEquals(report.getPostedAt(), operations.get(1).getDateTime());
+        Assertions.assertEquals(report.getPostedAt(), operations.get(2).getDateTime());
+        Assertions.assertEquals(1, bankService.getOperations(empty).size());
+    }
 }
@@ -0,0 +1,274 @@
+package ru.dulfi;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.dulfi.domain.Account;
+import ru.dulfi.domain.Operation;
+import ru.dulfi.domain.DailyPostingPolicy;
+import ru.dulfi.domain.PostingReport;
+import ru.dulfi.domain.Transfer;
+import ru.dulfi.exceptions.AccountNotFoundException;
+import ru.dulfi.exceptions.InsufficientFundsException;
+import ru.dulfi.service.BankService;
+import ru.dulfi.service.ConcurrentBankService;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ConcurrentBankServiceTest {
+    private static final int ACCOUNTS = 64;
+    private static final int OPERATIONS_PER_THREAD = 20_000;
+    private static final BigDecimal INITIAL_BALANCE = BigDecimal.valueOf(1_000);
+
+    @Test
+    void testDepositAndWithdrawSuccess() throws AccountNotFoundException, InsufficientFundsException {
+        BankService bankService = new ConcurrentBankService();
+        Account account = bankService.createAccount(BigDecimal.valueOf(100.0));
+        String accountNumber = account.getAccountNumber();
+        bankService.deposit(accountNumber, BigDecimal.valueOf(50.0));
+        bankService.withdraw(accountNumber, BigDecimal.valueOf(30.0));
+        Assertions.assertEquals(BigDecimal.valueOf(120.0), bankService.getBalance(accountNumber));
+        Assertions.assertEquals(3, bankService.getOperations(accountNumber).size());
+    }
+
+    @Test
+    void testWithdraw_InsufficientFunds() {
+        BankService bankService = new ConcurrentBankService();
+        Account account = bankService.createAccount(BigDecimal.valueOf(100.0));
+        Assertions.assertThrows(InsufficientFundsException.class, () -> {
+            bankService.withdraw(account.getAccountNumber(), BigDecimal.valueOf(500.0));
+        });
+    }
+
+    @Test
+    void testGetBalance_AccountNotFound() {
+        BankService bankService = new ConcurrentBankService();
+        Assertions.assertThrows(AccountNotFoundException.class, () -> {
+            bankService.getBalance("NoSuchAccount");
+        });
+    }
+
+    @Test
+    void testFailedOperationListenerLeavesStateUnchanged() throws Exception {
+        AtomicBoolean failing = new AtomicBoolean();
+        ConcurrentBankService bankService = new ConcurrentBankService() {
+            @Override
+            protected void onOperation(Operation operation) {
+                if (failing.get()) {
+                    throw new IllegalStateException("журнал недоступен");
+                }
+            }
+        };
+        String from = bankService.createAccount(BigDecimal.valueOf(100)).getAccountNumber();
+        String to = bankService.createAccount(BigDecimal.ZERO).getAccountNumber();
+        failing.set(true);
+
+        Assertions.assertThrows(IllegalStateException.class, () -> bankService.deposit(from, BigDecimal.TEN));
+        Assertions.assertThrows(IllegalStateException.class, () -> bankService.withdraw(from, BigDecimal.TEN));
+        Assertions.assertThrows(IllegalStateException.class, () -> bankService.transfer(from, to, BigDecimal.TEN));
+        Assertions.assertThrows(IllegalStateException.class, () -> bankService.createAccount(BigDecimal.ONE));
+
+        Assertions.assertEquals(BigDecimal.valueOf(100), bankService.getBalance(from));
+        Assertions.assertEquals(BigDecimal.ZERO, bankService.getBalance(to));
+        Assertions.assertEquals(1, bankService.getOperations(from).size());
+        Assertions.assertEquals(1, bankService.getOperations(to).size());
+    }
+
+    @Test
+    void testConcurrentOperations_NoMoneyLost() throws Exception {
+        BankService bankService = new ConcurrentBankService();
+        List<String> accountNumbers = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountNumbers.add(bankService.createAccount(INITIAL_BALANCE).getAccountNumber());
+        }
+
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        LongAdder deposited = new LongAdder();
+        LongAdder withdrawn = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    String accountNumber = accountNumbers.get(random.nextInt(ACCOUNTS));
+                    long amount = random.nextLong(1, 100);
+                    if (random.nextBoolean()) {
+                        bankService.deposit(accountNumber, BigDecimal.valueOf(amount));
+                        deposited.add(amount);
+                    } else {
+                        try {
+                            bankService.withdraw(accountNumber, BigDecimal.valueOf(amount));
+                            withdrawn.add(amount);
+                        } catch (InsufficientFundsException ignored) {
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (String accountNumber : accountNumbers) {
+            BigDecimal balance = bankService.getBalance(accountNumber);
+            Assertions.assertTrue(balance.signum() >= 0, "Баланс не может стать отрицательным");
+            Assertions.assertEquals(balance, replay(bankService.getOperations(accountNumber)));
+            total = total.add(balance);
+        }
+        BigDecimal expected = INITIAL_BALANCE.multiply(BigDecimal.valueOf(ACCOUNTS))
+                .add(BigDecimal.valueOf(deposited.sum()))
+                .subtract(BigDecimal.valueOf(withdrawn.sum()));
+        Assertions.assertEquals(expected, total);
+    }
+
+    @Test
+    void testConcurrentBatches_NoDeadlockAndTotalPreserved() throws Exception {
+        BankService bankService = new ConcurrentBankService();
+        List<String> accountNumbers = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountNumbers.add(bankService.createAccount(INITIAL_BALANCE).getAccountNumber());
+        }
+
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < OPERATIONS_PER_THREAD / 10; i++) {
+                    List<Transfer> batch = new ArrayList<>();
+                    for (int j = random.nextInt(1, 5); j > 0; j--) {
+                        int from = random.nextInt(ACCOUNTS);
+                        int to = (from + random.nextInt(1, ACCOUNTS)) % ACCOUNTS;
+                        batch.add(new Transfer(accountNumbers.get(from), accountNumbers.get(to),
+                                BigDecimal.valueOf(random.nextLong(1, 100))));
+                    }
+                    try {
+                        bankService.submitBatch(batch);
+                    } catch (InsufficientFundsException e) {
+                        // пакет отклонён целиком
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (String accountNumber : accountNumbers) {
+            BigDecimal balance = bankService.getBalance(accountNumber);
+            Assertions.assertTrue(balance.signum() >= 0, "Баланс не может стать отрицательным");
+            Assertions.assertEquals(balance, replay(bankService.getOperations(accountNumber)));
+            total = total.add(balance);
+        }
+        Assertions.assertEquals(INITIAL_BALANCE.multiply(BigDecimal.valueOf(ACCOUNTS)), total);
+    }
+
+    @Test
+    void testConcurrentRetriesWithSameKeyAppliedOnce() throws Exception {
+        BankService bankService = new ConcurrentBankService();
+        String accountNumber = bankService.createAccount(BigDecimal.ZERO).getAccountNumber();
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 1_000; i++) {
+                    bankService.deposit(accountNumber, BigDecimal.ONE, "request-" + i);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        Assertions.assertEquals(BigDecimal.valueOf(1_000), bankService.getBalance(accountNumber));
+        Assertions.assertEquals(1_001, bankService.getOperations(accountNumber).size());
+    }
+
+    private BigDecimal replay(List<Operation> operations) {
+        BigDecimal balance = BigDecimal.ZERO;
+        for (Operation operation : operations) {
+            if (operation.getOperationType().equals("WITHDRAW") || operation.getOperationType().equals("TRANSFER_OUT")) {
+                balance = balance.subtract(operation.getAmount());
+            } else {
+                balance = balance.add(operation.getAmount());
+            }
+        }
+        return balance;
+    }
+
+    @Test
+    void testPostIsConsistentCutUnderConcurrentTransfers() throws Exception {
+        BankService bankService = new ConcurrentBankService();
+        String[] accountNumbers = new String[10_000];
+        for (int i = 0; i < accountNumbers.length; i++) {
+            accountNumbers[i] = bankService.createAccount(INITIAL_BALANCE).getAccountNumber();
+        }
+        BigDecimal initialTotal = INITIAL_BALANCE.multiply(BigDecimal.valueOf(accountNumbers.length));
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch started = new CountDownLatch(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        PostingReport report;
+        try {
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    started.countDown();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                        int from = random.nextInt(accountNumbers.length);
+                        int to = (from + 1 + random.nextInt(accountNumbers.length - 1)) % accountNumbers.length;
+                        try {
+                            bankService.transfer(accountNumbers[from], accountNumbers[to], BigDecimal.ONE);
+                        } catch (InsufficientFundsException ignored) {
+                        }
+                    }
+                    return null;
+                }));
+            }
+            started.await();
+            report = bankService.post(new DailyPostingPolicy(
+                    new BigDecimal("0.10"), new BigDecimal("0.50"), INITIAL_BALANCE, 2));
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (String accountNumber : accountNumbers) {
+            total = total.add(bankService.getBalance(accountNumber));
+        }
+        Assertions.assertEquals(accountNumbers.length, report.getAccounts());
+        Assertions.assertEquals(0, initialTotal.add(report.getTotalInterest()).subtract(report.getTotalFees()).compareTo(total));
+        Assertions.assertEquals(accountNumbers.length, report.getInterestPostings());
+    }
+}
@@ -0,0 +1,200 @@
+package ru.dulfi;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.dulfi.domain.DailyPostingPolicy;
+import ru.dulfi.domain.Transfer;
+import ru.dulfi.exceptions.AccountNotFoundException;
+import ru.dulfi.exceptions.InsufficientFundsException;
+import ru.dulfi.persistence.SyncMode;
+import ru.dulfi.service.DurableBankService;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class DurableBankServiceTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRecoverFromLog() throws Exception {
+        String accountNumber;
+        try (DurableBankService bankService = new DurableBankService(directory)) {
+            accountNumber = bankService.createAccount(BigDecimal.valueOf(100.0)).getAccountNumber();
+            bankService.deposit(accountNumber, BigDecimal.valueOf(50.0));
+            bankService.withdraw(accountNumber, BigDecimal.valueOf(20.0));
+        }
+        try (DurableBankService bankService = new DurableBankService(directory)) {
+            Assertions.assertEquals(BigDecimal.valueOf(130.0), bankService.getBalance(accountNumber));
+            Assertions.assertEquals(3, bankService.getOperations(accountNumber).size());
+        }
+    }
+
+    @Test
+    void testRecoverFromSnapshotAndLogTail() throws Exception {
+        String first;
+        String second;
+        try (DurableBankService bankService = new DurableBankService(directory, SyncMode.PER_OPERATION, Long.MAX_VALUE)) {
+            first = bankService.createAccount(BigDecimal.valueOf(10)).getAccountNumber();
+            bankService.deposit(first, BigDecimal.valueOf(5));
+            bankService.snapshot();
+            second = bankService.createAccount(BigDecimal.valueOf(7)).getAccountNumber();
+            bankService.withdraw(first, BigDecimal.valueOf(3));
+        }
+        Assertions.assertEquals(1, countFiles("snapshot-"));
+        Assertions.assertEquals(1, countFiles("wal-"));
+        try (DurableBankService bankService = new DurableBankService(directory, SyncMode.PER_OPERATION, Long.MAX_VALUE)) {
+            Assertions.assertEquals(BigDecimal.valueOf(12), bankService.getBalance(first));
+            Assertions.assertEquals(BigDecimal.valueOf(7), bankService.getBalance(second));
+            Assertions.assertEquals(1, bankService.getOperations(first).size());
+        }
+    }
+
+    @Test
+    void testPeriodicSnapshot() throws Exception {
+        String accountNumber;
+        try (DurableBankService bankService = new DurableBankService(directory, SyncMode.GROUP_COMMIT, 100)) {
+            accountNumber = bankService.createAccount(BigDecimal.ZERO).getAccountNumber();
+            for (int i = 0; i < 1_000; i++) {
+                bankService.deposit(accountNumber, BigDecimal.ONE);
+            }
+        }
+        Assertions.assertEquals(1, countFiles("snapshot-"));
+        try (DurableBankService bankService = new DurableBankService(directory)) {
+            Assertions.assertEquals(BigDecimal.valueOf(1_000), bankService.getBalance(accountNumber));
+        }
+    }
+
+    @Test
+    void testTornTailIsIgnored() throws Exception {
+        String accountNumber;
+        try (DurableBankService bankService = new DurableBankService(directory)) {
+            accountNumber = bankService.createAccount(BigDecimal.valueOf(100)).getAccountNumber();
+            bankService.deposit(accountNumber, BigDecimal.valueOf(1));
+        }
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(path -> path.getFileName().toString().startsWith("wal-")).findFirst().orElseThrow();
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            long lastRecordByte = findEndOfRecords(file) - 1;
+            file.seek(lastRecordByte);
+            int value = file.read();
+            file.seek(lastRecordByte);
+            file.write(value ^ 0xFF);
+        }
+        try (DurableBankService bankService = new DurableBankService(directory)) {
+            Assertions.assertEquals(BigDecimal.valueOf(100), bankService.getBalance(accountNumber));
+            bankService.deposit(accountNumber, BigDecimal.valueOf(2));
+        }
+        try (DurableBankService bankService = new DurableBankService(directory)) {
+            Assertions.assertEquals(BigDecimal.valueOf(102), bankService.getBalance(accountNumber));
+        }
+    }
+
+    @Test
+    void testRejectedOperationIsNotLogged() throws Exception {
+        String accountNumber;
+        try (DurableBankService bankService = new DurableBankService(directory)) {
+            accountNumber = bankService.createAccount(BigDecimal.valueOf(10)).getAccountNumber();
+            Assertions.assertThrows(InsufficientFundsException.class, () -> {
+                bankService.withdraw(accountNumber, BigDecimal.valueOf(50));
+            });
+            Assertions.assertThrows(AccountNotFoundException.class, () -> {
+                bankService.deposit("NoSuchAccount", BigDecimal.ONE);
+            });
+        }
+        try (DurableBankService bankService = new DurableBankService(directory)) {
+            Assertions.assertEquals(BigDecimal.valueOf(10), bankService.getBalance(accountNumber));
+            Assertions.assertEquals(1, bankService.getOperations(accountNumber).size());
+        }
+    }
+
+    @Test
+    void testBatchRecoveredAtomically() throws Exception {
+        String first;
+        String second;
+        try (DurableBankService bankService = new DurableBankService(directory)) {
+            first = bankService.createAccount(BigDecimal.valueOf(100)).getAccountNumber();
+            second = bankService.createAccount(BigDecimal.ZERO).getAccountNumber();
+            bankService.transfer(first, second, BigDecimal.valueOf(10));
+            bankService.submitBatch(List.of(
+                    new Transfer(first, second, BigDecimal.valueOf(20)),
+                    new Transfer(second, first, BigDecimal.valueOf(5))));
+        }
+        try (DurableBankService bankService = new DurableBankService(directory)) {
+            Assertions.assertEquals(BigDecimal.valueOf(75), bankService.getBalance(first));
+            Assertions.assertEquals(BigDecimal.valueOf(25), bankService.getBalance(second));
+            Assertions.assertEquals(4, bankService.getOperations(first).size());
+        }
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(path -> path.getFileName().toString().startsWith("wal-")).sorted().findFirst().orElseThrow();
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            long lastRecordByte = findEndOfRecords(file) - 1;
+            file.seek(lastRecordByte);
+            int value = file.read();
+            file.seek(lastRecordByte);
+            file.write(value ^ 0xFF);
+        }
+        try (DurableBankService bankService = new DurableBankService(directory)) {
+            Assertions.assertEquals(BigDecimal.valueOf(90), bankService.getBalance(first));
+            Assertions.assertEquals(BigDecimal.valueOf(10), bankService.getBalance(second));
+            Assertions.assertEquals(2, bankService.getOperations(first).size());
+        }
+    }
+
+    private long countFiles(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith(prefix)).count();
+        }
+    }
+
+    private long findEndOfRecords(RandomAccessFile file) throws IOException {
+        long position = 0;
+        while (true) {
+            file.seek(position);
+            int length = file.readInt();
+            if (length == 0) {
+                return position;
+            }
+            position += Integer.BYTES * 2 + length;
+        }
+    }
+
+    @Test
+    void testPostingRecoveredFromSnapshot() throws Exception {
+        String accountNumber;
+        try (DurableBankService bankService = new DurableBankService(directory, SyncMode.PER_OPERATION, Long.MAX_VALUE)) {
+            accountNumber = bankService.createAccount(BigDecimal.valueOf(36_500)).getAccountNumber();
+            bankService.post(new DailyPostingPolicy(new BigDecimal("0.05"), BigDecimal.ZERO, BigDecimal.ZERO, 2));
+            bankService.withdraw(accountNumber, new BigDecimal("36505.00"));
+        }
+        Assertions.assertEquals(1, countFiles("snapshot-"));
+        try (DurableBankService bankService = new DurableBankService(directory, SyncMode.PER_OPERATION, Long.MAX_VALUE)) {
+            Assertions.assertEquals(0, bankService.getBalance(accountNumber).signum());
+        }
+    }
+
+    @Test
+    void testFailedPostingSnapshotLeavesBalancesUnchanged() throws Exception {
+        try (DurableBankService bankService = new DurableBankService(directory, SyncMode.PER_OPERATION, Long.MAX_VALUE)) {
+            String accountNumber = bankService.createAccount(BigDecimal.valueOf(36_500)).getAccountNumber();
+            Files.createDirectory(directory.resolve(String.format("snapshot-%016d.bin.tmp", 1)));
+
+            Assertions.assertThrows(UncheckedIOException.class, () -> bankService.post(
+                    new DailyPostingPolicy(new BigDecimal("0.05"), BigDecimal.ONE, BigDecimal.ZERO, 2)));
+
+            Assertions.assertEquals(0, BigDecimal.valueOf(36_500).compareTo(bankService.getBalance(accountNumber)));
+            Assertions.assertEquals(1, bankService.getOperations(accountNumber).size());
+        }
+    }
+}
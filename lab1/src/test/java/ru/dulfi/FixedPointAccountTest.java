@@ -0,0 +1,58 @@
+package ru.dulfi;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.dulfi.domain.Account;
+import ru.dulfi.domain.AccountBuilder;
+import ru.dulfi.domain.FixedPointAccount;
+import ru.dulfi.exceptions.InsufficientFundsException;
+
+import java.math.BigDecimal;
+
+public class FixedPointAccountTest {
+
+    @Test
+    void testBuilderSelectsFixedPoint() {
+        Account account = new AccountBuilder()
+                .accountNumber("42")
+                .balance(new BigDecimal("10.5"))
+                .fixedPoint(2)
+                .build();
+        Assertions.assertInstanceOf(FixedPointAccount.class, account);
+        Assertions.assertEquals(1050, ((FixedPointAccount) account).getBalanceUnits());
+        Assertions.assertEquals(new BigDecimal("10.50"), account.getBalance());
+    }
+
+    @Test
+    void testMatchesDecimalAccount() throws InsufficientFundsException {
+        Account decimal = new AccountBuilder().accountNumber("1").balance(new BigDecimal("100.00")).build();
+        Account fixed = new AccountBuilder().accountNumber("2").balance(new BigDecimal("100.00")).fixedPoint(2).build();
+        for (Account account : new Account[]{decimal, fixed}) {
+            account.deposit(new BigDecimal("0.10"));
+            account.deposit(new BigDecimal("0.2"));
+            account.withdraw(new BigDecimal("50.05"));
+        }
+        Assertions.assertEquals(0, decimal.getBalance().compareTo(fixed.getBalance()));
+        Assertions.assertEquals(new BigDecimal("50.25"), fixed.getBalance());
+    }
+
+    @Test
+    void testRejectsSameInputsAsDecimalAccount() {
+        Account fixed = new AccountBuilder().accountNumber("1").balance(BigDecimal.TEN).fixedPoint(2).build();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> fixed.deposit(BigDecimal.ZERO));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> fixed.withdraw(BigDecimal.valueOf(-1)));
+        Assertions.assertThrows(InsufficientFundsException.class, () -> fixed.withdraw(new BigDecimal("10.01")));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new AccountBuilder().accountNumber("2").balance(BigDecimal.valueOf(-1)).fixedPoint(2).build();
+        });
+    }
+
+    @Test
+    void testInexactAmountAndOverflowAreRejected() {
+        FixedPointAccount account = new FixedPointAccount("1", BigDecimal.ZERO, 2);
+        Assertions.assertThrows(ArithmeticException.class, () -> account.deposit(new BigDecimal("0.001")));
+        account.depositUnits(Long.MAX_VALUE);
+        Assertions.assertThrows(ArithmeticException.class, () -> account.depositUnits(1));
+        Assertions.assertEquals(Long.MAX_VALUE, account.getBalanceUnits());
+    }
+}
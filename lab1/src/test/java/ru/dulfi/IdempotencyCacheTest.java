@@ -0,0 +1,97 @@
+package ru.dulfi;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.dulfi.service.IdempotencyCache;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class IdempotencyCacheTest {
+    @Test
+    void testExpiredKeyIsExecutedAgain() throws Exception {
+        AtomicLong clock = new AtomicLong();
+        AtomicInteger calls = new AtomicInteger();
+        IdempotencyCache cache = new IdempotencyCache(100, Duration.ofSeconds(10), clock::get);
+        Assertions.assertEquals(1, (int) cache.execute("key", "request", calls::incrementAndGet));
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+        Assertions.assertEquals(1, (int) cache.execute("key", "request", calls::incrementAndGet));
+        clock.addAndGet(Duration.ofSeconds(6).toNanos());
+        Assertions.assertEquals(2, (int) cache.execute("key", "request", calls::incrementAndGet));
+    }
+
+    @Test
+    void testOldestKeysEvictedWhenFull() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        IdempotencyCache cache = new IdempotencyCache(3, Duration.ofHours(1));
+        for (int i = 0; i < 10; i++) {
+            cache.execute("key-" + i, "request", calls::incrementAndGet);
+        }
+        Assertions.assertEquals(3, cache.size());
+        Assertions.assertEquals(10, (int) cache.execute("key-9", "request", calls::incrementAndGet));
+        Assertions.assertEquals(11, (int) cache.execute("key-0", "request", calls::incrementAndGet));
+    }
+
+    @Test
+    void testInFlightKeyIsNotEvicted() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IdempotencyCache cache = new IdempotencyCache(1, Duration.ofHours(1));
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> {
+            try {
+                return cache.execute("slow", "request", () -> {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return calls.incrementAndGet();
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        Assertions.assertEquals("ok", cache.execute("other", "request", () -> "ok"));
+        CompletableFuture<Integer> retry = CompletableFuture.supplyAsync(() -> {
+            try {
+                return cache.execute("slow", "request", calls::incrementAndGet);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        release.countDown();
+
+        Assertions.assertEquals(1, (int) first.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, (int) retry.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testFingerprintIgnoresAmountScale() {
+        Assertions.assertEquals(IdempotencyCache.fingerprint("DEPOSIT", "1", new BigDecimal("10")),
+                IdempotencyCache.fingerprint("DEPOSIT", "1", new BigDecimal("10.00")));
+        Assertions.assertEquals("TRANSFER 1 2 100", IdempotencyCache.fingerprint("TRANSFER", "1", "2", new BigDecimal("1E+2")));
+        Assertions.assertNotEquals(IdempotencyCache.fingerprint("DEPOSIT", "1", new BigDecimal("10")),
+                IdempotencyCache.fingerprint("DEPOSIT", "1", new BigDecimal("10.01")));
+    }
+
+    @Test
+    void testUnexpectedFailureIsNotRemembered() throws Exception {
+        IdempotencyCache cache = new IdempotencyCache();
+        Assertions.assertThrows(IllegalStateException.class, () -> {
+            cache.execute("key", "request", () -> {
+                throw new IllegalStateException("сбой");
+            });
+        });
+        Assertions.assertEquals("ok", cache.execute("key", "request", () -> "ok"));
+    }
+}
@@ -0,0 +1,91 @@
+package ru.dulfi;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.dulfi.domain.Account;
+import ru.dulfi.exceptions.AccountNotFoundException;
+import ru.dulfi.exceptions.InsufficientFundsException;
+import ru.dulfi.metrics.BankMetrics;
+import ru.dulfi.metrics.OperationKind;
+import ru.dulfi.service.BankServiceImp;
+import ru.dulfi.service.ConcurrentBankService;
+import ru.dulfi.service.InstrumentedBankService;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class InstrumentedBankServiceTest {
+    @Test
+    void testCountsCallsAndOutcomes() throws Exception {
+        BankMetrics metrics = new BankMetrics();
+        InstrumentedBankService service = new InstrumentedBankService(new BankServiceImp(), metrics);
+        Account account = service.createAccount(new BigDecimal("100"));
+        service.deposit(account.getAccountNumber(), new BigDecimal("50"));
+        service.withdraw(account.getAccountNumber(), new BigDecimal("30"));
+        Assertions.assertThrows(InsufficientFundsException.class,
+                () -> service.withdraw(account.getAccountNumber(), new BigDecimal("1000")));
+        Assertions.assertThrows(AccountNotFoundException.class, () -> service.getBalance("missing"));
+        Assertions.assertEquals(new BigDecimal("120"), service.getBalance(account.getAccountNumber()));
+
+        Assertions.assertEquals(1, metrics.calls(OperationKind.CREATE_ACCOUNT));
+        Assertions.assertEquals(1, metrics.calls(OperationKind.DEPOSIT));
+        Assertions.assertEquals(2, metrics.calls(OperationKind.WITHDRAW));
+        Assertions.assertEquals(2, metrics.calls(OperationKind.GET_BALANCE));
+        Assertions.assertEquals(6, metrics.getTotalCalls());
+        Assertions.assertEquals(1, metrics.getInsufficientFundsRejections());
+        Assertions.assertEquals(0.5, metrics.getInsufficientFundsRate(), 1e-9);
+        Assertions.assertEquals(1, metrics.getAccountNotFound());
+        Assertions.assertEquals(2, metrics.latency(OperationKind.WITHDRAW).count());
+    }
+
+    @Test
+    void testRecordsLockWaitsOfConcurrentService() throws Exception {
+        BankMetrics metrics = new BankMetrics();
+        InstrumentedBankService service = new InstrumentedBankService(new ConcurrentBankService(1), metrics);
+        Account account = service.createAccount(BigDecimal.ZERO);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        service.deposit(account.getAccountNumber(), BigDecimal.ONE);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assertions.assertEquals(new BigDecimal("40000"), service.getBalance(account.getAccountNumber()));
+        Assertions.assertEquals(40_000, metrics.calls(OperationKind.DEPOSIT));
+        Assertions.assertTrue(metrics.report().contains("DEPOSIT"));
+    }
+
+    @Test
+    void testRegisteredInJmx() throws Exception {
+        BankMetrics metrics = new BankMetrics();
+        InstrumentedBankService service = new InstrumentedBankService(new BankServiceImp(), metrics);
+        service.createAccount(BigDecimal.TEN);
+        ObjectName name = metrics.register("test-" + System.nanoTime());
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            Assertions.assertEquals(1L, server.getAttribute(name, "TotalCalls"));
+            server.invoke(name, "reset", null, null);
+            Assertions.assertEquals(0L, metrics.getTotalCalls());
+            Assertions.assertThrows(IllegalStateException.class, () -> metrics.register(name.getKeyProperty("name").replace("\"", "")));
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+}
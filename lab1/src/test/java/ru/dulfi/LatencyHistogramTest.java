@@ -0,0 +1,51 @@
+package ru.dulfi;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.dulfi.metrics.LatencyHistogram;
+
+public class LatencyHistogramTest {
+    @Test
+    void testPercentilesWithinRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1_000);
+        }
+        Assertions.assertEquals(100_000, histogram.count());
+        Assertions.assertEquals(100_000_000, histogram.max());
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            double expected = percentile / 100 * 100_000_000;
+            long actual = histogram.percentile(percentile);
+            Assertions.assertTrue(actual >= expected && actual <= expected * (1 + 1.0 / 64),
+                    "p" + percentile + " = " + actual);
+        }
+        Assertions.assertEquals(100_000, histogram.percentile(100) / 1_000);
+    }
+
+    @Test
+    void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 0; value < 100; value++) {
+            histogram.record(value);
+        }
+        Assertions.assertEquals(49, histogram.percentile(50));
+        Assertions.assertEquals(0, histogram.percentile(0));
+        Assertions.assertEquals(49.5, histogram.mean(), 1e-9);
+    }
+
+    @Test
+    void testReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(5_000);
+        histogram.reset();
+        Assertions.assertEquals(0, histogram.count());
+        Assertions.assertEquals(0, histogram.max());
+        Assertions.assertEquals(0, histogram.percentile(99));
+    }
+
+    @Test
+    void testPercentileOutOfRange() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> histogram.percentile(101));
+    }
+}
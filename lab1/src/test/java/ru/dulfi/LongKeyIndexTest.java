@@ -0,0 +1,54 @@
+package ru.dulfi;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.dulfi.storage.LongKeyIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LongKeyIndexTest {
+    @Test
+    void testPutAndGet() {
+        LongKeyIndex<String> index = new LongKeyIndex<>();
+        Assertions.assertNull(index.putIfAbsent(7, "a"));
+        Assertions.assertEquals("a", index.putIfAbsent(7, "b"));
+        index.put(7, "c");
+        Assertions.assertEquals("c", index.get(7));
+        Assertions.assertNull(index.get(8));
+        Assertions.assertEquals(1, index.size());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> index.put(0, "d"));
+    }
+
+    @Test
+    void testConcurrentInsertsAreVisible() throws Exception {
+        LongKeyIndex<Long> index = new LongKeyIndex<>();
+        int threads = 8;
+        int perThread = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long base = (long) t * perThread;
+            futures.add(executor.submit(() -> {
+                for (long key = base + 1; key <= base + perThread; key++) {
+                    index.putIfAbsent(key, key);
+                    Assertions.assertEquals(key, index.get(key));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        Assertions.assertEquals(threads * perThread, index.size());
+        LongAdder sum = new LongAdder();
+        index.forEach(sum::add);
+        long n = (long) threads * perThread;
+        Assertions.assertEquals(n * (n + 1) / 2, sum.sum());
+    }
+}
@@ -0,0 +1,71 @@
+package ru.dulfi;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.dulfi.domain.Operation;
+import ru.dulfi.storage.OperationJournal;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class OperationJournalTest {
+    private static final String ACCOUNT = "account";
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 12, 0, 0, 123_456_789);
+
+    @Test
+    void testRoundTripPreservesFields() {
+        OperationJournal journal = new OperationJournal(ACCOUNT);
+        journal.append(new Operation(ACCOUNT, "CREATE_ACCOUNT", BigDecimal.valueOf(100.0), START));
+        journal.append(new Operation(ACCOUNT, "TRANSFER_OUT", new BigDecimal("0.001"), START.plusNanos(1)));
+        List<Operation> operations = journal.getAll();
+        Assertions.assertEquals(2, operations.size());
+        Assertions.assertEquals(ACCOUNT, operations.get(0).getAccountNumber());
+        Assertions.assertEquals("CREATE_ACCOUNT", operations.get(0).getOperationType());
+        Assertions.assertEquals(BigDecimal.valueOf(100.0), operations.get(0).getAmount());
+        Assertions.assertEquals(START, operations.get(0).getDateTime());
+        Assertions.assertEquals("TRANSFER_OUT", operations.get(1).getOperationType());
+        Assertions.assertEquals(new BigDecimal("0.001"), operations.get(1).getAmount());
+        Assertions.assertEquals(START.plusNanos(1), operations.get(1).getDateTime());
+    }
+
+    @Test
+    void testAmountOutsideLongIsKeptExactly() {
+        OperationJournal journal = new OperationJournal(ACCOUNT);
+        BigDecimal huge = new BigDecimal("123456789012345678901234567890.12");
+        BigDecimal tiny = new BigDecimal("1E-200");
+        journal.append(new Operation(ACCOUNT, "DEPOSIT", huge, START));
+        journal.append(new Operation(ACCOUNT, "DEPOSIT", tiny, START));
+        Assertions.assertEquals(huge, journal.getAll().get(0).getAmount());
+        Assertions.assertEquals(tiny, journal.getAll().get(1).getAmount());
+    }
+
+    @Test
+    void testViewsAcrossChunks() {
+        OperationJournal journal = new OperationJournal(ACCOUNT);
+        for (int i = 0; i < 1_000; i++) {
+            journal.append(new Operation(ACCOUNT, "DEPOSIT", BigDecimal.valueOf(i), START.plusSeconds(i)));
+        }
+        List<Operation> page = journal.getPage(500, 100);
+        Assertions.assertEquals(BigDecimal.valueOf(500), page.get(0).getAmount());
+        Assertions.assertEquals(BigDecimal.valueOf(599), page.get(99).getAmount());
+        Assertions.assertEquals(BigDecimal.valueOf(550), page.subList(50, 60).get(0).getAmount());
+        Assertions.assertEquals(BigDecimal.valueOf(999), journal.getLast(1).get(0).getAmount());
+        List<Operation> range = journal.getRange(START.plusSeconds(10), START.plusSeconds(20));
+        Assertions.assertEquals(10, range.size());
+        Assertions.assertEquals(BigDecimal.valueOf(10), range.get(0).getAmount());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> page.add(page.get(0)));
+    }
+
+    @Test
+    void testAppend_Rejected() {
+        OperationJournal journal = new OperationJournal(ACCOUNT);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            journal.append(new Operation("other", "DEPOSIT", BigDecimal.ONE));
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            journal.append(new Operation(ACCOUNT, "UNKNOWN", BigDecimal.ONE));
+        });
+        Assertions.assertEquals(0, journal.size());
+    }
+}
@@ -0,0 +1,88 @@
+package ru.dulfi;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.dulfi.domain.ExportReport;
+import ru.dulfi.domain.Operation;
+import ru.dulfi.service.BankService;
+import ru.dulfi.service.BankServiceImp;
+import ru.dulfi.service.ConcurrentBankService;
+import ru.dulfi.service.StatementExporter;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class StatementExporterTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void testCsvExport() throws Exception {
+        BankService bankService = new BankServiceImp();
+        String accountNumber = bankService.createAccount(new BigDecimal("100.50")).getAccountNumber();
+        bankService.deposit(accountNumber, new BigDecimal("0.05"));
+        bankService.deposit(accountNumber, new BigDecimal("1E+3"));
+        bankService.withdraw(accountNumber, new BigDecimal("7"));
+        bankService.deposit(accountNumber, new BigDecimal("123456789012345678901234567890.5"));
+        Path file = directory.resolve("statements.csv");
+
+        ExportReport report = new StatementExporter().export(bankService, file, StatementExporter.Format.CSV);
+
+        List<String> lines = Files.readAllLines(file);
+        List<Operation> operations = bankService.getOperations(accountNumber);
+        Assertions.assertEquals("account_number,operation_type,amount,date_time", lines.get(0));
+        Assertions.assertEquals(operations.size() + 1, lines.size());
+        for (int i = 0; i < operations.size(); i++) {
+            Operation operation = operations.get(i);
+            String[] fields = lines.get(i + 1).split(",");
+            Assertions.assertEquals(accountNumber, fields[0]);
+            Assertions.assertEquals(operation.getOperationType(), fields[1]);
+            Assertions.assertEquals(operation.getAmount().toPlainString(), fields[2]);
+            Assertions.assertEquals(operation.getDateTime(), LocalDateTime.parse(fields[3]));
+        }
+        Assertions.assertEquals(1, report.getAccounts());
+        Assertions.assertEquals(5, report.getOperations());
+        Assertions.assertEquals(Files.size(file), report.getBytes());
+    }
+
+    @Test
+    void testBinaryRoundTrip() throws Exception {
+        BankService bankService = new ConcurrentBankService();
+        List<String> accountNumbers = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String accountNumber = bankService.createAccount(BigDecimal.valueOf(i, 2)).getAccountNumber();
+            for (int j = 0; j < i % 7; j++) {
+                bankService.deposit(accountNumber, BigDecimal.valueOf(j + 1, j % 3));
+            }
+            accountNumbers.add(accountNumber);
+        }
+        bankService.deposit(accountNumbers.get(0), new BigDecimal("98765432109876543210987654321"));
+        Path file = directory.resolve("statements.bin");
+
+        ExportReport report = new StatementExporter(1 << 16).export(bankService, file, StatementExporter.Format.BINARY);
+
+        List<Operation> expected = new ArrayList<>();
+        for (String accountNumber : accountNumbers) {
+            expected.addAll(bankService.getOperations(accountNumber));
+        }
+        List<Operation> actual = new ArrayList<>();
+        StatementExporter.readBinary(file, actual::add);
+        Assertions.assertEquals(500, report.getAccounts());
+        Assertions.assertEquals(expected.size(), report.getOperations());
+        Assertions.assertEquals(expected.size(), actual.size());
+        actual.sort((a, b) -> a.getAccountNumber().compareTo(b.getAccountNumber()));
+        expected.sort((a, b) -> a.getAccountNumber().compareTo(b.getAccountNumber()));
+        for (int i = 0; i < expected.size(); i++) {
+            Assertions.assertEquals(expected.get(i).getAccountNumber(), actual.get(i).getAccountNumber());
+            Assertions.assertEquals(expected.get(i).getOperationType(), actual.get(i).getOperationType());
+            Assertions.assertEquals(expected.get(i).getAmount(), actual.get(i).getAmount());
+            Assertions.assertEquals(expected.get(i).getDateTime(), actual.get(i).getDateTime());
+        }
+        Assertions.assertTrue(report.getMegabytesPerSecond() > 0);
+    }
+}
@@ -0,0 +1,61 @@
+package ru.dulfi;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.dulfi.domain.Operation;
+import ru.dulfi.persistence.SyncMode;
+import ru.dulfi.persistence.WriteAheadLog;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+public class WriteAheadLogTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void testGroupCommitForceFailureReleasesWaiters() throws Exception {
+        IOException diskError = new IOException("Диск недоступен");
+        try (WriteAheadLog log = new WriteAheadLog(directory, 1, 4096, SyncMode.GROUP_COMMIT) {
+            @Override
+            protected void force(MappedByteBuffer segment) {
+                throw new UncheckedIOException(diskError);
+            }
+        }) {
+            long sequence = log.append(new Operation("40817810000000000001", "DEPOSIT", BigDecimal.TEN));
+
+            UncheckedIOException error = Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5),
+                    () -> Assertions.assertThrows(UncheckedIOException.class, () -> log.awaitDurable(sequence)));
+            Assertions.assertSame(diskError, error.getCause());
+            Assertions.assertThrows(UncheckedIOException.class,
+                    () -> log.append(new Operation("40817810000000000001", "DEPOSIT", BigDecimal.ONE)));
+        }
+    }
+
+    @Test
+    void testPerOperationForceFailureDiscardsRecord() throws Exception {
+        try (WriteAheadLog log = new WriteAheadLog(directory, 1, 4096, SyncMode.PER_OPERATION) {
+            @Override
+            protected void force(MappedByteBuffer segment) {
+                throw new UncheckedIOException(new IOException("Диск недоступен"));
+            }
+        }) {
+            Assertions.assertThrows(UncheckedIOException.class,
+                    () -> log.append(new Operation("40817810000000000001", "DEPOSIT", BigDecimal.TEN)));
+            Assertions.assertEquals(0, log.lastSequence());
+            Assertions.assertThrows(UncheckedIOException.class,
+                    () -> log.append(new Operation("40817810000000000001", "DEPOSIT", BigDecimal.ONE)));
+        }
+
+        List<Operation> replayed = new ArrayList<>();
+        WriteAheadLog.replay(directory, 1, replayed::add);
+        Assertions.assertTrue(replayed.isEmpty());
+    }
+}
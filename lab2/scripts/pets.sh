@@ -0,0 +1,16 @@
+#!/usr/bin/env bash
+# Запуск консольного приложения lab2, собранного профилем fast-startup:
+#   mvn -Pfast-startup package && lab2/scripts/pets.sh
+set -euo pipefail
+
+TARGET="$(cd "$(dirname "$0")/.." && pwd)/target"
+JAR="$TARGET/lab-2-1.0-SNAPSHOT.jar"
+ARCHIVE="$TARGET/lab2-app.jsa"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+
+CDS_OPTS=()
+if [[ -f "$ARCHIVE" ]]; then
+    CDS_OPTS=(-XX:SharedArchiveFile="$ARCHIVE" -Xshare:auto)
+fi
+
+exec "$JAVA" "${CDS_OPTS[@]}" ${JAVA_OPTS:-} -cp "$JAR" ru.dulfi.console.ConsoleApp "$@"
@@ -0,0 +1,41 @@
+#!/usr/bin/env bash
+# Время до первого запроса консольного приложения lab2: от старта JVM до ответа PostgreSQL
+# на первую выборку (-Dpets.startupProbe=true). Нужна сборка профилем fast-startup и база
+# из database.properties; адрес можно переопределить через JAVA_OPTS="-Ddb.url=...".
+#   mvn -Pfast-startup package && lab2/scripts/startup-benchmark.sh [запусков]
+set -euo pipefail
+
+RUNS="${1:-5}"
+TARGET="$(cd "$(dirname "$0")/.." && pwd)/target"
+JAR="$TARGET/lab-2-1.0-SNAPSHOT.jar"
+ARCHIVE="$TARGET/lab2-app.jsa"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+
+if [[ ! -f "$JAR" || ! -f "$ARCHIVE" ]]; then
+    echo "Нет $JAR или $ARCHIVE: выполните mvn -Pfast-startup package" >&2
+    exit 1
+fi
+
+measure() {
+    local name="$1"
+    shift
+    local times=()
+    for ((i = 0; i < RUNS; i++)); do
+        local line
+        line=$("$JAVA" "$@" ${JAVA_OPTS:-} -Dpets.startupProbe=true -cp "$JAR" ru.dulfi.console.ConsoleApp 2>/dev/null \
+            | grep -o 'time-to-first-query-ms=[0-9]*' || true)
+        if [[ -z "$line" ]]; then
+            echo "$name: приложение не выполнило запрос (база доступна?)" >&2
+            exit 1
+        fi
+        times+=("${line#*=}")
+    done
+    local sorted
+    sorted=$(printf '%s\n' "${times[@]}" | sort -n)
+    printf '%-12s median=%5s ms  min=%5s ms  max=%5s ms\n' "$name" \
+        "$(sed -n "$(((RUNS + 1) / 2))p" <<< "$sorted")" "$(head -1 <<< "$sorted")" "$(tail -1 <<< "$sorted")"
+}
+
+measure default -Xshare:auto
+measure appcds -XX:SharedArchiveFile="$ARCHIVE" -Xshare:auto
+measure appcds-c1 -XX:SharedArchiveFile="$ARCHIVE" -Xshare:auto -XX:TieredStopAtLevel=1
@@ -1,5 +1,6 @@
 package ru.dulfi.console;
 
+import ru.dulfi.dao.FriendGraphDao;
 import ru.dulfi.dao.OwnerDao;
 import ru.dulfi.dao.PetDao;
 import ru.dulfi.db.DatabaseInitializer;
@@ -7,33 +8,60 @@ import ru.dulfi.db.EntityManagerUtil;
 import ru.dulfi.domain.Owner;
 import ru.dulfi.domain.Pet;
 import ru.dulfi.domain.PetColor;
+import ru.dulfi.dto.OwnerView;
+import ru.dulfi.dto.PetView;
 import ru.dulfi.exception.EntityNotFoundException;
+import ru.dulfi.graph.FriendAdjacencyIndex;
+import ru.dulfi.graph.FriendGraph;
+import ru.dulfi.importer.BulkImporter;
+import ru.dulfi.importer.ImportReport;
 import ru.dulfi.exception.ValidationException;
 import ru.dulfi.service.OwnerService;
 import ru.dulfi.service.PetService;
 
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
 
 public class ConsoleApp {
+    private static final int PAGE_SIZE = 20;
+    private static final int MAX_PATH_HOPS = 6;
+    private static final String FRIEND_GRAPH_INDEX_PROPERTY = "pets.friendGraphIndex";
+    private static final String STARTUP_PROBE_PROPERTY = "pets.startupProbe";
+
     private final Scanner scanner;
     private final OwnerService ownerService;
     private final PetService petService;
+    private final BulkImporter bulkImporter;
 
     public ConsoleApp() {
         this.scanner = new Scanner(System.in);
         OwnerDao ownerDao = new OwnerDao();
         PetDao petDao = new PetDao();
         this.ownerService = new OwnerService(ownerDao);
-        this.petService = new PetService(petDao, ownerDao);
+        FriendGraphDao friendGraphDao = new FriendGraphDao();
+        FriendGraph friendGraph = Boolean.getBoolean(FRIEND_GRAPH_INDEX_PROPERTY)
+                ? FriendAdjacencyIndex.load(friendGraphDao::forEachFriendship)
+                : friendGraphDao;
+        this.petService = new PetService(petDao, ownerDao, friendGraph);
+        this.bulkImporter = new BulkImporter(ownerService, petService);
     }
 
     public static void main(String[] args) {
         try {
             DatabaseInitializer.initialize();
-            new ConsoleApp().start();
+            ConsoleApp app = new ConsoleApp();
+            if (Boolean.getBoolean(STARTUP_PROBE_PROPERTY)) {
+                app.probeStartup();
+            } else {
+                app.start();
+            }
         } catch (Exception e) {
             System.err.println("Ошибка: " + e.getMessage());
             e.printStackTrace();
@@ -51,10 +79,17 @@ public class ConsoleApp {
         }
     }
 
+    private void probeStartup() {
+        int rows = petService.getViewPage(null, 1).size();
+        long elapsed = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        System.out.println("time-to-first-query-ms=" + elapsed + " rows=" + rows);
+    }
+
     private void printMainMenu() {
         System.out.println("\n=== Главное меню ===");
         System.out.println("1. Владельцы");
         System.out.println("2. Питомцы");
+        System.out.println("3. Импорт из файла (CSV/JSON)");
         System.out.println("0. Выход");
         System.out.print("Выберите: ");
     }
@@ -67,6 +102,9 @@ public class ConsoleApp {
             case 2:
                 handlePets();
                 return true;
+            case 3:
+                importFile();
+                return true;
             case 0:
                 return false;
             default:
@@ -75,6 +113,36 @@ public class ConsoleApp {
         }
     }
 
+    private void importFile() {
+        System.out.println("\n=== Импорт из файла ===");
+        System.out.println("Колонки: type (owner/pet), ref, name, birth_date, breed, color, owner_ref");
+        System.out.print("Введите путь к файлу (.csv, .json, .jsonl): ");
+        Path file = Path.of(scanner.nextLine().trim());
+        if (!Files.isRegularFile(file)) {
+            System.out.println("Файл не найден");
+            return;
+        }
+
+        try {
+            ImportReport report = bulkImporter.importFile(file, (rows, rejected, rowsPerSecond) ->
+                    System.out.printf("\rОбработано: %d, отклонено: %d, %.0f строк/с", rows, rejected, rowsPerSecond));
+            System.out.println();
+            System.out.printf("Импортировано владельцев: %d, питомцев: %d, отклонено: %d за %.1f с (%.0f строк/с)%n",
+                    report.owners(), report.pets(), report.rejected(),
+                    report.elapsed().toMillis() / 1000.0, report.rowsPerSecond());
+            report.errors().forEach(error -> System.out.println("  " + error));
+            if (report.rejected() > report.errors().size()) {
+                System.out.println("  ... и ещё " + (report.rejected() - report.errors().size()) + " ошибок");
+            }
+        } catch (IOException e) {
+            System.out.println();
+            System.out.println("Ошибка чтения файла: " + e.getMessage());
+        } catch (RuntimeException e) {
+            System.out.println();
+            System.out.println("Импорт остановлен: " + e.getMessage());
+        }
+    }
+
     private void handleOwners() {
         boolean back = false;
         while (!back) {
@@ -150,6 +218,9 @@ public class ConsoleApp {
         System.out.println("6. Добавить друга");
         System.out.println("7. Удалить друга");
         System.out.println("8. Показать друзей");
+        System.out.println("9. Добавить нескольких друзей");
+        System.out.println("10. Рекомендации друзей");
+        System.out.println("11. Цепочка дружбы между питомцами");
         System.out.println("0. Назад");
         System.out.print("Выберите: ");
     }
@@ -181,6 +252,15 @@ public class ConsoleApp {
                 case 8:
                     showFriends();
                     return false;
+                case 9:
+                    addFriends();
+                    return false;
+                case 10:
+                    showFriendSuggestions();
+                    return false;
+                case 11:
+                    showFriendshipPath();
+                    return false;
                 case 0:
                     return true;
                 default:
@@ -215,17 +295,24 @@ public class ConsoleApp {
 
     private void showAllOwners() {
         System.out.println("\n=== Все владельцы ===");
-        List<Owner> owners = ownerService.getAllWithPets();
-        if (owners.isEmpty()) {
-            System.out.println("Владельцев нет");
-        } else {
+        Long lastId = null;
+        while (true) {
+            List<OwnerView> owners = ownerService.getViewPageWithPets(lastId, PAGE_SIZE);
+            if (owners.isEmpty() && lastId == null) {
+                System.out.println("Владельцев нет");
+                return;
+            }
             owners.forEach(owner -> {
                 System.out.println(owner);
-                if (!owner.getPets().isEmpty()) {
+                if (!owner.pets().isEmpty()) {
                     System.out.println("  Питомцы:");
-                    owner.getPets().forEach(pet -> System.out.println("    - " + pet));
+                    owner.pets().forEach(pet -> System.out.println("    - " + pet));
                 }
             });
+            if (owners.size() < PAGE_SIZE || !askNextPage()) {
+                return;
+            }
+            lastId = owners.get(owners.size() - 1).id();
         }
     }
 
@@ -347,19 +434,31 @@ public class ConsoleApp {
 
     private void showAllPets() {
         System.out.println("\n=== Все питомцы ===");
-        List<Pet> pets = petService.getAllWithOwners();
-        if (pets.isEmpty()) {
-            System.out.println("Питомцев нет");
-        } else {
+        Long lastId = null;
+        while (true) {
+            List<PetView> pets = petService.getViewPage(lastId, PAGE_SIZE);
+            if (pets.isEmpty() && lastId == null) {
+                System.out.println("Питомцев нет");
+                return;
+            }
             pets.forEach(pet -> {
                 System.out.println(pet);
-                if (pet.getOwner() != null) {
-                    System.out.println("  Владелец: " + pet.getOwner().getName());
+                if (pet.ownerName() != null) {
+                    System.out.println("  Владелец: " + pet.ownerName());
                 }
             });
+            if (pets.size() < PAGE_SIZE || !askNextPage()) {
+                return;
+            }
+            lastId = pets.get(pets.size() - 1).id();
         }
     }
 
+    private boolean askNextPage() {
+        System.out.print("Enter - следующая страница, 0 - назад: ");
+        return !scanner.nextLine().trim().equals("0");
+    }
+
     private void findPetById() {
         System.out.print("\nВведите ID питомца: ");
         Long id = readLongInput();
@@ -493,6 +592,70 @@ public class ConsoleApp {
         }
     }
 
+    private void addFriends() {
+        System.out.print("\nВведите ID питомца: ");
+        Long petId = readLongInput();
+        if (petId == null) {
+            System.out.println("Неверный формат ID");
+            return;
+        }
+
+        System.out.print("Введите ID друзей через запятую: ");
+        List<Long> friendIds = new ArrayList<>();
+        for (String part : scanner.nextLine().split(",")) {
+            try {
+                friendIds.add(Long.parseLong(part.trim()));
+            } catch (NumberFormatException e) {
+                System.out.println("Неверный формат ID: " + part.trim());
+                return;
+            }
+        }
+
+        try {
+            petService.addFriends(petId, friendIds);
+            System.out.println("Друзья успешно добавлены");
+        } catch (EntityNotFoundException e) {
+            System.out.println("Питомец не найден");
+        } catch (ValidationException e) {
+            System.out.println("Ошибка валидации: " + e.getMessage());
+        }
+    }
+
+    private void showFriendSuggestions() {
+        System.out.print("\nВведите ID питомца: ");
+        Long petId = readLongInput();
+        if (petId == null) {
+            System.out.println("Неверный формат ID");
+            return;
+        }
+
+        List<Pet> suggestions = petService.getFriendSuggestions(petId);
+        if (suggestions.isEmpty()) {
+            System.out.println("Рекомендаций нет");
+        } else {
+            System.out.println("Друзья друзей:");
+            suggestions.forEach(pet -> System.out.println("- " + pet));
+        }
+    }
+
+    private void showFriendshipPath() {
+        System.out.print("\nВведите ID первого питомца: ");
+        Long fromId = readLongInput();
+        System.out.print("Введите ID второго питомца: ");
+        Long toId = readLongInput();
+        if (fromId == null || toId == null) {
+            System.out.println("Неверный формат ID");
+            return;
+        }
+
+        List<Pet> path = petService.getFriendshipPath(fromId, toId, MAX_PATH_HOPS);
+        if (path.isEmpty()) {
+            System.out.println("Питомцы не связаны цепочкой из " + MAX_PATH_HOPS + " или меньше знакомств");
+        } else {
+            path.forEach(pet -> System.out.println("- " + pet));
+        }
+    }
+
     private void removeFriend() {
         System.out.print("\nВведите ID питомца: ");
         Long petId = readLongInput();
@@ -2,13 +2,27 @@ package ru.dulfi.dao;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityTransaction;
-import ru.dulfi.db.EntityManagerUtil;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
+import ru.dulfi.db.UnitOfWork;
 import ru.dulfi.exception.EntityNotFoundException;
 import ru.dulfi.exception.DatabaseException;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public abstract class BaseDao<T> {
+    public static final int BATCH_SIZE = 50;
+
     protected EntityManager entityManager;
     private final Class<T> entityClass;
 
@@ -21,18 +35,22 @@ public abstract class BaseDao<T> {
     }
 
     protected EntityManager getEntityManager() {
-        return entityManager != null ? entityManager : EntityManagerUtil.getEntityManager();
+        return entityManager != null ? entityManager : UnitOfWork.entityManager();
+    }
+
+    protected EntityTransaction getTransaction(EntityManager em) {
+        return entityManager != null ? em.getTransaction() : UnitOfWork.transaction(em);
     }
 
     protected void closeEntityManager(EntityManager em) {
-        if (entityManager == null && em != null) {
-            em.close();
+        if (entityManager == null) {
+            UnitOfWork.release(em);
         }
     }
 
     public T save(T entity) {
         EntityManager em = getEntityManager();
-        EntityTransaction tx = em.getTransaction();
+        EntityTransaction tx = getTransaction(em);
         try {
             tx.begin();
             T mergedEntity = em.merge(entity);
@@ -48,9 +66,59 @@ public abstract class BaseDao<T> {
         }
     }
 
+    public List<T> saveAll(Collection<T> entities) {
+        EntityManager em = getEntityManager();
+        EntityTransaction tx = getTransaction(em);
+        try {
+            tx.begin();
+            int count = 0;
+            for (T entity : entities) {
+                em.persist(entity);
+                if (++count % BATCH_SIZE == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+            tx.commit();
+            return new ArrayList<>(entities);
+        } catch (Exception e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            throw new DatabaseException("Ошибка при пакетном сохранении сущностей", e);
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    public List<T> updateAll(Collection<T> entities) {
+        EntityManager em = getEntityManager();
+        EntityTransaction tx = getTransaction(em);
+        try {
+            tx.begin();
+            List<T> mergedEntities = new ArrayList<>(entities.size());
+            for (T entity : entities) {
+                mergedEntities.add(em.merge(entity));
+                if (mergedEntities.size() % BATCH_SIZE == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+            tx.commit();
+            return mergedEntities;
+        } catch (Exception e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            throw new DatabaseException("Ошибка при пакетном обновлении сущностей", e);
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
     public void deleteById(Long id) {
         EntityManager em = getEntityManager();
-        EntityTransaction tx = em.getTransaction();
+        EntityTransaction tx = getTransaction(em);
         try {
             tx.begin();
             T entity = em.find(entityClass, id);
@@ -74,7 +142,7 @@ public abstract class BaseDao<T> {
 
     public void deleteByEntity(T entity) {
         EntityManager em = getEntityManager();
-        EntityTransaction tx = em.getTransaction();
+        EntityTransaction tx = getTransaction(em);
         try {
             tx.begin();
             T mergedEntity = em.merge(entity);
@@ -92,7 +160,7 @@ public abstract class BaseDao<T> {
 
     public void deleteAll() {
         EntityManager em = getEntityManager();
-        EntityTransaction tx = em.getTransaction();
+        EntityTransaction tx = getTransaction(em);
         try {
             tx.begin();
             em.createQuery("DELETE FROM " + entityClass.getSimpleName()).executeUpdate();
@@ -109,7 +177,7 @@ public abstract class BaseDao<T> {
 
     public T update(T entity) {
         EntityManager em = getEntityManager();
-        EntityTransaction tx = em.getTransaction();
+        EntityTransaction tx = getTransaction(em);
         try {
             tx.begin();
             T mergedEntity = em.merge(entity);
@@ -144,7 +212,83 @@ public abstract class BaseDao<T> {
         }
     }
 
+    public List<T> getPage(Long afterId, int limit) {
+        EntityManager em = getEntityManager();
+        try {
+            return em.createQuery("SELECT e FROM " + entityClass.getSimpleName() + " e WHERE e.id > :lastId ORDER BY e.id", entityClass)
+                    .setParameter("lastId", afterId == null ? 0L : afterId)
+                    .setMaxResults(limit)
+                    .getResultList();
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    protected <R> TypedQuery<R> readOnlyQuery(EntityManager em, String jpql, Class<R> resultClass) {
+        return em.createQuery(jpql, resultClass).setHint(HibernateHints.HINT_READ_ONLY, true);
+    }
+
+    public Stream<T> streamAll() {
+        return stream("SELECT e FROM " + entityClass.getSimpleName() + " e ORDER BY e.id");
+    }
+
+    protected Stream<T> stream(String jpql) {
+        EntityManager em = getEntityManager();
+        EntityTransaction tx = getTransaction(em);
+        try {
+            tx.begin();
+            Session session = em.unwrap(Session.class);
+            session.setDefaultReadOnly(true);
+            ScrollableResults<T> results = session.createSelectionQuery(jpql, entityClass)
+                    .setReadOnly(true)
+                    .setFetchSize(BATCH_SIZE)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+            return StreamSupport.stream(new ScrollSpliterator<>(session, results), false)
+                    .onClose(() -> {
+                        try {
+                            results.close();
+                            session.setDefaultReadOnly(false);
+                            if (tx.isActive()) {
+                                tx.commit();
+                            }
+                        } finally {
+                            closeEntityManager(em);
+                        }
+                    });
+        } catch (Exception e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            closeEntityManager(em);
+            throw new DatabaseException("Ошибка при чтении сущностей", e);
+        }
+    }
+
     public List<T> getAllWithPets() {
         throw new UnsupportedOperationException("Not implemented");
     }
-}
\ No newline at end of file
+
+    private static class ScrollSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+        private final Session session;
+        private final ScrollableResults<T> results;
+        private int count;
+
+        ScrollSpliterator(Session session, ScrollableResults<T> results) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.session = session;
+            this.results = results;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (!results.next()) {
+                return false;
+            }
+            action.accept(results.get());
+            if (++count % BATCH_SIZE == 0) {
+                session.clear();
+            }
+            return true;
+        }
+    }
+}
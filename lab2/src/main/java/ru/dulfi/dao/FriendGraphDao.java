@@ -0,0 +1,179 @@
+package ru.dulfi.dao;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityTransaction;
+import org.hibernate.Session;
+import org.hibernate.jdbc.ReturningWork;
+import ru.dulfi.db.UnitOfWork;
+import ru.dulfi.exception.DatabaseException;
+import ru.dulfi.graph.FriendGraph;
+import ru.dulfi.graph.FriendshipConsumer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class FriendGraphDao implements FriendGraph {
+    private static final int FETCH_SIZE = 10_000;
+
+    private static final String NEIGHBOURS_SQL = """
+            WITH RECURSIVE reach(id, depth) AS (
+                SELECT friend_id, 1 FROM pet_friends WHERE pet_id = ?1
+                UNION
+                SELECT f.friend_id, r.depth + 1
+                FROM reach r JOIN pet_friends f ON f.pet_id = r.id
+                WHERE r.depth < ?2
+            )
+            SELECT id FROM reach WHERE id <> ?1 GROUP BY id ORDER BY MIN(depth), id
+            """;
+
+    private static final String MUTUAL_FRIENDS_SQL = """
+            SELECT a.friend_id
+            FROM pet_friends a JOIN pet_friends b ON b.friend_id = a.friend_id
+            WHERE a.pet_id = ?1 AND b.pet_id = ?2
+            ORDER BY a.friend_id
+            """;
+
+    private static final String FRONTIER_FRIENDS_SQL =
+            "SELECT pet_id, friend_id FROM pet_friends WHERE pet_id = ANY(?)";
+
+    private EntityManager entityManager;
+
+    public void setEntityManager(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public long[] neighbours(long petId, int hops) {
+        if (hops <= 0) {
+            return new long[0];
+        }
+        return queryIds(NEIGHBOURS_SQL, petId, hops);
+    }
+
+    @Override
+    public long[] mutualFriends(long petId, long otherPetId) {
+        return queryIds(MUTUAL_FRIENDS_SQL, petId, otherPetId);
+    }
+
+    @Override
+    public long[] shortestPath(long fromPetId, long toPetId, int maxHops) {
+        if (fromPetId == toPetId) {
+            return new long[]{fromPetId};
+        }
+        if (maxHops <= 0) {
+            return new long[0];
+        }
+        return readInTransaction("Ошибка при обходе графа дружбы",
+                connection -> breadthFirstPath(connection, fromPetId, toPetId, maxHops));
+    }
+
+    public void forEachFriendship(FriendshipConsumer consumer) {
+        readInTransaction("Ошибка при чтении графа дружбы", connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT pet_id, friend_id FROM pet_friends WHERE pet_id < friend_id")) {
+                statement.setFetchSize(FETCH_SIZE);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        consumer.accept(resultSet.getLong(1), resultSet.getLong(2));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    static long[] breadthFirstPath(Connection connection, long fromPetId, long toPetId, int maxHops)
+            throws SQLException {
+        Map<Long, Long> parents = new HashMap<>();
+        parents.put(fromPetId, fromPetId);
+        List<Long> frontier = List.of(fromPetId);
+        try (PreparedStatement statement = connection.prepareStatement(FRONTIER_FRIENDS_SQL)) {
+            statement.setFetchSize(FETCH_SIZE);
+            for (int depth = 0; depth < maxHops && !frontier.isEmpty(); depth++) {
+                List<Long> next = new ArrayList<>();
+                statement.setArray(1, connection.createArrayOf("bigint", frontier.toArray()));
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        long friendId = resultSet.getLong(2);
+                        if (parents.putIfAbsent(friendId, resultSet.getLong(1)) != null) {
+                            continue;
+                        }
+                        if (friendId == toPetId) {
+                            return pathTo(parents, fromPetId, toPetId);
+                        }
+                        next.add(friendId);
+                    }
+                }
+                frontier = next;
+            }
+        }
+        return new long[0];
+    }
+
+    private static long[] pathTo(Map<Long, Long> parents, long fromPetId, long toPetId) {
+        List<Long> steps = new ArrayList<>();
+        for (long id = toPetId; id != fromPetId; id = parents.get(id)) {
+            steps.add(id);
+        }
+        steps.add(fromPetId);
+        long[] path = new long[steps.size()];
+        for (int i = 0; i < path.length; i++) {
+            path[i] = steps.get(path.length - 1 - i);
+        }
+        return path;
+    }
+
+    private <T> T readInTransaction(String errorMessage, ReturningWork<T> work) {
+        EntityManager em = getEntityManager();
+        EntityTransaction tx = entityManager != null ? em.getTransaction() : UnitOfWork.transaction(em);
+        try {
+            tx.begin();
+            T result = em.unwrap(Session.class).doReturningWork(work);
+            tx.commit();
+            return result;
+        } catch (Exception e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            throw new DatabaseException(errorMessage, e);
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    private long[] queryIds(String sql, Object... parameters) {
+        EntityManager em = getEntityManager();
+        try {
+            var query = em.createNativeQuery(sql);
+            for (int i = 0; i < parameters.length; i++) {
+                query.setParameter(i + 1, parameters[i]);
+            }
+            List<?> rows = query.getResultList();
+            long[] ids = new long[rows.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = ((Number) rows.get(i)).longValue();
+            }
+            return ids;
+        } catch (Exception e) {
+            throw new DatabaseException("Ошибка при обходе графа дружбы", e);
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    private EntityManager getEntityManager() {
+        return entityManager != null ? entityManager : UnitOfWork.entityManager();
+    }
+
+    private void closeEntityManager(EntityManager em) {
+        if (entityManager == null) {
+            UnitOfWork.release(em);
+        }
+    }
+}
@@ -3,12 +3,21 @@ package ru.dulfi.dao;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityTransaction;
 import ru.dulfi.domain.Owner;
+import ru.dulfi.domain.PetColor;
+import ru.dulfi.dto.OwnerView;
+import ru.dulfi.dto.PetView;
 import ru.dulfi.exception.EntityNotFoundException;
 import ru.dulfi.exception.DatabaseException;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 public class OwnerDao extends BaseDao<Owner> {
+    private static final String OWNER_VIEW_SELECT =
+            "SELECT o.id, o.name, o.birthDate, p.id, p.name, p.birthDate, p.breed, p.color "
+                    + "FROM Owner o LEFT JOIN o.pets p ";
+
     public OwnerDao() {
         super(Owner.class);
     }
@@ -16,7 +25,7 @@ public class OwnerDao extends BaseDao<Owner> {
     @Override
     public void deleteById(Long id) {
         EntityManager em = getEntityManager();
-        EntityTransaction tx = em.getTransaction();
+        EntityTransaction tx = getTransaction(em);
         try {
             tx.begin();
             Owner owner = em.find(Owner.class, id);
@@ -53,4 +62,70 @@ public class OwnerDao extends BaseDao<Owner> {
             closeEntityManager(em);
         }
     }
-} 
\ No newline at end of file
+
+    public List<Owner> getPageWithPets(Long afterId, int limit) {
+        EntityManager em = getEntityManager();
+        try {
+            List<Long> ids = em.createQuery("SELECT o.id FROM Owner o WHERE o.id > :lastId ORDER BY o.id", Long.class)
+                    .setParameter("lastId", afterId == null ? 0L : afterId)
+                    .setMaxResults(limit)
+                    .getResultList();
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            return em.createQuery(
+                "SELECT DISTINCT o FROM Owner o LEFT JOIN FETCH o.pets WHERE o.id IN :ids ORDER BY o.id",
+                Owner.class
+            ).setParameter("ids", ids).getResultList();
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    public List<OwnerView> getAllViewsWithPets() {
+        EntityManager em = getEntityManager();
+        try {
+            return toOwnerViews(readOnlyQuery(em, OWNER_VIEW_SELECT + "ORDER BY o.id, p.id", Object[].class)
+                    .getResultList());
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    public List<OwnerView> getViewPageWithPets(Long afterId, int limit) {
+        EntityManager em = getEntityManager();
+        try {
+            List<Long> ids = readOnlyQuery(em, "SELECT o.id FROM Owner o WHERE o.id > :lastId ORDER BY o.id", Long.class)
+                    .setParameter("lastId", afterId == null ? 0L : afterId)
+                    .setMaxResults(limit)
+                    .getResultList();
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            return toOwnerViews(readOnlyQuery(em,
+                    OWNER_VIEW_SELECT + "WHERE o.id >= :firstId AND o.id <= :lastId ORDER BY o.id, p.id", Object[].class)
+                    .setParameter("firstId", ids.get(0))
+                    .setParameter("lastId", ids.get(ids.size() - 1))
+                    .getResultList());
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    private static List<OwnerView> toOwnerViews(List<Object[]> rows) {
+        List<OwnerView> owners = new ArrayList<>();
+        OwnerView current = null;
+        for (Object[] row : rows) {
+            Long ownerId = (Long) row[0];
+            if (current == null || !current.id().equals(ownerId)) {
+                current = new OwnerView(ownerId, (String) row[1], (LocalDate) row[2], new ArrayList<>());
+                owners.add(current);
+            }
+            if (row[3] != null) {
+                current.pets().add(new PetView((Long) row[3], (String) row[4], (LocalDate) row[5],
+                        (String) row[6], (PetColor) row[7], ownerId, current.name()));
+            }
+        }
+        return owners;
+    }
+}
@@ -2,36 +2,55 @@ package ru.dulfi.dao;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityTransaction;
-import ru.dulfi.db.EntityManagerUtil;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
 import ru.dulfi.domain.Pet;
+import ru.dulfi.dto.PetView;
+import ru.dulfi.exception.DatabaseException;
 import ru.dulfi.exception.EntityNotFoundException;
 import ru.dulfi.exception.ValidationException;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public class PetDao extends BaseDao<Pet> {
+    private static final int ID_CHUNK_SIZE = 1_000;
+    private static final String PET_VIEW_SELECT =
+            "SELECT new ru.dulfi.dto.PetView(p.id, p.name, p.birthDate, p.breed, p.color, o.id, o.name) "
+                    + "FROM Pet p LEFT JOIN p.owner o ";
+
     public PetDao() {
         super(Pet.class);
     }
 
     @Override
     public List<Pet> getAll() {
-        EntityManager em = EntityManagerUtil.getEntityManager();
+        EntityManager em = getEntityManager();
         try {
             return em.createQuery("SELECT p FROM Pet p ORDER BY p.id", Pet.class)
                     .getResultList();
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
     @Override
     public void deleteAll() {
-        EntityManager em = EntityManagerUtil.getEntityManager();
-        EntityTransaction tx = em.getTransaction();
+        EntityManager em = getEntityManager();
+        EntityTransaction tx = getTransaction(em);
         try {
             tx.begin();
-            em.createNativeQuery("DELETE FROM pet_friends").executeUpdate();
+            friendsQuery(em, "DELETE FROM pet_friends").executeUpdate();
             em.createQuery("DELETE FROM Pet").executeUpdate();
             tx.commit();
         } catch (Exception e) {
@@ -40,7 +59,36 @@ public class PetDao extends BaseDao<Pet> {
             }
             throw new RuntimeException("Ошибка при удалении всех питомцев", e);
         } finally {
-            em.close();
+            closeEntityManager(em);
+        }
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        EntityManager em = getEntityManager();
+        EntityTransaction tx = getTransaction(em);
+        try {
+            tx.begin();
+            friendsQuery(em, "DELETE FROM pet_friends WHERE pet_id = ?1 OR friend_id = ?1")
+                    .setParameter(1, id)
+                    .executeUpdate();
+            int deleted = em.createQuery("DELETE FROM Pet p WHERE p.id = :id")
+                    .setParameter("id", id)
+                    .executeUpdate();
+            if (deleted == 0) {
+                throw new EntityNotFoundException("Питомец с id " + id + " не найден");
+            }
+            tx.commit();
+        } catch (Exception e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            if (e instanceof EntityNotFoundException) {
+                throw e;
+            }
+            throw new DatabaseException("Ошибка при удалении питомца", e);
+        } finally {
+            closeEntityManager(em);
         }
     }
 
@@ -49,70 +97,85 @@ public class PetDao extends BaseDao<Pet> {
         if (pet == null || pet.getId() == null) {
             throw new ValidationException("Питомец или его ID не могут быть null");
         }
+        deleteById(pet.getId());
+    }
 
-        EntityManager em = EntityManagerUtil.getEntityManager();
-        EntityTransaction tx = em.getTransaction();
+    public void addFriend(Long petId, Long friendId) {
+        if (petId.equals(friendId)) {
+            throw new ValidationException("Питомец не может дружить сам с собой");
+        }
+
+        EntityManager em = getEntityManager();
+        EntityTransaction tx = getTransaction(em);
         try {
             tx.begin();
-            Pet managedPet = em.find(Pet.class, pet.getId());
-            if (managedPet == null) {
-                throw new EntityNotFoundException("Питомец с id " + pet.getId() + " не найден");
-            }
-            em.createNativeQuery("DELETE FROM pet_friends WHERE pet_id = ? OR friend_id = ?")
-                    .setParameter(1, pet.getId())
-                    .setParameter(2, pet.getId())
+            requirePets(em, petId, friendId);
+            int inserted = friendsQuery(em, "INSERT INTO pet_friends (pet_id, friend_id) VALUES (?1, ?2), (?2, ?1) ON CONFLICT DO NOTHING")
+                    .setParameter(1, petId)
+                    .setParameter(2, friendId)
                     .executeUpdate();
-            em.remove(managedPet);
+            if (inserted == 0) {
+                throw new ValidationException("Питомцы уже дружат");
+            }
             tx.commit();
         } catch (Exception e) {
             if (tx.isActive()) {
                 tx.rollback();
             }
-            if (e instanceof EntityNotFoundException) {
+            if (e instanceof EntityNotFoundException || e instanceof ValidationException) {
                 throw e;
             }
-            throw new RuntimeException("Ошибка при удалении питомца", e);
+            throw new DatabaseException("Ошибка при добавлении друга", e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
-    public void addFriend(Long petId, Long friendId) {
-        if (petId.equals(friendId)) {
+    public void addFriends(Long petId, Collection<Long> friendIds) {
+        Set<Long> ids = new LinkedHashSet<>(friendIds);
+        if (ids.contains(petId)) {
             throw new ValidationException("Питомец не может дружить сам с собой");
         }
+        if (ids.isEmpty()) {
+            return;
+        }
 
-        EntityManager em = EntityManagerUtil.getEntityManager();
-        EntityTransaction tx = em.getTransaction();
+        EntityManager em = getEntityManager();
+        EntityTransaction tx = getTransaction(em);
         try {
             tx.begin();
-            Pet pet = em.find(Pet.class, petId);
-            Pet friend = em.find(Pet.class, friendId);
-
-            if (pet == null) {
+            Set<Long> candidates = new LinkedHashSet<>(ids);
+            candidates.add(petId);
+            Set<Long> existing = existingIds(em, candidates);
+            if (!existing.contains(petId)) {
                 throw new EntityNotFoundException("Питомец с id " + petId + " не найден");
             }
-            if (friend == null) {
-                throw new EntityNotFoundException("Питомец-друг с id " + friendId + " не найден");
-            }
-
-            if (pet.getFriends().contains(friend)) {
-                throw new ValidationException("Питомцы уже дружат");
+            ids.removeAll(existing);
+            if (!ids.isEmpty()) {
+                throw new EntityNotFoundException("Питомцы-друзья с id " + ids + " не найдены");
             }
-
-            pet.getFriends().add(friend);
-            friend.getFriends().add(pet);
+            existing.remove(petId);
+            friendsQuery(em, """
+                    INSERT INTO pet_friends (pet_id, friend_id)
+                    SELECT ?1, f FROM unnest(CAST(?2 AS bigint[])) AS f
+                    UNION ALL
+                    SELECT f, ?1 FROM unnest(CAST(?2 AS bigint[])) AS f
+                    ON CONFLICT DO NOTHING
+                    """)
+                    .setParameter(1, petId)
+                    .setParameter(2, existing.toArray(Long[]::new))
+                    .executeUpdate();
             tx.commit();
         } catch (Exception e) {
             if (tx.isActive()) {
                 tx.rollback();
             }
-            if (e instanceof EntityNotFoundException || e instanceof ValidationException) {
+            if (e instanceof EntityNotFoundException) {
                 throw e;
             }
-            throw new RuntimeException("Ошибка при добавлении друга", e);
+            throw new DatabaseException("Ошибка при добавлении друзей", e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -121,26 +184,18 @@ public class PetDao extends BaseDao<Pet> {
             throw new ValidationException("Питомец не может удалить себя из друзей");
         }
 
-        EntityManager em = EntityManagerUtil.getEntityManager();
-        EntityTransaction tx = em.getTransaction();
+        EntityManager em = getEntityManager();
+        EntityTransaction tx = getTransaction(em);
         try {
             tx.begin();
-            Pet pet = em.find(Pet.class, petId);
-            Pet friend = em.find(Pet.class, friendId);
-
-            if (pet == null) {
-                throw new EntityNotFoundException("Питомец с id " + petId + " не найден");
-            }
-            if (friend == null) {
-                throw new EntityNotFoundException("Питомец-друг с id " + friendId + " не найден");
-            }
-
-            if (!pet.getFriends().contains(friend)) {
+            requirePets(em, petId, friendId);
+            int deleted = friendsQuery(em, "DELETE FROM pet_friends WHERE (pet_id = ?1 AND friend_id = ?2) OR (pet_id = ?2 AND friend_id = ?1)")
+                    .setParameter(1, petId)
+                    .setParameter(2, friendId)
+                    .executeUpdate();
+            if (deleted == 0) {
                 throw new ValidationException("Питомцы не дружат");
             }
-
-            pet.getFriends().remove(friend);
-            friend.getFriends().remove(pet);
             tx.commit();
         } catch (Exception e) {
             if (tx.isActive()) {
@@ -149,14 +204,14 @@ public class PetDao extends BaseDao<Pet> {
             if (e instanceof EntityNotFoundException || e instanceof ValidationException) {
                 throw e;
             }
-            throw new RuntimeException("Ошибка при удалении друга", e);
+            throw new DatabaseException("Ошибка при удалении друга", e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
     public List<Pet> getFriends(Long petId) {
-        EntityManager em = EntityManagerUtil.getEntityManager();
+        EntityManager em = getEntityManager();
         try {
             Pet pet = em.find(Pet.class, petId);
             if (pet == null) {
@@ -165,22 +220,111 @@ public class PetDao extends BaseDao<Pet> {
 
             return em.createQuery("SELECT DISTINCT f FROM Pet p JOIN p.friends f LEFT JOIN FETCH f.owner WHERE p.id = :petId ORDER BY f.id", Pet.class)
                     .setParameter("petId", petId)
+                    .setHint(HibernateHints.HINT_CACHEABLE, true)
                     .getResultList();
         } catch (EntityNotFoundException e) {
             throw e;
         } catch (Exception e) {
             throw new RuntimeException("Ошибка при получении списка друзей", e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
     public List<Pet> getAllWithOwners() {
-        try (EntityManager em = EntityManagerUtil.getEntityManager()) {
+        EntityManager em = getEntityManager();
+        try {
             return em.createQuery("SELECT DISTINCT p FROM Pet p LEFT JOIN FETCH p.owner ORDER BY p.id", Pet.class)
                     .getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Ошибка при получении списка питомцев с владельцами", e);
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    public List<Pet> getPageWithOwners(Long afterId, int limit) {
+        EntityManager em = getEntityManager();
+        try {
+            return em.createQuery("SELECT p FROM Pet p LEFT JOIN FETCH p.owner WHERE p.id > :lastId ORDER BY p.id", Pet.class)
+                    .setParameter("lastId", afterId == null ? 0L : afterId)
+                    .setMaxResults(limit)
+                    .getResultList();
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    public List<PetView> getAllViews() {
+        EntityManager em = getEntityManager();
+        try {
+            return readOnlyQuery(em, PET_VIEW_SELECT + "ORDER BY p.id", PetView.class).getResultList();
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    public List<PetView> getViewPage(Long afterId, int limit) {
+        EntityManager em = getEntityManager();
+        try {
+            return readOnlyQuery(em, PET_VIEW_SELECT + "WHERE p.id > :lastId ORDER BY p.id", PetView.class)
+                    .setParameter("lastId", afterId == null ? 0L : afterId)
+                    .setMaxResults(limit)
+                    .getResultList();
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    public List<Pet> getByIds(long[] ids) {
+        if (ids.length == 0) {
+            return List.of();
+        }
+        EntityManager em = getEntityManager();
+        try {
+            TypedQuery<Pet> query = em.createQuery("SELECT p FROM Pet p LEFT JOIN FETCH p.owner WHERE p.id IN :ids", Pet.class);
+            Map<Long, Pet> pets = new HashMap<>();
+            for (int from = 0; from < ids.length; from += ID_CHUNK_SIZE) {
+                List<Long> chunk = Arrays.stream(ids, from, Math.min(ids.length, from + ID_CHUNK_SIZE)).boxed().toList();
+                query.setParameter("ids", chunk).getResultList().forEach(pet -> pets.put(pet.getId(), pet));
+            }
+            return Arrays.stream(ids)
+                    .mapToObj(pets::get)
+                    .filter(Objects::nonNull)
+                    .toList();
+        } finally {
+            closeEntityManager(em);
         }
     }
-} 
\ No newline at end of file
+
+    public Stream<Pet> streamAllWithOwners() {
+        return stream("SELECT p FROM Pet p LEFT JOIN FETCH p.owner ORDER BY p.id");
+    }
+
+    private void requirePets(EntityManager em, Long petId, Long friendId) {
+        Set<Long> existing = existingIds(em, List.of(petId, friendId));
+        if (!existing.contains(petId)) {
+            throw new EntityNotFoundException("Питомец с id " + petId + " не найден");
+        }
+        if (!existing.contains(friendId)) {
+            throw new EntityNotFoundException("Питомец-друг с id " + friendId + " не найден");
+        }
+    }
+
+    private Set<Long> existingIds(EntityManager em, Collection<Long> ids) {
+        TypedQuery<Long> query = em.createQuery("SELECT p.id FROM Pet p WHERE p.id IN :ids", Long.class);
+        List<Long> idList = List.copyOf(ids);
+        Set<Long> existing = new HashSet<>();
+        for (int from = 0; from < idList.size(); from += ID_CHUNK_SIZE) {
+            existing.addAll(query.setParameter("ids", idList.subList(from, Math.min(idList.size(), from + ID_CHUNK_SIZE)))
+                    .getResultList());
+        }
+        return existing;
+    }
+
+    private Query friendsQuery(EntityManager em, String sql) {
+        return em.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("pet_friends");
+    }
+}
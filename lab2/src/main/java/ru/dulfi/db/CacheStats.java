@@ -0,0 +1,22 @@
+package ru.dulfi.db;
+
+import org.hibernate.stat.Statistics;
+
+public record CacheStats(long secondLevelHits, long secondLevelMisses, long secondLevelPuts,
+                         long queryHits, long queryMisses, long queryPuts) {
+    public static CacheStats of(Statistics statistics) {
+        return new CacheStats(statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount(),
+                statistics.getSecondLevelCachePutCount(), statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(), statistics.getQueryCachePutCount());
+    }
+
+    public double secondLevelHitRatio() {
+        long lookups = secondLevelHits + secondLevelMisses;
+        return lookups == 0 ? 0 : (double) secondLevelHits / lookups;
+    }
+
+    public double queryHitRatio() {
+        long lookups = queryHits + queryMisses;
+        return lookups == 0 ? 0 : (double) queryHits / lookups;
+    }
+}
@@ -0,0 +1,102 @@
+package ru.dulfi.db;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+public class ConnectionPool {
+    public static final String POOL_NAME = "pet-management";
+
+    private static final int DEFAULT_MAXIMUM_POOL_SIZE = 10;
+    private static final int DEFAULT_MINIMUM_IDLE = 2;
+    private static final long DEFAULT_CONNECTION_TIMEOUT_MS = 5_000;
+    private static final long DEFAULT_IDLE_TIMEOUT_MS = 600_000;
+    private static final long DEFAULT_MAX_LIFETIME_MS = 1_800_000;
+
+    private static final PoolMetrics metrics = new PoolMetrics();
+    private static HikariDataSource dataSource;
+    private static boolean closed;
+
+    public static synchronized DataSource getDataSource() {
+        if (closed) {
+            throw new IllegalStateException("Пул соединений закрыт");
+        }
+        if (dataSource == null) {
+            dataSource = new HikariDataSource(createConfig(loadProperties()));
+        }
+        return dataSource;
+    }
+
+    public static PoolMetrics getMetrics() {
+        return metrics;
+    }
+
+    public static synchronized ConnectionPoolStats getStats() {
+        if (dataSource == null) {
+            return new ConnectionPoolStats(0, 0, 0, 0);
+        }
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        return new ConnectionPoolStats(pool.getActiveConnections(), pool.getIdleConnections(),
+                pool.getTotalConnections(), pool.getThreadsAwaitingConnection());
+    }
+
+    public static synchronized void close() {
+        closed = true;
+        if (dataSource != null) {
+            dataSource.close();
+            dataSource = null;
+        }
+    }
+
+    static HikariConfig createConfig(Properties properties) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(POOL_NAME);
+        config.setJdbcUrl(property(properties, "db.url", null));
+        config.setUsername(property(properties, "db.username", null));
+        config.setPassword(property(properties, "db.password", ""));
+        config.setDriverClassName("org.postgresql.Driver");
+        config.setMaximumPoolSize(intProperty(properties, "db.pool.maximumPoolSize", DEFAULT_MAXIMUM_POOL_SIZE));
+        config.setMinimumIdle(intProperty(properties, "db.pool.minimumIdle", DEFAULT_MINIMUM_IDLE));
+        config.setConnectionTimeout(longProperty(properties, "db.pool.connectionTimeoutMs", DEFAULT_CONNECTION_TIMEOUT_MS));
+        config.setIdleTimeout(longProperty(properties, "db.pool.idleTimeoutMs", DEFAULT_IDLE_TIMEOUT_MS));
+        config.setMaxLifetime(longProperty(properties, "db.pool.maxLifetimeMs", DEFAULT_MAX_LIFETIME_MS));
+        config.addDataSourceProperty("reWriteBatchedInserts",
+                Boolean.parseBoolean(property(properties, "db.pool.reWriteBatchedInserts", "true")));
+        config.setAutoCommit(false);
+        config.setRegisterMbeans(true);
+        config.setMetricsTrackerFactory(metrics);
+        return config;
+    }
+
+    static Properties loadProperties() {
+        Properties properties = new Properties();
+        try (InputStream input = ConnectionPool.class.getClassLoader().getResourceAsStream("database.properties")) {
+            if (input == null) {
+                throw new RuntimeException("Не удалось найти файл database.properties");
+            }
+            properties.load(input);
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка загрузки конфигурации базы данных", e);
+        }
+        return properties;
+    }
+
+    private static String property(Properties properties, String key, String defaultValue) {
+        return System.getProperty(key, properties.getProperty(key, defaultValue));
+    }
+
+    private static int intProperty(Properties properties, String key, int defaultValue) {
+        String value = property(properties, key, null);
+        return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private static long longProperty(Properties properties, String key, long defaultValue) {
+        String value = property(properties, key, null);
+        return value == null || value.isBlank() ? defaultValue : Long.parseLong(value.trim());
+    }
+}
@@ -0,0 +1,4 @@
+package ru.dulfi.db;
+
+public record ConnectionPoolStats(int active, int idle, int total, int threadsAwaiting) {
+}
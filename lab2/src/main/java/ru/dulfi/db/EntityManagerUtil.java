@@ -3,13 +3,21 @@ package ru.dulfi.db;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.Persistence;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.CacheRegionStatistics;
+
+import java.util.Map;
 
 public class EntityManagerUtil {
     private static final EntityManagerFactory entityManagerFactory;
 
     static {
         try {
-            entityManagerFactory = Persistence.createEntityManagerFactory("default");
+            entityManagerFactory = Persistence.createEntityManagerFactory("default", Map.of(
+                    AvailableSettings.JAKARTA_NON_JTA_DATASOURCE, ConnectionPool.getDataSource(),
+                    AvailableSettings.CONNECTION_PROVIDER_DISABLES_AUTOCOMMIT, true
+            ));
         } catch (Exception e) {
             throw new RuntimeException("Не удалось создать EntityManagerFactory", e);
         }
@@ -19,9 +27,23 @@ public class EntityManagerUtil {
         return entityManagerFactory.createEntityManager();
     }
 
+    public static CacheStats getCacheStats() {
+        return CacheStats.of(entityManagerFactory.unwrap(SessionFactory.class).getStatistics());
+    }
+
+    public static CacheRegionStatistics getCacheRegionStats(String regionName) {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics().getDomainDataRegionStatistics(regionName);
+    }
+
+    public static void clearCache() {
+        entityManagerFactory.getCache().evictAll();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+    }
+
     public static void close() {
         if (entityManagerFactory != null) {
             entityManagerFactory.close();
         }
+        ConnectionPool.close();
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,27 @@
+package ru.dulfi.db;
+
+import ru.dulfi.exception.DatabaseException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+public record Migration(int version, String description, String script) {
+    public String load() {
+        try (InputStream input = Migration.class.getClassLoader().getResourceAsStream(script)) {
+            if (input == null) {
+                throw new DatabaseException("Не найден скрипт миграции " + script);
+            }
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new DatabaseException("Ошибка чтения скрипта миграции " + script, e);
+        }
+    }
+
+    public static long checksum(String sql) {
+        CRC32 crc = new CRC32();
+        crc.update(sql.replace("\r\n", "\n").strip().getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,80 @@
+package ru.dulfi.db;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class PoolMetrics implements MetricsTrackerFactory {
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final AtomicLong maxAcquireNanos = new AtomicLong();
+    private final LongAdder usages = new LongAdder();
+    private final LongAdder usageMillis = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+                created.increment();
+            }
+
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquisitions.increment();
+                acquireNanos.add(elapsedAcquiredNanos);
+                maxAcquireNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                usages.increment();
+                usageMillis.add(elapsedBorrowedMillis);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+
+    public long getAcquisitions() {
+        return acquisitions.sum();
+    }
+
+    public double getAverageAcquireMicros() {
+        long count = acquisitions.sum();
+        return count == 0 ? 0 : acquireNanos.sum() / (double) count / TimeUnit.MICROSECONDS.toNanos(1);
+    }
+
+    public double getMaxAcquireMicros() {
+        return maxAcquireNanos.get() / (double) TimeUnit.MICROSECONDS.toNanos(1);
+    }
+
+    public double getAverageUsageMillis() {
+        long count = usages.sum();
+        return count == 0 ? 0 : usageMillis.sum() / (double) count;
+    }
+
+    public long getConnectionsCreated() {
+        return created.sum();
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("получений: %d (в среднем %.1f мкс, max %.1f мкс), удержание %.1f мс, создано: %d, таймаутов: %d",
+                getAcquisitions(), getAverageAcquireMicros(), getMaxAcquireMicros(), getAverageUsageMillis(),
+                getConnectionsCreated(), getTimeouts());
+    }
+}
@@ -0,0 +1,128 @@
+package ru.dulfi.db;
+
+import ru.dulfi.exception.DatabaseException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SchemaMigrator {
+    public static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "baseline", "db/migration/V1__baseline.sql"),
+            new Migration(2, "foreign key and search indexes", "db/migration/V2__foreign_key_and_search_indexes.sql")
+    );
+
+    private static final long LOCK_KEY = 0x5045_5453_4d49_4752L;
+
+    private final DataSource dataSource;
+    private final List<Migration> migrations;
+
+    public SchemaMigrator(DataSource dataSource) {
+        this(dataSource, MIGRATIONS);
+    }
+
+    SchemaMigrator(DataSource dataSource, List<Migration> migrations) {
+        for (int i = 0; i < migrations.size(); i++) {
+            if (migrations.get(i).version() != i + 1) {
+                throw new IllegalArgumentException("Версии миграций должны идти подряд с 1, найдена V" + migrations.get(i).version());
+            }
+        }
+        this.dataSource = dataSource;
+        this.migrations = migrations;
+    }
+
+    public int migrate() {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                int applied = migrate(connection);
+                connection.commit();
+                return applied;
+            } catch (Exception e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("Ошибка при миграции схемы", e);
+        }
+    }
+
+    public int currentVersion() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            createVersionTable(statement);
+            try (ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+                resultSet.next();
+                return resultSet.getInt(1);
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("Ошибка при чтении версии схемы", e);
+        }
+    }
+
+    private int migrate(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SELECT pg_advisory_xact_lock(" + LOCK_KEY + ")");
+            createVersionTable(statement);
+        }
+        Map<Integer, Long> checksums = appliedChecksums(connection);
+        int applied = 0;
+        for (Migration migration : migrations) {
+            String sql = migration.load();
+            long checksum = Migration.checksum(sql);
+            Long appliedChecksum = checksums.get(migration.version());
+            if (appliedChecksum != null) {
+                if (appliedChecksum != checksum) {
+                    throw new DatabaseException("Миграция V" + migration.version() + " изменена после применения");
+                }
+                continue;
+            }
+            long start = System.nanoTime();
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(sql);
+            }
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO schema_version (version, description, checksum, execution_ms) VALUES (?, ?, ?, ?)")) {
+                insert.setInt(1, migration.version());
+                insert.setString(2, migration.description());
+                insert.setLong(3, checksum);
+                insert.setLong(4, (System.nanoTime() - start) / 1_000_000);
+                insert.executeUpdate();
+            }
+            applied++;
+        }
+        return applied;
+    }
+
+    private void createVersionTable(Statement statement) throws SQLException {
+        statement.execute("""
+            CREATE TABLE IF NOT EXISTS schema_version (
+                version INT PRIMARY KEY,
+                description VARCHAR(200) NOT NULL,
+                checksum BIGINT NOT NULL,
+                installed_on TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                execution_ms BIGINT NOT NULL
+            )
+        """);
+    }
+
+    private Map<Integer, Long> appliedChecksums(Connection connection) throws SQLException {
+        Map<Integer, Long> checksums = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (resultSet.next()) {
+                checksums.put(resultSet.getInt(1), resultSet.getLong(2));
+            }
+        }
+        return checksums;
+    }
+}
@@ -0,0 +1,51 @@
+package ru.dulfi.db;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.hibernate.cfg.AvailableSettings;
+import ru.dulfi.console.ConsoleApp;
+import ru.dulfi.domain.Owner;
+import ru.dulfi.domain.Pet;
+import ru.dulfi.dto.PetView;
+import ru.dulfi.importer.BulkImporter;
+
+import java.util.Map;
+
+public final class StartupTraining {
+    private static final String TRAINING_URL = "jdbc:postgresql://localhost/startup-training";
+
+    private StartupTraining() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Class.forName("org.postgresql.Driver");
+        ConnectionPool.createConfig(ConnectionPool.loadProperties());
+
+        EntityManagerFactory factory = Persistence.createEntityManagerFactory("default", Map.of(
+                AvailableSettings.JAKARTA_JDBC_URL, TRAINING_URL,
+                AvailableSettings.POOL_SIZE, 1,
+                "hibernate.connection.initial_pool_size", 0
+        ));
+        try {
+            EntityManager em = factory.createEntityManager();
+            try {
+                em.createQuery("SELECT p FROM Pet p LEFT JOIN FETCH p.owner WHERE p.id > :lastId ORDER BY p.id", Pet.class);
+                em.createQuery("SELECT DISTINCT o FROM Owner o LEFT JOIN FETCH o.pets ORDER BY o.id", Owner.class);
+                em.createQuery("SELECT new ru.dulfi.dto.PetView(p.id, p.name, p.birthDate, p.breed, p.color, o.id, o.name) "
+                        + "FROM Pet p LEFT JOIN p.owner o ORDER BY p.id", PetView.class);
+                em.createQuery("SELECT o.id, o.name, o.birthDate, p.id FROM Owner o LEFT JOIN o.pets p ORDER BY o.id, p.id",
+                        Object[].class);
+                em.createNativeQuery("SELECT friend_id FROM pet_friends WHERE pet_id = ?1");
+            } finally {
+                em.close();
+            }
+        } finally {
+            factory.close();
+        }
+
+        for (Class<?> type : new Class<?>[]{ConsoleApp.class, BulkImporter.class}) {
+            Class.forName(type.getName(), true, StartupTraining.class.getClassLoader());
+        }
+    }
+}
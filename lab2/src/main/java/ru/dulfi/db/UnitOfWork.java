@@ -0,0 +1,147 @@
+package ru.dulfi.db;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityTransaction;
+import ru.dulfi.exception.DatabaseException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+public final class UnitOfWork {
+    private static final ThreadLocal<UnitOfWork> current = new ThreadLocal<>();
+
+    private final Supplier<EntityManager> entityManagerFactory;
+    private final List<Runnable> afterCommit = new ArrayList<>();
+    private EntityManager entityManager;
+
+    private UnitOfWork(Supplier<EntityManager> entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public static <T> T call(Supplier<T> work) {
+        return call(EntityManagerUtil::getEntityManager, work);
+    }
+
+    public static void run(Runnable work) {
+        call(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    static <T> T call(Supplier<EntityManager> entityManagerFactory, Supplier<T> work) {
+        if (current.get() != null) {
+            return work.get();
+        }
+        UnitOfWork unit = new UnitOfWork(entityManagerFactory);
+        current.set(unit);
+        T result;
+        try {
+            result = work.get();
+            unit.commit();
+        } catch (RuntimeException | Error e) {
+            unit.rollback();
+            throw e;
+        } finally {
+            current.remove();
+            unit.close();
+        }
+        unit.afterCommit.forEach(Runnable::run);
+        return result;
+    }
+
+    public static boolean isActive() {
+        return current.get() != null;
+    }
+
+    public static void afterCommit(Runnable action) {
+        UnitOfWork unit = current.get();
+        if (unit == null) {
+            action.run();
+        } else {
+            unit.afterCommit.add(action);
+        }
+    }
+
+    public static EntityManager entityManager() {
+        UnitOfWork unit = current.get();
+        return unit != null ? unit.getEntityManager() : EntityManagerUtil.getEntityManager();
+    }
+
+    public static EntityTransaction transaction(EntityManager em) {
+        UnitOfWork unit = current.get();
+        if (unit != null && unit.entityManager == em) {
+            return new JoinedTransaction(em.getTransaction());
+        }
+        return em.getTransaction();
+    }
+
+    public static void release(EntityManager em) {
+        UnitOfWork unit = current.get();
+        if (em != null && (unit == null || unit.entityManager != em)) {
+            em.close();
+        }
+    }
+
+    private EntityManager getEntityManager() {
+        if (entityManager == null) {
+            entityManager = entityManagerFactory.get();
+            entityManager.getTransaction().begin();
+        }
+        return entityManager;
+    }
+
+    private void commit() {
+        if (entityManager == null) {
+            return;
+        }
+        try {
+            entityManager.getTransaction().commit();
+        } catch (RuntimeException e) {
+            throw new DatabaseException("Ошибка при фиксации транзакции", e);
+        }
+    }
+
+    private void rollback() {
+        if (entityManager != null && entityManager.getTransaction().isActive()) {
+            entityManager.getTransaction().rollback();
+        }
+    }
+
+    private void close() {
+        if (entityManager != null) {
+            entityManager.close();
+        }
+    }
+
+    private record JoinedTransaction(EntityTransaction transaction) implements EntityTransaction {
+        @Override
+        public void begin() {
+        }
+
+        @Override
+        public void commit() {
+        }
+
+        @Override
+        public void rollback() {
+            transaction.setRollbackOnly();
+        }
+
+        @Override
+        public void setRollbackOnly() {
+            transaction.setRollbackOnly();
+        }
+
+        @Override
+        public boolean getRollbackOnly() {
+            return transaction.getRollbackOnly();
+        }
+
+        @Override
+        public boolean isActive() {
+            return transaction.isActive();
+        }
+    }
+}
@@ -1,15 +1,20 @@
 package ru.dulfi.domain;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "owners")
 public class Owner {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "owner_id_seq")
+    @SequenceGenerator(name = "owner_id_seq", sequenceName = "owners_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
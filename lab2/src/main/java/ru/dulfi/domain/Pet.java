@@ -1,15 +1,20 @@
 package ru.dulfi.domain;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "pets")
 public class Pet {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pet_id_seq")
+    @SequenceGenerator(name = "pet_id_seq", sequenceName = "pets_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -30,6 +35,7 @@ public class Pet {
     private Owner owner;
 
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JoinTable(
         name = "pet_friends",
         joinColumns = @JoinColumn(name = "pet_id"),
@@ -0,0 +1,15 @@
+package ru.dulfi.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record OwnerView(Long id, String name, LocalDate birthDate, List<PetView> pets) {
+    @Override
+    public String toString() {
+        return "Owner{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                ", birthDate=" + birthDate +
+                '}';
+    }
+}
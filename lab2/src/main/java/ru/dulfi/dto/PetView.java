@@ -0,0 +1,20 @@
+package ru.dulfi.dto;
+
+import ru.dulfi.domain.PetColor;
+
+import java.time.LocalDate;
+
+public record PetView(Long id, String name, LocalDate birthDate, String breed, PetColor color,
+                      Long ownerId, String ownerName) {
+    @Override
+    public String toString() {
+        return "Pet{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                ", birthDate=" + birthDate +
+                ", breed='" + breed + '\'' +
+                ", color=" + color +
+                ", ownerId=" + (ownerId != null ? ownerId : "null") +
+                '}';
+    }
+}
@@ -1,6 +1,10 @@
 package ru.dulfi.exception;
 
 public class DatabaseException extends RuntimeException {
+    public DatabaseException(String message) {
+        super(message);
+    }
+
     public DatabaseException(String message, Throwable cause) {
         super(message, cause);
     }
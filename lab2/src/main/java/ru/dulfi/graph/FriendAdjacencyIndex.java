@@ -0,0 +1,477 @@
+package ru.dulfi.graph;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+public class FriendAdjacencyIndex implements FriendGraph {
+    private static final int INITIAL_VERTICES = 1024;
+    private static final int INITIAL_DEGREE = 4;
+    private static final int[] NO_NEIGHBOURS = new int[0];
+    private static final long[] NO_IDS = new long[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongIntMap indexes = new LongIntMap();
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+    private long[] ids = new long[INITIAL_VERTICES];
+    private int[][] adjacency = new int[INITIAL_VERTICES][];
+    private int[] degrees = new int[INITIAL_VERTICES];
+    private int vertexCount;
+    private long edgeCount;
+
+    public static FriendAdjacencyIndex load(Consumer<FriendshipConsumer> friendships) {
+        FriendAdjacencyIndex index = new FriendAdjacencyIndex();
+        index.lock.writeLock().lock();
+        try {
+            friendships.accept((petId, friendId) -> {
+                if (petId != friendId) {
+                    index.append(index.indexOf(petId), index.indexOf(friendId));
+                    index.append(index.indexOf(friendId), index.indexOf(petId));
+                }
+            });
+            index.normalize();
+        } finally {
+            index.lock.writeLock().unlock();
+        }
+        return index;
+    }
+
+    public int vertexCount() {
+        lock.readLock().lock();
+        try {
+            return vertexCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long edgeCount() {
+        lock.readLock().lock();
+        try {
+            return edgeCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long[] neighbours(long petId, int hops) {
+        lock.readLock().lock();
+        try {
+            int start = indexes.get(petId);
+            if (start < 0 || hops <= 0) {
+                return NO_IDS;
+            }
+            Scratch s = scratch.get().prepare(vertexCount);
+            int[] queue = s.queue;
+            s.markForward(start, 0, -1);
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = start;
+            long[] result = new long[Math.min(vertexCount, 16)];
+            int found = 0;
+            for (int depth = 1; depth <= hops && head < tail; depth++) {
+                int levelEnd = tail;
+                int levelStart = found;
+                while (head < levelEnd) {
+                    int vertex = queue[head++];
+                    int[] neighbours = adjacency[vertex];
+                    for (int i = 0; i < degrees[vertex]; i++) {
+                        int next = neighbours[i];
+                        if (!s.visitedForward(next)) {
+                            s.markForward(next, depth, vertex);
+                            queue[tail++] = next;
+                            if (found == result.length) {
+                                result = Arrays.copyOf(result, Math.min(vertexCount, found * 2));
+                            }
+                            result[found++] = ids[next];
+                        }
+                    }
+                }
+                Arrays.sort(result, levelStart, found);
+            }
+            return Arrays.copyOf(result, found);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long[] mutualFriends(long petId, long otherPetId) {
+        lock.readLock().lock();
+        try {
+            int a = indexes.get(petId);
+            int b = indexes.get(otherPetId);
+            if (a < 0 || b < 0) {
+                return NO_IDS;
+            }
+            int[] first = adjacency[a];
+            int[] second = adjacency[b];
+            long[] result = new long[Math.min(degrees[a], degrees[b])];
+            int found = 0;
+            int i = 0;
+            int j = 0;
+            while (i < degrees[a] && j < degrees[b]) {
+                if (first[i] < second[j]) {
+                    i++;
+                } else if (first[i] > second[j]) {
+                    j++;
+                } else {
+                    result[found++] = ids[first[i]];
+                    i++;
+                    j++;
+                }
+            }
+            result = Arrays.copyOf(result, found);
+            Arrays.sort(result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long[] shortestPath(long fromPetId, long toPetId, int maxHops) {
+        if (fromPetId == toPetId) {
+            return new long[]{fromPetId};
+        }
+        lock.readLock().lock();
+        try {
+            int from = indexes.get(fromPetId);
+            int to = indexes.get(toPetId);
+            if (from < 0 || to < 0) {
+                return NO_IDS;
+            }
+            return bidirectionalSearch(scratch.get().prepare(vertexCount), from, to, maxHops);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void friendshipAdded(long petId, long friendId) {
+        if (petId == friendId) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int a = indexOf(petId);
+            int b = indexOf(friendId);
+            if (insertSorted(a, b)) {
+                insertSorted(b, a);
+                edgeCount++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void friendshipRemoved(long petId, long friendId) {
+        lock.writeLock().lock();
+        try {
+            int a = indexes.get(petId);
+            int b = indexes.get(friendId);
+            if (a >= 0 && b >= 0 && removeSorted(a, b)) {
+                removeSorted(b, a);
+                edgeCount--;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void petDeleted(long petId) {
+        lock.writeLock().lock();
+        try {
+            int vertex = indexes.get(petId);
+            if (vertex < 0) {
+                return;
+            }
+            for (int i = 0; i < degrees[vertex]; i++) {
+                removeSorted(adjacency[vertex][i], vertex);
+            }
+            edgeCount -= degrees[vertex];
+            adjacency[vertex] = NO_NEIGHBOURS;
+            degrees[vertex] = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void allPetsDeleted() {
+        lock.writeLock().lock();
+        try {
+            Arrays.fill(adjacency, 0, vertexCount, NO_NEIGHBOURS);
+            Arrays.fill(degrees, 0, vertexCount, 0);
+            edgeCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private long[] bidirectionalSearch(Scratch s, int from, int to, int maxHops) {
+        int[] forward = s.queue;
+        int[] backward = s.backwardQueue;
+        int forwardHead = 0;
+        int forwardTail = 0;
+        int backwardHead = 0;
+        int backwardTail = 0;
+        forward[forwardTail++] = from;
+        backward[backwardTail++] = to;
+        s.markForward(from, 0, -1);
+        s.markBackward(to, 0, -1);
+        int forwardDepth = 0;
+        int backwardDepth = 0;
+        int bestLength = Integer.MAX_VALUE;
+        int bestForward = -1;
+        int bestBackward = -1;
+
+        while (forwardHead < forwardTail && backwardHead < backwardTail
+                && forwardDepth + backwardDepth < maxHops && bestLength == Integer.MAX_VALUE) {
+            if (forwardTail - forwardHead <= backwardTail - backwardHead) {
+                forwardDepth++;
+                int levelEnd = forwardTail;
+                while (forwardHead < levelEnd) {
+                    int vertex = forward[forwardHead++];
+                    for (int i = 0; i < degrees[vertex]; i++) {
+                        int next = adjacency[vertex][i];
+                        if (s.visitedForward(next)) {
+                            continue;
+                        }
+                        s.markForward(next, forwardDepth, vertex);
+                        forward[forwardTail++] = next;
+                        if (s.visitedBackward(next) && forwardDepth + s.backwardDistance[next] < bestLength) {
+                            bestLength = forwardDepth + s.backwardDistance[next];
+                            bestForward = next;
+                            bestBackward = next;
+                        }
+                    }
+                }
+            } else {
+                backwardDepth++;
+                int levelEnd = backwardTail;
+                while (backwardHead < levelEnd) {
+                    int vertex = backward[backwardHead++];
+                    for (int i = 0; i < degrees[vertex]; i++) {
+                        int next = adjacency[vertex][i];
+                        if (s.visitedBackward(next)) {
+                            continue;
+                        }
+                        s.markBackward(next, backwardDepth, vertex);
+                        backward[backwardTail++] = next;
+                        if (s.visitedForward(next) && backwardDepth + s.forwardDistance[next] < bestLength) {
+                            bestLength = backwardDepth + s.forwardDistance[next];
+                            bestForward = next;
+                            bestBackward = next;
+                        }
+                    }
+                }
+            }
+        }
+        if (bestLength > maxHops) {
+            return NO_IDS;
+        }
+
+        long[] path = new long[bestLength + 1];
+        int position = s.forwardDistance[bestForward];
+        for (int vertex = bestForward; vertex >= 0; vertex = s.forwardParent[vertex]) {
+            path[position--] = ids[vertex];
+        }
+        position = s.forwardDistance[bestForward];
+        for (int vertex = s.backwardParent[bestBackward]; vertex >= 0; vertex = s.backwardParent[vertex]) {
+            path[++position] = ids[vertex];
+        }
+        return path;
+    }
+
+    private int indexOf(long petId) {
+        int index = indexes.get(petId);
+        if (index >= 0) {
+            return index;
+        }
+        if (vertexCount == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            adjacency = Arrays.copyOf(adjacency, capacity);
+            degrees = Arrays.copyOf(degrees, capacity);
+        }
+        index = vertexCount++;
+        ids[index] = petId;
+        adjacency[index] = NO_NEIGHBOURS;
+        indexes.put(petId, index);
+        return index;
+    }
+
+    private void append(int vertex, int neighbour) {
+        int[] neighbours = adjacency[vertex];
+        if (degrees[vertex] == neighbours.length) {
+            neighbours = Arrays.copyOf(neighbours, Math.max(INITIAL_DEGREE, neighbours.length * 2));
+            adjacency[vertex] = neighbours;
+        }
+        neighbours[degrees[vertex]++] = neighbour;
+    }
+
+    private void normalize() {
+        edgeCount = 0;
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            int[] neighbours = adjacency[vertex];
+            int degree = degrees[vertex];
+            Arrays.sort(neighbours, 0, degree);
+            int unique = 0;
+            for (int i = 0; i < degree; i++) {
+                if (unique == 0 || neighbours[unique - 1] != neighbours[i]) {
+                    neighbours[unique++] = neighbours[i];
+                }
+            }
+            degrees[vertex] = unique;
+            edgeCount += unique;
+        }
+        edgeCount /= 2;
+    }
+
+    private boolean insertSorted(int vertex, int neighbour) {
+        int degree = degrees[vertex];
+        int position = Arrays.binarySearch(adjacency[vertex], 0, degree, neighbour);
+        if (position >= 0) {
+            return false;
+        }
+        position = -position - 1;
+        int[] neighbours = adjacency[vertex];
+        if (degree == neighbours.length) {
+            neighbours = Arrays.copyOf(neighbours, Math.max(INITIAL_DEGREE, neighbours.length * 2));
+            adjacency[vertex] = neighbours;
+        }
+        System.arraycopy(neighbours, position, neighbours, position + 1, degree - position);
+        neighbours[position] = neighbour;
+        degrees[vertex]++;
+        return true;
+    }
+
+    private boolean removeSorted(int vertex, int neighbour) {
+        int degree = degrees[vertex];
+        int position = Arrays.binarySearch(adjacency[vertex], 0, degree, neighbour);
+        if (position < 0) {
+            return false;
+        }
+        int[] neighbours = adjacency[vertex];
+        System.arraycopy(neighbours, position + 1, neighbours, position, degree - position - 1);
+        degrees[vertex]--;
+        return true;
+    }
+
+    private static final class Scratch {
+        private int epoch;
+        private int[] forwardMark = NO_NEIGHBOURS;
+        private int[] backwardMark = NO_NEIGHBOURS;
+        private int[] forwardDistance = NO_NEIGHBOURS;
+        private int[] backwardDistance = NO_NEIGHBOURS;
+        private int[] forwardParent = NO_NEIGHBOURS;
+        private int[] backwardParent = NO_NEIGHBOURS;
+        private int[] queue = NO_NEIGHBOURS;
+        private int[] backwardQueue = NO_NEIGHBOURS;
+
+        private Scratch prepare(int vertices) {
+            if (forwardMark.length < vertices) {
+                int capacity = Math.max(vertices, forwardMark.length * 2);
+                forwardMark = new int[capacity];
+                backwardMark = new int[capacity];
+                forwardDistance = new int[capacity];
+                backwardDistance = new int[capacity];
+                forwardParent = new int[capacity];
+                backwardParent = new int[capacity];
+                queue = new int[capacity];
+                backwardQueue = new int[capacity];
+                epoch = 0;
+            }
+            if (++epoch == Integer.MAX_VALUE) {
+                Arrays.fill(forwardMark, 0);
+                Arrays.fill(backwardMark, 0);
+                epoch = 1;
+            }
+            return this;
+        }
+
+        private boolean visitedForward(int vertex) {
+            return forwardMark[vertex] == epoch;
+        }
+
+        private boolean visitedBackward(int vertex) {
+            return backwardMark[vertex] == epoch;
+        }
+
+        private void markForward(int vertex, int distance, int parent) {
+            forwardMark[vertex] = epoch;
+            forwardDistance[vertex] = distance;
+            forwardParent[vertex] = parent;
+        }
+
+        private void markBackward(int vertex, int distance, int parent) {
+            backwardMark[vertex] = epoch;
+            backwardDistance[vertex] = distance;
+            backwardParent[vertex] = parent;
+        }
+    }
+
+    private static final class LongIntMap {
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private long[] keys = newKeys(2048);
+        private int[] values = new int[2048];
+        private int size;
+
+        private int get(long key) {
+            int mask = keys.length - 1;
+            for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+                if (keys[i] == EMPTY) {
+                    return -1;
+                }
+            }
+        }
+
+        private void put(long key, int value) {
+            if ((size + 1) * 2 > keys.length) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while (keys[i] != EMPTY && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == EMPTY) {
+                size++;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = newKeys(oldKeys.length * 2);
+            values = new int[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static long[] newKeys(int capacity) {
+            long[] keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
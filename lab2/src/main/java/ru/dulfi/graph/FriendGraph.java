@@ -0,0 +1,21 @@
+package ru.dulfi.graph;
+
+public interface FriendGraph {
+    long[] neighbours(long petId, int hops);
+
+    long[] mutualFriends(long petId, long otherPetId);
+
+    long[] shortestPath(long fromPetId, long toPetId, int maxHops);
+
+    default void friendshipAdded(long petId, long friendId) {
+    }
+
+    default void friendshipRemoved(long petId, long friendId) {
+    }
+
+    default void petDeleted(long petId) {
+    }
+
+    default void allPetsDeleted() {
+    }
+}
@@ -0,0 +1,6 @@
+package ru.dulfi.graph;
+
+@FunctionalInterface
+public interface FriendshipConsumer {
+    void accept(long petId, long friendId);
+}
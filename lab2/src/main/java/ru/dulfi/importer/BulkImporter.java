@@ -0,0 +1,241 @@
+package ru.dulfi.importer;
+
+import ru.dulfi.domain.Owner;
+import ru.dulfi.domain.Pet;
+import ru.dulfi.domain.PetColor;
+import ru.dulfi.exception.DatabaseException;
+import ru.dulfi.exception.ValidationException;
+import ru.dulfi.service.OwnerService;
+import ru.dulfi.service.PetService;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+public class BulkImporter {
+    public static final int DEFAULT_CHUNK_SIZE = 1_000;
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final OwnerService ownerService;
+    private final PetService petService;
+    private final Supplier<ImportWriter> writerFactory;
+    private final int parallelism;
+    private final int chunkSize;
+
+    public BulkImporter(OwnerService ownerService, PetService petService) {
+        this(ownerService, petService, JdbcImportWriter::open,
+                Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public BulkImporter(OwnerService ownerService, PetService petService, Supplier<ImportWriter> writerFactory,
+                        int parallelism, int chunkSize) {
+        if (parallelism <= 0 || chunkSize <= 0) {
+            throw new ValidationException("Параллелизм и размер пакета должны быть положительными");
+        }
+        this.ownerService = ownerService;
+        this.petService = petService;
+        this.writerFactory = writerFactory;
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+    }
+
+    public ImportReport importFile(Path file, ImportProgressListener listener) throws IOException {
+        try (RecordReader reader = RecordReader.open(file)) {
+            return importRecords(reader, listener);
+        }
+    }
+
+    public ImportReport importRecords(RecordReader reader, ImportProgressListener listener) throws IOException {
+        ImportState state = new ImportState(listener);
+        ExecutorService validators = Executors.newFixedThreadPool(parallelism,
+                Thread.ofPlatform().name("import-validator-", 1).daemon().factory());
+        Deque<Future<List<ValidatedRow>>> inFlight = new ArrayDeque<>();
+        try (ImportWriter writer = writerFactory.get()) {
+            List<ImportRecord> chunk = new ArrayList<>(chunkSize);
+            ImportRecord record;
+            while ((record = reader.next()) != null) {
+                chunk.add(record);
+                if (chunk.size() == chunkSize) {
+                    inFlight.add(submit(validators, chunk));
+                    chunk = new ArrayList<>(chunkSize);
+                    if (inFlight.size() > parallelism * 2) {
+                        write(writer, await(inFlight.poll()), state);
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                inFlight.add(submit(validators, chunk));
+            }
+            while (!inFlight.isEmpty()) {
+                write(writer, await(inFlight.poll()), state);
+            }
+        } finally {
+            validators.shutdownNow();
+        }
+        return state.report();
+    }
+
+    private Future<List<ValidatedRow>> submit(ExecutorService validators, List<ImportRecord> chunk) {
+        return validators.submit(() -> chunk.stream().map(this::validate).toList());
+    }
+
+    private List<ValidatedRow> await(Future<List<ValidatedRow>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseException("Импорт прерван", e);
+        } catch (ExecutionException e) {
+            throw new DatabaseException("Ошибка при проверке записей импорта", e.getCause());
+        }
+    }
+
+    private ValidatedRow validate(ImportRecord record) {
+        try {
+            String type = record.type() == null ? null : record.type().toLowerCase(Locale.ROOT);
+            if (ImportRecord.OWNER.equals(type)) {
+                if (record.ref() == null) {
+                    throw new ValidationException("Не указана ссылка на владельца (ref)");
+                }
+                Owner owner = new Owner();
+                owner.setName(record.name());
+                owner.setBirthDate(parseDate(record.birthDate()));
+                ownerService.validateOwner(owner);
+                return new ValidatedRow(record, owner, null, null);
+            }
+            if (ImportRecord.PET.equals(type)) {
+                Pet pet = new Pet();
+                pet.setName(record.name());
+                pet.setBirthDate(parseDate(record.birthDate()));
+                pet.setBreed(record.breed());
+                pet.setColor(parseColor(record.color()));
+                petService.validatePet(pet);
+                return new ValidatedRow(record, null, pet, null);
+            }
+            throw new ValidationException("Неизвестный тип записи: " + record.type());
+        } catch (ValidationException e) {
+            return new ValidatedRow(record, null, null, e.getMessage());
+        }
+    }
+
+    private void write(ImportWriter writer, List<ValidatedRow> rows, ImportState state) {
+        Map<String, Owner> owners = new LinkedHashMap<>();
+        List<ValidatedRow> pets = new ArrayList<>();
+        for (ValidatedRow row : rows) {
+            if (row.error() != null) {
+                state.reject(row.record(), row.error());
+            } else if (row.owner() != null) {
+                String ref = row.record().ref();
+                if (state.ownerIds.containsKey(ref) || owners.putIfAbsent(ref, row.owner()) != null) {
+                    state.reject(row.record(), "Повторная ссылка на владельца: " + ref);
+                }
+            } else {
+                pets.add(row);
+            }
+        }
+
+        List<Pet> resolved = new ArrayList<>(pets.size());
+        try {
+            writer.insertOwners(new ArrayList<>(owners.values()));
+            owners.forEach((ref, owner) -> state.ownerIds.put(ref, owner.getId()));
+            for (ValidatedRow row : pets) {
+                String ownerRef = row.record().ownerRef();
+                if (ownerRef != null) {
+                    Long ownerId = state.ownerIds.get(ownerRef);
+                    if (ownerId == null) {
+                        state.reject(row.record(), "Владелец не найден: " + ownerRef);
+                        continue;
+                    }
+                    Owner owner = new Owner();
+                    owner.setId(ownerId);
+                    row.pet().setOwner(owner);
+                }
+                resolved.add(row.pet());
+            }
+            writer.insertPets(resolved);
+            writer.commit();
+        } catch (RuntimeException e) {
+            owners.keySet().forEach(state.ownerIds::remove);
+            try {
+                writer.rollback();
+            } catch (RuntimeException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        state.accept(owners.size(), resolved.size());
+    }
+
+    private static LocalDate parseDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new ValidationException("Неверный формат даты: " + value);
+        }
+    }
+
+    private static PetColor parseColor(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return PetColor.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Неверный цвет: " + value);
+        }
+    }
+
+    private record ValidatedRow(ImportRecord record, Owner owner, Pet pet, String error) {
+    }
+
+    private static final class ImportState {
+        private final ImportProgressListener listener;
+        private final long startedAt = System.nanoTime();
+        private final Map<String, Long> ownerIds = new HashMap<>();
+        private final List<ImportError> errors = new ArrayList<>();
+        private long owners;
+        private long pets;
+        private long rejected;
+
+        private ImportState(ImportProgressListener listener) {
+            this.listener = listener;
+        }
+
+        private void reject(ImportRecord record, String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportError(record.line(), message));
+            }
+        }
+
+        private void accept(int ownerCount, int petCount) {
+            owners += ownerCount;
+            pets += petCount;
+            ImportReport report = report();
+            listener.onProgress(report.rows(), rejected, report.rowsPerSecond());
+        }
+
+        private ImportReport report() {
+            return new ImportReport(owners, pets, rejected, List.copyOf(errors),
+                    Duration.ofNanos(System.nanoTime() - startedAt));
+        }
+    }
+}
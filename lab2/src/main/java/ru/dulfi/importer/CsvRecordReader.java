@@ -0,0 +1,109 @@
+package ru.dulfi.importer;
+
+import ru.dulfi.exception.ValidationException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public class CsvRecordReader implements RecordReader {
+    private final Reader reader;
+    private final int type;
+    private final int ref;
+    private final int name;
+    private final int birthDate;
+    private final int breed;
+    private final int color;
+    private final int ownerRef;
+    private long line = 1;
+
+    public CsvRecordReader(Reader reader) throws IOException {
+        this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+        List<String> header = readRow();
+        if (header == null) {
+            throw new ValidationException("CSV-файл пуст");
+        }
+        List<String> columns = header.stream().map(column -> column.trim().toLowerCase(Locale.ROOT)).toList();
+        this.type = columns.indexOf(TYPE);
+        if (type < 0) {
+            throw new ValidationException("В заголовке CSV нет колонки " + TYPE);
+        }
+        this.ref = columns.indexOf(REF);
+        this.name = columns.indexOf(NAME);
+        this.birthDate = columns.indexOf(BIRTH_DATE);
+        this.breed = columns.indexOf(BREED);
+        this.color = columns.indexOf(COLOR);
+        this.ownerRef = columns.indexOf(OWNER_REF);
+    }
+
+    @Override
+    public ImportRecord next() throws IOException {
+        while (true) {
+            long start = line;
+            List<String> row = readRow();
+            if (row == null) {
+                return null;
+            }
+            if (row.size() == 1 && row.get(0).isBlank()) {
+                continue;
+            }
+            return new ImportRecord(start, field(row, type), field(row, ref), field(row, name),
+                    field(row, birthDate), field(row, breed), field(row, color), field(row, ownerRef));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private List<String> readRow() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new ValidationException("Строка " + line + ": незакрытая кавычка");
+                }
+                if (c == '"') {
+                    c = reader.read();
+                    if (c != '"') {
+                        quoted = false;
+                        continue;
+                    }
+                } else if (c == '\n') {
+                    line++;
+                }
+                field.append((char) c);
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                line++;
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+
+    private static String field(List<String> row, int index) {
+        if (index < 0 || index >= row.size()) {
+            return null;
+        }
+        String value = row.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+}
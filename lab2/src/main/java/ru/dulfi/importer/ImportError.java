@@ -0,0 +1,8 @@
+package ru.dulfi.importer;
+
+public record ImportError(long line, String message) {
+    @Override
+    public String toString() {
+        return "Строка " + line + ": " + message;
+    }
+}
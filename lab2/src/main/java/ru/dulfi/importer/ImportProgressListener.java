@@ -0,0 +1,9 @@
+package ru.dulfi.importer;
+
+@FunctionalInterface
+public interface ImportProgressListener {
+    ImportProgressListener NONE = (rows, rejected, rowsPerSecond) -> {
+    };
+
+    void onProgress(long rows, long rejected, double rowsPerSecond);
+}
@@ -0,0 +1,7 @@
+package ru.dulfi.importer;
+
+public record ImportRecord(long line, String type, String ref, String name, String birthDate,
+                           String breed, String color, String ownerRef) {
+    public static final String OWNER = "owner";
+    public static final String PET = "pet";
+}
@@ -0,0 +1,15 @@
+package ru.dulfi.importer;
+
+import java.time.Duration;
+import java.util.List;
+
+public record ImportReport(long owners, long pets, long rejected, List<ImportError> errors, Duration elapsed) {
+    public long rows() {
+        return owners + pets + rejected;
+    }
+
+    public double rowsPerSecond() {
+        long nanos = elapsed.toNanos();
+        return nanos == 0 ? 0 : rows() * 1_000_000_000.0 / nanos;
+    }
+}
@@ -0,0 +1,19 @@
+package ru.dulfi.importer;
+
+import ru.dulfi.domain.Owner;
+import ru.dulfi.domain.Pet;
+
+import java.util.List;
+
+public interface ImportWriter extends AutoCloseable {
+    void insertOwners(List<Owner> owners);
+
+    void insertPets(List<Pet> pets);
+
+    void commit();
+
+    void rollback();
+
+    @Override
+    void close();
+}
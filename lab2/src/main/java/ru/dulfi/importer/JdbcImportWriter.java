@@ -0,0 +1,146 @@
+package ru.dulfi.importer;
+
+import ru.dulfi.dao.DatabaseConnection;
+import ru.dulfi.domain.Owner;
+import ru.dulfi.domain.Pet;
+import ru.dulfi.exception.DatabaseException;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+public class JdbcImportWriter implements ImportWriter {
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    private static final String ALLOCATE_IDS_SQL = "SELECT nextval(CAST(? AS regclass)) FROM generate_series(1, ?)";
+    private static final String INSERT_OWNER_SQL = "INSERT INTO owners (id, name, birth_date) VALUES (?, ?, ?)";
+    private static final String INSERT_PET_SQL =
+            "INSERT INTO pets (id, name, birth_date, breed, color, owner_id) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final Connection connection;
+
+    public JdbcImportWriter(Connection connection) {
+        this.connection = connection;
+    }
+
+    public static JdbcImportWriter open() {
+        Connection connection = null;
+        try {
+            connection = DatabaseConnection.getConnection();
+            connection.setAutoCommit(false);
+            return new JdbcImportWriter(connection);
+        } catch (SQLException e) {
+            closeQuietly(connection);
+            throw new DatabaseException("Не удалось открыть соединение для импорта", e);
+        }
+    }
+
+    @Override
+    public void insertOwners(List<Owner> owners) {
+        if (owners.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_OWNER_SQL)) {
+            long[] ids = allocateIds("owners_id_seq", owners.size());
+            for (int i = 0; i < ids.length; i++) {
+                Owner owner = owners.get(i);
+                owner.setId(ids[i]);
+                statement.setLong(1, ids[i]);
+                statement.setString(2, owner.getName());
+                statement.setObject(3, owner.getBirthDate());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        } catch (SQLException e) {
+            throw new DatabaseException("Ошибка при импорте владельцев", e);
+        }
+    }
+
+    @Override
+    public void insertPets(List<Pet> pets) {
+        if (pets.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_PET_SQL)) {
+            long[] ids = allocateIds("pets_id_seq", pets.size());
+            for (int i = 0; i < ids.length; i++) {
+                Pet pet = pets.get(i);
+                pet.setId(ids[i]);
+                statement.setLong(1, ids[i]);
+                statement.setString(2, pet.getName());
+                statement.setObject(3, pet.getBirthDate());
+                statement.setString(4, pet.getBreed());
+                statement.setString(5, pet.getColor().name());
+                if (pet.getOwner() != null) {
+                    statement.setLong(6, pet.getOwner().getId());
+                } else {
+                    statement.setNull(6, Types.BIGINT);
+                }
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        } catch (SQLException e) {
+            throw new DatabaseException("Ошибка при импорте питомцев", e);
+        }
+    }
+
+    @Override
+    public void commit() {
+        try {
+            connection.commit();
+        } catch (SQLException e) {
+            throw new DatabaseException("Ошибка при фиксации импорта", e);
+        }
+    }
+
+    @Override
+    public void rollback() {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            throw new DatabaseException("Ошибка при откате импорта", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new DatabaseException("Ошибка при закрытии соединения импорта", e);
+        }
+    }
+
+    private long[] allocateIds(String sequence, int count) throws SQLException {
+        long[] ids = new long[count];
+        int filled = 0;
+        try (PreparedStatement statement = connection.prepareStatement(ALLOCATE_IDS_SQL)) {
+            while (filled < count) {
+                statement.setString(1, sequence);
+                statement.setInt(2, (count - filled + ID_ALLOCATION_SIZE - 1) / ID_ALLOCATION_SIZE);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        long hi = resultSet.getLong(1);
+                        for (long id = Math.max(1, hi - ID_ALLOCATION_SIZE + 1); id <= hi && filled < count; id++) {
+                            ids[filled++] = id;
+                        }
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+        }
+    }
+}
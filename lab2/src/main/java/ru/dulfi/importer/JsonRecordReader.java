@@ -0,0 +1,57 @@
+package ru.dulfi.importer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import ru.dulfi.exception.ValidationException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+
+public class JsonRecordReader implements RecordReader {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final JsonParser parser;
+
+    public JsonRecordReader(Reader reader) throws IOException {
+        this.parser = JSON_FACTORY.createParser(reader);
+        if (parser.nextToken() == JsonToken.START_ARRAY) {
+            parser.nextToken();
+        }
+    }
+
+    @Override
+    public ImportRecord next() throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == null || token == JsonToken.END_ARRAY) {
+            return null;
+        }
+        long line = parser.currentTokenLocation().getLineNr();
+        if (token != JsonToken.START_OBJECT) {
+            throw new ValidationException("Строка " + line + ": ожидался JSON-объект");
+        }
+        Map<String, String> fields = new HashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value.isStructStart()) {
+                parser.skipChildren();
+            } else if (value != JsonToken.VALUE_NULL) {
+                String text = parser.getText().trim();
+                if (!text.isEmpty()) {
+                    fields.put(field, text);
+                }
+            }
+        }
+        parser.nextToken();
+        return new ImportRecord(line, fields.get(TYPE), fields.get(REF), fields.get(NAME), fields.get(BIRTH_DATE),
+                fields.get(BREED), fields.get(COLOR), fields.get(OWNER_REF));
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
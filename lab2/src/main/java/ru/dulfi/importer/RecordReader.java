@@ -0,0 +1,37 @@
+package ru.dulfi.importer;
+
+import ru.dulfi.exception.ValidationException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+public interface RecordReader extends Closeable {
+    String TYPE = "type";
+    String REF = "ref";
+    String NAME = "name";
+    String BIRTH_DATE = "birth_date";
+    String BREED = "breed";
+    String COLOR = "color";
+    String OWNER_REF = "owner_ref";
+
+    ImportRecord next() throws IOException;
+
+    static RecordReader open(Path file) throws IOException {
+        String fileName = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (!fileName.endsWith(".csv") && !fileName.endsWith(".json") && !fileName.endsWith(".jsonl")) {
+            throw new ValidationException("Неподдерживаемый формат файла: " + file.getFileName());
+        }
+        Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        try {
+            return fileName.endsWith(".csv") ? new CsvRecordReader(reader) : new JsonRecordReader(reader);
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+    }
+}
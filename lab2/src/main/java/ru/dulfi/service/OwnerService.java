@@ -1,11 +1,14 @@
 package ru.dulfi.service;
 
 import ru.dulfi.dao.OwnerDao;
+import ru.dulfi.db.UnitOfWork;
 import ru.dulfi.domain.Owner;
+import ru.dulfi.dto.OwnerView;
 import ru.dulfi.exception.EntityNotFoundException;
 import ru.dulfi.exception.ValidationException;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public class OwnerService {
     private final OwnerDao ownerDao;
@@ -32,17 +35,21 @@ public class OwnerService {
         if (owner.getId() == null) {
             throw new ValidationException("ID владельца не может быть null при обновлении");
         }
-        if (ownerDao.getById(owner.getId()) == null) {
-            throw new EntityNotFoundException("Владелец с id " + owner.getId() + " не найден");
-        }
-        return ownerDao.update(owner);
+        return UnitOfWork.call(() -> {
+            if (ownerDao.getById(owner.getId()) == null) {
+                throw new EntityNotFoundException("Владелец с id " + owner.getId() + " не найден");
+            }
+            return ownerDao.update(owner);
+        });
     }
 
     public void deleteById(Long id) {
-        if (ownerDao.getById(id) == null) {
-            throw new EntityNotFoundException("Владелец с id " + id + " не найден");
-        }
-        ownerDao.deleteById(id);
+        UnitOfWork.run(() -> {
+            if (ownerDao.getById(id) == null) {
+                throw new EntityNotFoundException("Владелец с id " + id + " не найден");
+            }
+            ownerDao.deleteById(id);
+        });
     }
 
     public void deleteByEntity(Owner owner) {
@@ -64,7 +71,29 @@ public class OwnerService {
         return ownerDao.getAllWithPets();
     }
 
-    private void validateOwner(Owner owner) {
+    public List<Owner> getPageWithPets(Long afterId, int limit) {
+        if (limit <= 0) {
+            throw new ValidationException("Размер страницы должен быть положительным");
+        }
+        return ownerDao.getPageWithPets(afterId, limit);
+    }
+
+    public List<OwnerView> getAllViewsWithPets() {
+        return ownerDao.getAllViewsWithPets();
+    }
+
+    public List<OwnerView> getViewPageWithPets(Long afterId, int limit) {
+        if (limit <= 0) {
+            throw new ValidationException("Размер страницы должен быть положительным");
+        }
+        return ownerDao.getViewPageWithPets(afterId, limit);
+    }
+
+    public Stream<Owner> streamAll() {
+        return ownerDao.streamAll();
+    }
+
+    public void validateOwner(Owner owner) {
         if (owner == null) {
             throw new ValidationException("Владелец не может быть null");
         }
@@ -3,43 +3,59 @@ package ru.dulfi.service;
 import ru.dulfi.dao.PetDao;
 import ru.dulfi.domain.Owner;
 import ru.dulfi.domain.Pet;
+import ru.dulfi.dto.PetView;
 import ru.dulfi.exception.EntityNotFoundException;
 import ru.dulfi.exception.ValidationException;
 import ru.dulfi.dao.OwnerDao;
+import ru.dulfi.dao.FriendGraphDao;
+import ru.dulfi.db.UnitOfWork;
+import ru.dulfi.graph.FriendGraph;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
 
 public class PetService {
+    public static final int MAX_FRIEND_SUGGESTIONS = 100;
+
     private final PetDao petDao;
     private final OwnerDao ownerDao;
+    private final FriendGraph friendGraph;
 
     public PetService(PetDao petDao, OwnerDao ownerDao) {
+        this(petDao, ownerDao, new FriendGraphDao());
+    }
+
+    public PetService(PetDao petDao, OwnerDao ownerDao, FriendGraph friendGraph) {
         this.petDao = petDao;
         this.ownerDao = ownerDao;
+        this.friendGraph = friendGraph;
     }
 
     public Pet save(Pet pet) {
         validatePet(pet);
         try {
-            if (pet.getOwner() != null && pet.getOwner().getId() != null) {
-                Owner owner = ownerDao.getById(pet.getOwner().getId());
-                if (owner == null) {
-                    throw new EntityNotFoundException("Владелец с id " + pet.getOwner().getId() + " не найден");
+            return UnitOfWork.call(() -> {
+                if (pet.getOwner() != null && pet.getOwner().getId() != null) {
+                    Owner owner = ownerDao.getById(pet.getOwner().getId());
+                    if (owner == null) {
+                        throw new EntityNotFoundException("Владелец с id " + pet.getOwner().getId() + " не найден");
+                    }
+                    pet.setOwner(owner);
                 }
-                pet.setOwner(owner);
-            }
 
-            return petDao.save(pet);
+                return petDao.save(pet);
+            });
         } catch (Exception e) {
             throw new RuntimeException("Ошибка при сохранении питомца: " + e.getMessage(), e);
         }
     }
 
     public void deleteById(Long id) {
-        if (petDao.getById(id) == null) {
-            throw new EntityNotFoundException("Питомец с id " + id + " не найден");
-        }
         petDao.deleteById(id);
+        UnitOfWork.afterCommit(() -> friendGraph.petDeleted(id));
     }
 
     public void deleteByEntity(Pet pet) {
@@ -51,6 +67,7 @@ public class PetService {
 
     public void deleteAll() {
         petDao.deleteAll();
+        UnitOfWork.afterCommit(friendGraph::allPetsDeleted);
     }
 
     public Pet update(Pet pet) {
@@ -58,18 +75,22 @@ public class PetService {
         if (pet.getId() == null) {
             throw new ValidationException("ID питомца не может быть null при обновлении");
         }
-        if (petDao.getById(pet.getId()) == null) {
-            throw new EntityNotFoundException("Питомец с id " + pet.getId() + " не найден");
-        }
         try {
-            if (pet.getOwner() != null && pet.getOwner().getId() != null) {
-                Owner owner = ownerDao.getById(pet.getOwner().getId());
-                if (owner == null) {
-                    throw new EntityNotFoundException("Владелец с id " + pet.getOwner().getId() + " не найден");
+            return UnitOfWork.call(() -> {
+                if (petDao.getById(pet.getId()) == null) {
+                    throw new EntityNotFoundException("Питомец с id " + pet.getId() + " не найден");
                 }
-                pet.setOwner(owner);
-            }
-            return petDao.update(pet);
+                if (pet.getOwner() != null && pet.getOwner().getId() != null) {
+                    Owner owner = ownerDao.getById(pet.getOwner().getId());
+                    if (owner == null) {
+                        throw new EntityNotFoundException("Владелец с id " + pet.getOwner().getId() + " не найден");
+                    }
+                    pet.setOwner(owner);
+                }
+                return petDao.update(pet);
+            });
+        } catch (EntityNotFoundException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Ошибка при обновлении питомца: " + e.getMessage(), e);
         }
@@ -91,23 +112,59 @@ public class PetService {
         return petDao.getAllWithOwners();
     }
 
+    public List<Pet> getPageWithOwners(Long afterId, int limit) {
+        if (limit <= 0) {
+            throw new ValidationException("Размер страницы должен быть положительным");
+        }
+        return petDao.getPageWithOwners(afterId, limit);
+    }
+
+    public List<PetView> getAllViews() {
+        return petDao.getAllViews();
+    }
+
+    public List<PetView> getViewPage(Long afterId, int limit) {
+        if (limit <= 0) {
+            throw new ValidationException("Размер страницы должен быть положительным");
+        }
+        return petDao.getViewPage(afterId, limit);
+    }
+
+    public Stream<Pet> streamAllWithOwners() {
+        return petDao.streamAllWithOwners();
+    }
+
     public void addFriend(Long petId, Long friendId) {
         if (petId == null || friendId == null) {
             throw new ValidationException("ID питомцев не могут быть null");
         }
         try {
             petDao.addFriend(petId, friendId);
+            UnitOfWork.afterCommit(() -> friendGraph.friendshipAdded(petId, friendId));
         } catch (Exception e) {
             throw new RuntimeException("Ошибка при добавлении друга: " + e.getMessage(), e);
         }
     }
 
+    public void addFriends(Long petId, Collection<Long> friendIds) {
+        if (petId == null || friendIds == null || friendIds.stream().anyMatch(Objects::isNull)) {
+            throw new ValidationException("ID питомцев не могут быть null");
+        }
+        try {
+            petDao.addFriends(petId, friendIds);
+            UnitOfWork.afterCommit(() -> friendIds.forEach(friendId -> friendGraph.friendshipAdded(petId, friendId)));
+        } catch (Exception e) {
+            throw new RuntimeException("Ошибка при добавлении друзей: " + e.getMessage(), e);
+        }
+    }
+
     public void removeFriend(Long petId, Long friendId) {
         if (petId == null || friendId == null) {
             throw new ValidationException("ID питомцев не могут быть null");
         }
         try {
             petDao.removeFriend(petId, friendId);
+            UnitOfWork.afterCommit(() -> friendGraph.friendshipRemoved(petId, friendId));
         } catch (Exception e) {
             throw new RuntimeException("Ошибка при удалении друга: " + e.getMessage(), e);
         }
@@ -124,7 +181,54 @@ public class PetService {
         }
     }
 
-    private void validatePet(Pet pet) {
+    public List<Pet> getFriendsWithinHops(Long petId, int hops) {
+        if (petId == null) {
+            throw new ValidationException("ID питомца не может быть null");
+        }
+        if (hops <= 0) {
+            throw new ValidationException("Число шагов должно быть положительным");
+        }
+        return petDao.getByIds(friendGraph.neighbours(petId, hops));
+    }
+
+    public List<Pet> getFriendSuggestions(Long petId) {
+        return getFriendSuggestions(petId, MAX_FRIEND_SUGGESTIONS);
+    }
+
+    public List<Pet> getFriendSuggestions(Long petId, int limit) {
+        if (petId == null) {
+            throw new ValidationException("ID питомца не может быть null");
+        }
+        if (limit <= 0) {
+            throw new ValidationException("Число рекомендаций должно быть положительным");
+        }
+        long[] friends = friendGraph.neighbours(petId, 1);
+        Arrays.sort(friends);
+        long[] suggestions = Arrays.stream(friendGraph.neighbours(petId, 2))
+                .filter(id -> Arrays.binarySearch(friends, id) < 0)
+                .limit(limit)
+                .toArray();
+        return petDao.getByIds(suggestions);
+    }
+
+    public List<Pet> getMutualFriends(Long petId, Long otherPetId) {
+        if (petId == null || otherPetId == null) {
+            throw new ValidationException("ID питомцев не могут быть null");
+        }
+        return petDao.getByIds(friendGraph.mutualFriends(petId, otherPetId));
+    }
+
+    public List<Pet> getFriendshipPath(Long fromPetId, Long toPetId, int maxHops) {
+        if (fromPetId == null || toPetId == null) {
+            throw new ValidationException("ID питомцев не могут быть null");
+        }
+        if (maxHops <= 0) {
+            throw new ValidationException("Число шагов должно быть положительным");
+        }
+        return petDao.getByIds(friendGraph.shortestPath(fromPetId, toPetId, maxHops));
+    }
+
+    public void validatePet(Pet pet) {
         if (pet == null) {
             throw new ValidationException("Питомец не может быть null");
         }
@@ -0,0 +1,23 @@
+CREATE TABLE IF NOT EXISTS owners (
+    id SERIAL PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    birth_date DATE NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS pets (
+    id SERIAL PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    birth_date DATE NOT NULL,
+    breed VARCHAR(100) NOT NULL,
+    color VARCHAR(20) NOT NULL,
+    owner_id BIGINT REFERENCES owners(id)
+);
+
+CREATE TABLE IF NOT EXISTS pet_friends (
+    pet_id BIGINT REFERENCES pets(id),
+    friend_id BIGINT REFERENCES pets(id),
+    PRIMARY KEY (pet_id, friend_id)
+);
+
+ALTER SEQUENCE owners_id_seq INCREMENT BY 50;
+ALTER SEQUENCE pets_id_seq INCREMENT BY 50;
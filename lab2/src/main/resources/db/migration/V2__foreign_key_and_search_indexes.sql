@@ -0,0 +1,13 @@
+CREATE INDEX IF NOT EXISTS idx_pets_owner_id ON pets (owner_id) INCLUDE (id);
+
+CREATE INDEX IF NOT EXISTS idx_pet_friends_friend_id ON pet_friends (friend_id) INCLUDE (pet_id);
+
+CREATE INDEX IF NOT EXISTS idx_pets_name ON pets (name);
+
+CREATE INDEX IF NOT EXISTS idx_pets_breed_color ON pets (breed, color);
+
+CREATE INDEX IF NOT EXISTS idx_owners_name ON owners (name);
+
+ANALYZE owners;
+ANALYZE pets;
+ANALYZE pet_friends;
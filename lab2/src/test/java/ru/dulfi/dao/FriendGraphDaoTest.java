@@ -0,0 +1,100 @@
+package ru.dulfi.dao;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FriendGraphDaoTest {
+    private static final long[][] EDGES = {{1, 2}, {2, 3}, {3, 4}, {4, 5}, {1, 6}, {6, 3}, {2, 6}};
+
+    @Mock
+    private Connection connection;
+    @Mock
+    private PreparedStatement statement;
+
+    private Object[] frontier;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(connection.createArrayOf(eq("bigint"), any())).thenAnswer(invocation -> {
+            frontier = invocation.getArgument(1);
+            return mock(Array.class);
+        });
+        when(statement.executeQuery()).thenAnswer(invocation -> friendsOf(frontier));
+    }
+
+    @Test
+    void testBreadthFirstPathStopsAtFirstLevelReachingTarget() throws Exception {
+        long[] path = FriendGraphDao.breadthFirstPath(connection, 1, 5, 6);
+
+        assertEquals(5, path.length);
+        assertEquals(1, path[0]);
+        assertEquals(3, path[2]);
+        assertEquals(5, path[4]);
+        for (int i = 1; i < path.length; i++) {
+            assertTrue(isEdge(path[i - 1], path[i]));
+        }
+        verify(statement, times(4)).executeQuery();
+    }
+
+    @Test
+    void testBreadthFirstPathVisitsEachPetOnce() throws Exception {
+        assertArrayEquals(new long[]{1, 2, 3}, FriendGraphDao.breadthFirstPath(connection, 1, 3, 6));
+        verify(statement, times(2)).executeQuery();
+    }
+
+    @Test
+    void testBreadthFirstPathRespectsMaxHops() throws Exception {
+        assertArrayEquals(new long[0], FriendGraphDao.breadthFirstPath(connection, 1, 5, 3));
+        verify(statement, times(3)).executeQuery();
+    }
+
+    private static ResultSet friendsOf(Object[] petIds) throws Exception {
+        List<long[]> rows = new ArrayList<>();
+        for (Object petId : petIds) {
+            for (long[] edge : EDGES) {
+                if (edge[0] == (Long) petId) {
+                    rows.add(new long[]{edge[0], edge[1]});
+                } else if (edge[1] == (Long) petId) {
+                    rows.add(new long[]{edge[1], edge[0]});
+                }
+            }
+        }
+        Iterator<long[]> iterator = rows.iterator();
+        long[][] current = new long[1][];
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenAnswer(invocation -> {
+            current[0] = iterator.hasNext() ? iterator.next() : null;
+            return current[0] != null;
+        });
+        if (!rows.isEmpty()) {
+            when(resultSet.getLong(anyInt())).thenAnswer(invocation -> current[0][(int) invocation.getArgument(0) - 1]);
+        }
+        return resultSet;
+    }
+
+    private static boolean isEdge(long a, long b) {
+        for (long[] edge : EDGES) {
+            if ((edge[0] == a && edge[1] == b) || (edge[0] == b && edge[1] == a)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,70 @@
+package ru.dulfi.dao;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.dulfi.domain.PetColor;
+import ru.dulfi.dto.OwnerView;
+import ru.dulfi.dto.PetView;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OwnerDaoProjectionTest {
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private TypedQuery<Long> idQuery;
+    @Mock
+    private TypedQuery<Object[]> rowQuery;
+
+    private OwnerDao ownerDao;
+
+    @BeforeEach
+    void setUp() {
+        ownerDao = new OwnerDao();
+        ownerDao.setEntityManager(entityManager);
+    }
+
+    @Test
+    void testGetViewPageWithPetsGroupsTupleRowsWithoutDistinct() {
+        when(entityManager.createQuery("SELECT o.id FROM Owner o WHERE o.id > :lastId ORDER BY o.id", Long.class))
+                .thenReturn(idQuery);
+        when(idQuery.setHint(HibernateHints.HINT_READ_ONLY, true)).thenReturn(idQuery);
+        when(idQuery.setParameter("lastId", 0L)).thenReturn(idQuery);
+        when(idQuery.setMaxResults(2)).thenReturn(idQuery);
+        when(idQuery.getResultList()).thenReturn(List.of(1L, 3L));
+        when(entityManager.createQuery(
+                "SELECT o.id, o.name, o.birthDate, p.id, p.name, p.birthDate, p.breed, p.color "
+                        + "FROM Owner o LEFT JOIN o.pets p WHERE o.id >= :firstId AND o.id <= :lastId ORDER BY o.id, p.id",
+                Object[].class)).thenReturn(rowQuery);
+        when(rowQuery.setHint(HibernateHints.HINT_READ_ONLY, true)).thenReturn(rowQuery);
+        when(rowQuery.setParameter("firstId", 1L)).thenReturn(rowQuery);
+        when(rowQuery.setParameter("lastId", 3L)).thenReturn(rowQuery);
+        LocalDate date = LocalDate.of(2020, 1, 1);
+        when(rowQuery.getResultList()).thenReturn(List.of(
+                new Object[]{1L, "Иван", date, 10L, "Барсик", date, "Сиамская", PetColor.BLACK},
+                new Object[]{1L, "Иван", date, 11L, "Мурзик", date, "Сиамская", PetColor.GRAY},
+                new Object[]{3L, "Пётр", date, null, null, null, null, null}));
+
+        List<OwnerView> owners = ownerDao.getViewPageWithPets(null, 2);
+
+        assertEquals(2, owners.size());
+        assertEquals("Иван", owners.get(0).name());
+        assertEquals(List.of(
+                new PetView(10L, "Барсик", date, "Сиамская", PetColor.BLACK, 1L, "Иван"),
+                new PetView(11L, "Мурзик", date, "Сиамская", PetColor.GRAY, 1L, "Иван")), owners.get(0).pets());
+        assertEquals(3L, owners.get(1).id());
+        assertTrue(owners.get(1).pets().isEmpty());
+        verify(entityManager, never()).getTransaction();
+    }
+}
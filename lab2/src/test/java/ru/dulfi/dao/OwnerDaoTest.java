@@ -3,6 +3,10 @@ package ru.dulfi.dao;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityTransaction;
 import jakarta.persistence.Query;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.SelectionQuery;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
@@ -12,6 +16,8 @@ import ru.dulfi.domain.Owner;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -109,6 +115,61 @@ class OwnerDaoTest {
         verify(transaction).commit();
     }
 
+    @Test
+    void testSaveAllFlushesEveryBatch() {
+        List<Owner> owners = new ArrayList<>();
+        for (int i = 0; i < BaseDao.BATCH_SIZE * 2 + 1; i++) {
+            owners.add(createTestOwner());
+        }
+
+        List<Owner> savedOwners = ownerDao.saveAll(owners);
+
+        assertEquals(owners.size(), savedOwners.size());
+        verify(transaction, times(1)).begin();
+        verify(entityManager, times(owners.size())).persist(any(Owner.class));
+        verify(entityManager, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+        verify(transaction, times(1)).commit();
+    }
+
+    @Test
+    void testUpdateAll() {
+        when(entityManager.merge(any(Owner.class))).thenReturn(testOwner);
+
+        List<Owner> updatedOwners = ownerDao.updateAll(List.of(testOwner, createTestOwner()));
+
+        assertEquals(2, updatedOwners.size());
+        verify(transaction, times(1)).begin();
+        verify(entityManager, times(2)).merge(any(Owner.class));
+        verify(entityManager, never()).flush();
+        verify(transaction, times(1)).commit();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStreamAllScrollsReadOnlyAndCommitsOnClose() {
+        Session session = mock(Session.class);
+        SelectionQuery<Owner> selectionQuery = mock(SelectionQuery.class);
+        ScrollableResults<Owner> results = mock(ScrollableResults.class);
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(session.createSelectionQuery("SELECT e FROM Owner e ORDER BY e.id", Owner.class)).thenReturn(selectionQuery);
+        when(selectionQuery.setReadOnly(true)).thenReturn(selectionQuery);
+        when(selectionQuery.setFetchSize(BaseDao.BATCH_SIZE)).thenReturn(selectionQuery);
+        when(selectionQuery.scroll(ScrollMode.FORWARD_ONLY)).thenReturn(results);
+        when(results.next()).thenReturn(true, true, false);
+        when(results.get()).thenReturn(testOwner, createTestOwner());
+        when(transaction.isActive()).thenReturn(true);
+
+        try (Stream<Owner> owners = ownerDao.streamAll()) {
+            assertEquals(2, owners.count());
+            verify(transaction, never()).commit();
+        }
+
+        verify(session).setDefaultReadOnly(true);
+        verify(results).close();
+        verify(transaction).commit();
+    }
+
     private Owner createTestOwner() {
         Owner owner = new Owner();
         owner.setId(1L);
@@ -0,0 +1,204 @@
+package ru.dulfi.dao;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.dulfi.domain.Pet;
+import ru.dulfi.domain.PetColor;
+import ru.dulfi.dto.PetView;
+import ru.dulfi.exception.EntityNotFoundException;
+import ru.dulfi.exception.ValidationException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PetDaoTest {
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private TypedQuery<Pet> query;
+    @Mock
+    private TypedQuery<Long> idQuery;
+    @Mock
+    private EntityTransaction transaction;
+    @Mock
+    private Query nativeQuery;
+    @Mock
+    private NativeQuery<?> hibernateNativeQuery;
+
+    private PetDao petDao;
+
+    @BeforeEach
+    void setUp() {
+        petDao = new PetDao();
+        petDao.setEntityManager(entityManager);
+    }
+
+    @Test
+    void testGetPageWithOwnersUsesKeyset() {
+        Pet pet = new Pet();
+        pet.setId(42L);
+        when(entityManager.createQuery("SELECT p FROM Pet p LEFT JOIN FETCH p.owner WHERE p.id > :lastId ORDER BY p.id", Pet.class))
+                .thenReturn(query);
+        when(query.setParameter("lastId", 41L)).thenReturn(query);
+        when(query.setMaxResults(20)).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of(pet));
+
+        List<Pet> page = petDao.getPageWithOwners(41L, 20);
+
+        assertEquals(List.of(pet), page);
+        verify(query, never()).setFirstResult(anyInt());
+    }
+
+    @Test
+    void testGetViewPageUsesReadOnlyConstructorProjection() {
+        @SuppressWarnings("unchecked")
+        TypedQuery<PetView> viewQuery = mock(TypedQuery.class);
+        PetView view = new PetView(42L, "Барсик", LocalDate.of(2020, 1, 1), "Сиамская", PetColor.BLACK, 7L, "Иван");
+        when(entityManager.createQuery(
+                "SELECT new ru.dulfi.dto.PetView(p.id, p.name, p.birthDate, p.breed, p.color, o.id, o.name) "
+                        + "FROM Pet p LEFT JOIN p.owner o WHERE p.id > :lastId ORDER BY p.id", PetView.class))
+                .thenReturn(viewQuery);
+        when(viewQuery.setHint(HibernateHints.HINT_READ_ONLY, true)).thenReturn(viewQuery);
+        when(viewQuery.setParameter("lastId", 41L)).thenReturn(viewQuery);
+        when(viewQuery.setMaxResults(20)).thenReturn(viewQuery);
+        when(viewQuery.getResultList()).thenReturn(List.of(view));
+
+        assertEquals(List.of(view), petDao.getViewPage(41L, 20));
+        verify(entityManager, never()).getTransaction();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetByIdsLoadsLargeIdListsInChunksAndKeepsOrder() {
+        when(entityManager.createQuery("SELECT p FROM Pet p LEFT JOIN FETCH p.owner WHERE p.id IN :ids", Pet.class))
+                .thenReturn(query);
+        List<Integer> chunkSizes = new ArrayList<>();
+        List<Long> requested = new ArrayList<>();
+        when(query.setParameter(eq("ids"), anyList())).thenAnswer(invocation -> {
+            List<Long> chunk = invocation.getArgument(1);
+            chunkSizes.add(chunk.size());
+            requested.clear();
+            requested.addAll(chunk);
+            return query;
+        });
+        when(query.getResultList()).thenAnswer(invocation -> requested.stream()
+                .map(id -> {
+                    Pet pet = new Pet();
+                    pet.setId(id);
+                    return pet;
+                })
+                .toList());
+        long[] ids = LongStream.rangeClosed(1, 2_500).map(id -> 2_501 - id).toArray();
+
+        List<Pet> pets = petDao.getByIds(ids);
+
+        assertEquals(List.of(1_000, 1_000, 500), chunkSizes);
+        assertEquals(2_500, pets.size());
+        assertEquals(2_500L, pets.get(0).getId());
+        assertEquals(1L, pets.get(2_499).getId());
+    }
+
+    @Test
+    void testGetPageStartsFromFirstIdWhenCursorIsNull() {
+        when(entityManager.createQuery("SELECT e FROM Pet e WHERE e.id > :lastId ORDER BY e.id", Pet.class))
+                .thenReturn(query);
+        when(query.setParameter("lastId", 0L)).thenReturn(query);
+        when(query.setMaxResults(50)).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of());
+
+        assertTrue(petDao.getPage(null, 50).isEmpty());
+    }
+
+    @Test
+    void testAddFriendInsertsSymmetricPairWithoutLoadingPets() {
+        stubTransaction();
+        stubExistingIds(List.of(1L, 2L));
+        stubFriendsStatement(2);
+
+        petDao.addFriend(1L, 2L);
+
+        verify(entityManager).createNativeQuery(
+                "INSERT INTO pet_friends (pet_id, friend_id) VALUES (?1, ?2), (?2, ?1) ON CONFLICT DO NOTHING");
+        verify(entityManager, never()).find(any(), any());
+        verify(transaction).commit();
+    }
+
+    @Test
+    void testAddFriendRejectsExistingFriendship() {
+        stubTransaction();
+        stubExistingIds(List.of(1L, 2L));
+        stubFriendsStatement(0);
+        when(transaction.isActive()).thenReturn(true);
+
+        assertThrows(ValidationException.class, () -> petDao.addFriend(1L, 2L));
+
+        verify(transaction).rollback();
+    }
+
+    @Test
+    void testAddFriendsReportsMissingFriends() {
+        stubTransaction();
+        stubExistingIds(List.of(1L, 2L));
+        when(transaction.isActive()).thenReturn(true);
+
+        EntityNotFoundException e = assertThrows(EntityNotFoundException.class,
+                () -> petDao.addFriends(1L, List.of(2L, 3L)));
+
+        assertTrue(e.getMessage().contains("[3]"));
+        verify(entityManager, never()).createNativeQuery(anyString());
+        verify(transaction).rollback();
+    }
+
+    @Test
+    void testAddFriendsInsertsAllPairsInOneStatement() {
+        stubTransaction();
+        stubExistingIds(List.of(1L, 2L, 3L, 4L));
+        stubFriendsStatement(6);
+
+        petDao.addFriends(1L, List.of(2L, 3L, 4L, 3L));
+
+        verify(entityManager, times(1)).createNativeQuery(anyString());
+        verify(hibernateNativeQuery).setParameter(2, new Long[]{2L, 3L, 4L});
+        verify(transaction).commit();
+    }
+
+    @Test
+    void testAddFriendsRejectsSelf() {
+        assertThrows(ValidationException.class, () -> petDao.addFriends(1L, List.of(1L, 2L)));
+        verifyNoInteractions(entityManager);
+    }
+
+    private void stubTransaction() {
+        when(entityManager.getTransaction()).thenReturn(transaction);
+    }
+
+    private void stubExistingIds(List<Long> ids) {
+        when(entityManager.createQuery("SELECT p.id FROM Pet p WHERE p.id IN :ids", Long.class)).thenReturn(idQuery);
+        when(idQuery.setParameter(eq("ids"), any())).thenReturn(idQuery);
+        when(idQuery.getResultList()).thenReturn(ids);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void stubFriendsStatement(int updated) {
+        when(entityManager.createNativeQuery(anyString())).thenReturn(nativeQuery);
+        when(nativeQuery.unwrap(NativeQuery.class)).thenReturn((NativeQuery) hibernateNativeQuery);
+        when(hibernateNativeQuery.addSynchronizedQuerySpace("pet_friends")).thenReturn((NativeQuery) hibernateNativeQuery);
+        when(hibernateNativeQuery.setParameter(anyInt(), any())).thenReturn((NativeQuery) hibernateNativeQuery);
+        when(hibernateNativeQuery.executeUpdate()).thenReturn(updated);
+    }
+}
@@ -0,0 +1,82 @@
+package ru.dulfi.db;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolTest {
+    @BeforeEach
+    void setUp() {
+        ConnectionPool.close();
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty("db.pool.maximumPoolSize");
+        ConnectionPool.close();
+    }
+
+    @Test
+    void testCreateConfigFromProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("db.url", "jdbc:postgresql://localhost:5432/test");
+        properties.setProperty("db.username", "user");
+        properties.setProperty("db.pool.maximumPoolSize", "20");
+        properties.setProperty("db.pool.minimumIdle", "5");
+
+        HikariConfig config = ConnectionPool.createConfig(properties);
+
+        assertEquals("jdbc:postgresql://localhost:5432/test", config.getJdbcUrl());
+        assertEquals("user", config.getUsername());
+        assertEquals(20, config.getMaximumPoolSize());
+        assertEquals(5, config.getMinimumIdle());
+        assertEquals(5_000, config.getConnectionTimeout());
+        assertFalse(config.isAutoCommit());
+        assertSame(ConnectionPool.getMetrics(), config.getMetricsTrackerFactory());
+    }
+
+    @Test
+    void testSystemPropertyOverridesFile() {
+        Properties properties = new Properties();
+        properties.setProperty("db.url", "jdbc:postgresql://localhost:5432/test");
+        properties.setProperty("db.pool.maximumPoolSize", "20");
+        System.setProperty("db.pool.maximumPoolSize", "4");
+
+        assertEquals(4, ConnectionPool.createConfig(properties).getMaximumPoolSize());
+    }
+
+    @Test
+    void testPoolMetrics() {
+        PoolMetrics metrics = new PoolMetrics();
+        IMetricsTracker tracker = metrics.create("test", null);
+
+        tracker.recordConnectionAcquiredNanos(2_000);
+        tracker.recordConnectionAcquiredNanos(6_000);
+        tracker.recordConnectionUsageMillis(10);
+        tracker.recordConnectionTimeout();
+
+        assertEquals(2, metrics.getAcquisitions());
+        assertEquals(4.0, metrics.getAverageAcquireMicros());
+        assertEquals(6.0, metrics.getMaxAcquireMicros());
+        assertEquals(10.0, metrics.getAverageUsageMillis());
+        assertEquals(1, metrics.getTimeouts());
+    }
+
+    @Test
+    void testStatsWhenPoolNotStarted() {
+        assertEquals(new ConnectionPoolStats(0, 0, 0, 0), ConnectionPool.getStats());
+    }
+
+    @Test
+    void testGetDataSourceFailsAfterClose() {
+        ConnectionPool.close();
+
+        assertThrows(IllegalStateException.class, ConnectionPool::getDataSource);
+    }
+}
@@ -0,0 +1,78 @@
+package ru.dulfi.db;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class SchemaIndexUsageTest {
+    private static PGSimpleDataSource dataSource;
+
+    @BeforeAll
+    static void setUp() {
+        Properties properties = ConnectionPool.loadProperties();
+        dataSource = new PGSimpleDataSource();
+        dataSource.setURL(System.getProperty("db.url", properties.getProperty("db.url")));
+        dataSource.setUser(System.getProperty("db.username", properties.getProperty("db.username")));
+        dataSource.setPassword(System.getProperty("db.password", properties.getProperty("db.password")));
+        dataSource.setConnectTimeout(2);
+        assumeTrue(isAvailable(), "PostgreSQL недоступен, проверка индексов пропущена");
+        new SchemaMigrator(dataSource).migrate();
+    }
+
+    @Test
+    void testMigrationIsIdempotent() {
+        SchemaMigrator migrator = new SchemaMigrator(dataSource);
+
+        assertEquals(0, migrator.migrate());
+        assertEquals(SchemaMigrator.MIGRATIONS.size(), migrator.currentVersion());
+    }
+
+    @Test
+    void testOwnerLookupUsesIndex() throws SQLException {
+        assertTrue(explain("UPDATE pets SET owner_id = NULL WHERE owner_id = 1").contains("idx_pets_owner_id"));
+    }
+
+    @Test
+    void testReverseFriendLookupUsesIndex() throws SQLException {
+        String plan = explain("SELECT pet_id FROM pet_friends WHERE friend_id = 1");
+        assertTrue(plan.contains("idx_pet_friends_friend_id"), plan);
+    }
+
+    @Test
+    void testNameSearchUsesIndex() throws SQLException {
+        assertTrue(explain("SELECT id FROM pets WHERE name = 'Barsik'").contains("idx_pets_name"));
+    }
+
+    private static String explain(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            statement.execute("SET LOCAL enable_seqscan = off");
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = statement.executeQuery("EXPLAIN " + sql)) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+            }
+            connection.rollback();
+            return plan.toString();
+        }
+    }
+
+    private static boolean isAvailable() {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.isValid(2);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+}
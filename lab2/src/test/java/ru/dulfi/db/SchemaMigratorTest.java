@@ -0,0 +1,61 @@
+package ru.dulfi.db;
+
+import org.junit.jupiter.api.Test;
+import ru.dulfi.exception.DatabaseException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SchemaMigratorTest {
+    @Test
+    void testMigrationsAreContiguousAndLoadable() {
+        for (int i = 0; i < SchemaMigrator.MIGRATIONS.size(); i++) {
+            Migration migration = SchemaMigrator.MIGRATIONS.get(i);
+            assertEquals(i + 1, migration.version());
+            assertFalse(migration.load().isBlank());
+        }
+    }
+
+    @Test
+    void testChecksumIgnoresLineEndings() {
+        assertEquals(Migration.checksum("CREATE TABLE a (id INT);\nSELECT 1;\n"),
+                Migration.checksum("CREATE TABLE a (id INT);\r\nSELECT 1;"));
+        assertNotEquals(Migration.checksum("SELECT 1;"), Migration.checksum("SELECT 2;"));
+    }
+
+    @Test
+    void testRejectsVersionGap() {
+        List<Migration> migrations = List.of(
+                new Migration(1, "baseline", "db/migration/V1__baseline.sql"),
+                new Migration(3, "gap", "db/migration/V3__gap.sql"));
+
+        assertThrows(IllegalArgumentException.class, () -> new SchemaMigrator(mock(DataSource.class), migrations));
+    }
+
+    @Test
+    void testRejectsChangedAppliedMigration() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery("SELECT version, checksum FROM schema_version")).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getInt(1)).thenReturn(1);
+        when(resultSet.getLong(2)).thenReturn(0L);
+
+        assertThrows(DatabaseException.class, () -> new SchemaMigrator(dataSource).migrate());
+
+        verify(connection).rollback();
+        verify(connection, never()).commit();
+        verify(connection).setAutoCommit(true);
+    }
+}
@@ -0,0 +1,62 @@
+package ru.dulfi.db;
+
+import org.ehcache.config.ResourceType;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.ehcache.config.CacheRuntimeConfiguration;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SecondLevelCacheTest {
+    @Test
+    void testRegionsAreConfiguredWithTtl() throws Exception {
+        CachingProvider provider = Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        try (CacheManager cacheManager = provider.getCacheManager(
+                getClass().getClassLoader().getResource("ehcache.xml").toURI(), getClass().getClassLoader())) {
+            for (String region : new String[]{"ru.dulfi.domain.Owner", "ru.dulfi.domain.Pet", "ru.dulfi.domain.Pet.friends",
+                    "default-query-results-region", "default-update-timestamps-region"}) {
+                assertNotNull(cacheManager.getCache(region), region);
+            }
+
+            Cache<Object, Object> pets = cacheManager.getCache("ru.dulfi.domain.Pet");
+            @SuppressWarnings("unchecked")
+            Eh107Configuration<Object, Object> eh107Configuration = pets.getConfiguration(Eh107Configuration.class);
+            @SuppressWarnings("unchecked")
+            CacheRuntimeConfiguration<Object, Object> configuration = eh107Configuration.unwrap(CacheRuntimeConfiguration.class);
+            assertEquals(Duration.ofMinutes(10), configuration.getExpiryPolicy().getExpiryForCreation(1L, "pet"));
+            assertEquals(50_000, configuration.getResourcePools().getPoolForResource(ResourceType.Core.HEAP).getSize());
+        }
+    }
+
+    @Test
+    void testCacheStatsFromStatistics() {
+        Statistics statistics = mock(Statistics.class);
+        when(statistics.getSecondLevelCacheHitCount()).thenReturn(3L);
+        when(statistics.getSecondLevelCacheMissCount()).thenReturn(1L);
+        when(statistics.getSecondLevelCachePutCount()).thenReturn(1L);
+        when(statistics.getQueryCacheHitCount()).thenReturn(0L);
+        when(statistics.getQueryCacheMissCount()).thenReturn(2L);
+        when(statistics.getQueryCachePutCount()).thenReturn(2L);
+
+        CacheStats stats = CacheStats.of(statistics);
+
+        assertEquals(3, stats.secondLevelHits());
+        assertEquals(0.75, stats.secondLevelHitRatio());
+        assertEquals(0, stats.queryHitRatio());
+        assertEquals(2, stats.queryPuts());
+    }
+
+    @Test
+    void testHitRatioWithoutLookups() {
+        assertEquals(0, new CacheStats(0, 0, 0, 0, 0, 0).secondLevelHitRatio());
+    }
+}
@@ -0,0 +1,148 @@
+package ru.dulfi.db;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.RollbackException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import ru.dulfi.dao.OwnerDao;
+import ru.dulfi.domain.Owner;
+import ru.dulfi.exception.DatabaseException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UnitOfWorkTest {
+    private EntityManager entityManager;
+    private EntityTransaction transaction;
+    private Supplier<EntityManager> factory;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        entityManager = mock(EntityManager.class);
+        transaction = mock(EntityTransaction.class);
+        when(entityManager.getTransaction()).thenReturn(transaction);
+        factory = mock(Supplier.class);
+        when(factory.get()).thenReturn(entityManager);
+    }
+
+    @Test
+    void testDaoCallsShareOneEntityManagerAndTransaction() {
+        Owner owner = new Owner();
+        owner.setId(1L);
+        when(entityManager.find(Owner.class, 1L)).thenReturn(owner);
+        when(entityManager.merge(owner)).thenReturn(owner);
+        when(transaction.isActive()).thenReturn(true);
+        OwnerDao ownerDao = new OwnerDao();
+
+        Owner updated = UnitOfWork.call(factory, () -> {
+            assertNotNull(ownerDao.getById(1L));
+            return ownerDao.update(owner);
+        });
+
+        assertSame(owner, updated);
+        verify(factory, times(1)).get();
+        verify(transaction, times(1)).begin();
+        verify(transaction, times(1)).commit();
+        verify(entityManager, times(1)).close();
+        assertFalse(UnitOfWork.isActive());
+    }
+
+    @Test
+    void testNestedCallsJoinOuterUnit() {
+        UnitOfWork.call(factory, () -> UnitOfWork.call(() -> UnitOfWork.entityManager()));
+
+        verify(factory, times(1)).get();
+        verify(transaction, times(1)).commit();
+    }
+
+    @Test
+    void testNoEntityManagerWithoutDatabaseAccess() {
+        assertEquals(42, UnitOfWork.call(factory, () -> 42));
+
+        verifyNoInteractions(factory);
+    }
+
+    @Test
+    void testFailureRollsBackAndSkipsAfterCommit() {
+        when(transaction.isActive()).thenReturn(true);
+        List<String> events = new ArrayList<>();
+
+        assertThrows(IllegalStateException.class, () -> UnitOfWork.call(factory, () -> {
+            UnitOfWork.entityManager();
+            UnitOfWork.afterCommit(() -> events.add("after"));
+            throw new IllegalStateException("boom");
+        }));
+
+        verify(transaction).rollback();
+        verify(transaction, never()).commit();
+        verify(entityManager).close();
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void testCommitFailureWrappedInDatabaseException() {
+        RollbackException failure = new RollbackException("commit failed");
+        doThrow(failure).when(transaction).commit();
+        List<String> events = new ArrayList<>();
+
+        DatabaseException exception = assertThrows(DatabaseException.class, () -> UnitOfWork.call(factory, () -> {
+            UnitOfWork.entityManager();
+            UnitOfWork.afterCommit(() -> events.add("after"));
+            return null;
+        }));
+
+        assertSame(failure, exception.getCause());
+        verify(entityManager).close();
+        assertTrue(events.isEmpty());
+        assertFalse(UnitOfWork.isActive());
+    }
+
+    @Test
+    void testAfterCommitRunsAfterCommit() {
+        List<String> events = new ArrayList<>();
+
+        UnitOfWork.call(factory, () -> {
+            UnitOfWork.entityManager();
+            UnitOfWork.afterCommit(() -> events.add("after"));
+            assertTrue(events.isEmpty());
+            return null;
+        });
+
+        InOrder order = inOrder(transaction, entityManager);
+        order.verify(transaction).commit();
+        order.verify(entityManager).close();
+        assertEquals(List.of("after"), events);
+    }
+
+    @Test
+    void testAfterCommitOutsideUnitRunsImmediately() {
+        List<String> events = new ArrayList<>();
+
+        UnitOfWork.afterCommit(() -> events.add("now"));
+
+        assertEquals(List.of("now"), events);
+    }
+
+    @Test
+    void testJoinedTransactionMarksRollbackOnly() {
+        UnitOfWork.call(factory, () -> {
+            EntityManager em = UnitOfWork.entityManager();
+            EntityTransaction joined = UnitOfWork.transaction(em);
+            joined.begin();
+            joined.rollback();
+            joined.commit();
+            return null;
+        });
+
+        verify(transaction, times(1)).begin();
+        verify(transaction).setRollbackOnly();
+        verify(transaction, never()).rollback();
+    }
+}
@@ -0,0 +1,140 @@
+package ru.dulfi.graph;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FriendAdjacencyIndexTest {
+    private FriendAdjacencyIndex index;
+
+    @BeforeEach
+    void setUp() {
+        long[][] edges = {{1, 2}, {2, 3}, {3, 4}, {4, 5}, {1, 6}, {6, 3}, {2, 6}};
+        index = FriendAdjacencyIndex.load(consumer -> {
+            for (long[] edge : edges) {
+                consumer.accept(edge[0], edge[1]);
+            }
+            consumer.accept(2, 1);
+        });
+    }
+
+    @Test
+    void testLoadDeduplicatesSymmetricEdges() {
+        assertEquals(6, index.vertexCount());
+        assertEquals(7, index.edgeCount());
+    }
+
+    @Test
+    void testNeighboursOrderedByDistanceThenId() {
+        assertArrayEquals(new long[]{2, 6}, index.neighbours(1, 1));
+        assertArrayEquals(new long[]{2, 6, 3}, index.neighbours(1, 2));
+        assertArrayEquals(new long[]{2, 6, 3, 4, 5}, index.neighbours(1, 10));
+        assertArrayEquals(new long[0], index.neighbours(42, 2));
+    }
+
+    @Test
+    void testMutualFriends() {
+        assertArrayEquals(new long[]{2, 6}, index.mutualFriends(1, 3));
+        assertArrayEquals(new long[]{6}, index.mutualFriends(1, 2));
+        assertArrayEquals(new long[0], index.mutualFriends(1, 5));
+    }
+
+    @Test
+    void testShortestPath() {
+        long[] path = index.shortestPath(1, 5, 6);
+        assertEquals(5, path.length);
+        assertEquals(1, path[0]);
+        assertEquals(3, path[2]);
+        assertEquals(5, path[4]);
+        assertArrayEquals(new long[0], index.shortestPath(1, 5, 3));
+        assertArrayEquals(new long[]{4}, index.shortestPath(4, 4, 1));
+    }
+
+    @Test
+    void testIncrementalUpdates() {
+        index.friendshipAdded(1, 5);
+        index.friendshipAdded(5, 1);
+        assertEquals(8, index.edgeCount());
+        assertArrayEquals(new long[]{1, 5}, index.shortestPath(1, 5, 6));
+
+        index.friendshipRemoved(5, 1);
+        assertEquals(5, index.shortestPath(1, 5, 6).length);
+
+        index.petDeleted(3);
+        assertArrayEquals(new long[0], index.shortestPath(1, 5, 6));
+        assertArrayEquals(new long[]{2, 6}, index.neighbours(1, 3));
+        assertEquals(4, index.edgeCount());
+
+        index.friendshipAdded(7, 8);
+        assertArrayEquals(new long[]{8}, index.neighbours(7, 1));
+
+        index.allPetsDeleted();
+        assertEquals(0, index.edgeCount());
+        assertArrayEquals(new long[0], index.neighbours(1, 2));
+    }
+
+    @Test
+    void testMatchesBreadthFirstSearchOnRandomGraph() {
+        Random random = new Random(7);
+        int vertices = 2_000;
+        Map<Long, Set<Long>> graph = new HashMap<>();
+        List<long[]> edges = new ArrayList<>();
+        for (int i = 0; i < vertices * 2; i++) {
+            long a = 1 + random.nextInt(vertices);
+            long b = 1 + random.nextInt(vertices);
+            if (a != b) {
+                edges.add(new long[]{a, b});
+                graph.computeIfAbsent(a, key -> new HashSet<>()).add(b);
+                graph.computeIfAbsent(b, key -> new HashSet<>()).add(a);
+            }
+        }
+        FriendAdjacencyIndex randomIndex = FriendAdjacencyIndex.load(consumer -> edges.forEach(e -> consumer.accept(e[0], e[1])));
+
+        for (int i = 0; i < 200; i++) {
+            long from = 1 + random.nextInt(vertices);
+            long to = 1 + random.nextInt(vertices);
+            Map<Long, Integer> distances = distances(graph, from);
+            long[] path = randomIndex.shortestPath(from, to, 8);
+            Integer expected = distances.get(to);
+            if (expected == null || expected > 8 || !graph.containsKey(from)) {
+                assertEquals(from == to ? 1 : 0, path.length, from + " -> " + to);
+                continue;
+            }
+            assertEquals(expected + 1, path.length, from + " -> " + to);
+            assertEquals(from, path[0]);
+            assertEquals(to, path[path.length - 1]);
+            for (int step = 1; step < path.length; step++) {
+                assertTrue(graph.get(path[step - 1]).contains(path[step]));
+            }
+            assertEquals(distances.entrySet().stream().filter(e -> e.getValue() >= 1 && e.getValue() <= 2).count(),
+                    randomIndex.neighbours(from, 2).length);
+        }
+    }
+
+    private Map<Long, Integer> distances(Map<Long, Set<Long>> graph, long from) {
+        Map<Long, Integer> distances = new HashMap<>();
+        ArrayDeque<Long> queue = new ArrayDeque<>();
+        distances.put(from, 0);
+        queue.add(from);
+        while (!queue.isEmpty()) {
+            long vertex = queue.poll();
+            for (long next : graph.getOrDefault(vertex, Set.of())) {
+                if (!distances.containsKey(next)) {
+                    distances.put(next, distances.get(vertex) + 1);
+                    queue.add(next);
+                }
+            }
+        }
+        return distances;
+    }
+}
@@ -0,0 +1,160 @@
+package ru.dulfi.importer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.dulfi.dao.OwnerDao;
+import ru.dulfi.dao.PetDao;
+import ru.dulfi.domain.Owner;
+import ru.dulfi.domain.Pet;
+import ru.dulfi.exception.DatabaseException;
+import ru.dulfi.graph.FriendGraph;
+import ru.dulfi.service.OwnerService;
+import ru.dulfi.service.PetService;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkImporterTest {
+    @Mock
+    private OwnerDao ownerDao;
+
+    @Mock
+    private PetDao petDao;
+
+    @Mock
+    private FriendGraph friendGraph;
+
+    private OwnerService ownerService;
+    private PetService petService;
+    private InMemoryWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        ownerService = new OwnerService(ownerDao);
+        petService = new PetService(petDao, ownerDao, friendGraph);
+        writer = new InMemoryWriter();
+    }
+
+    @Test
+    void testImportResolvesOwnerReferencesAcrossChunks() throws IOException {
+        StringBuilder csv = new StringBuilder("type,ref,name,birth_date,breed,color,owner_ref\n");
+        for (int i = 0; i < 50; i++) {
+            csv.append("owner,o").append(i).append(",Владелец ").append(i).append(",1990-01-01,,,\n");
+            csv.append("pet,,Питомец ").append(i).append(",2020-01-01,Дворняга,GRAY,o").append(i).append('\n');
+        }
+        csv.append("pet,,Бездомный,2021-01-01,Дворняга,WHITE,\n");
+
+        List<Long> progress = new ArrayList<>();
+        ImportReport report = new BulkImporter(ownerService, petService, () -> writer, 3, 7)
+                .importRecords(new CsvRecordReader(new StringReader(csv.toString())),
+                        (rows, rejected, rowsPerSecond) -> progress.add(rows));
+
+        assertEquals(50, report.owners());
+        assertEquals(51, report.pets());
+        assertEquals(0, report.rejected());
+        assertEquals(101, report.rows());
+        assertEquals(List.of(7L, 14L), progress.subList(0, 2));
+        assertEquals(101L, progress.get(progress.size() - 1));
+        assertEquals(progress.size(), writer.commits);
+
+        for (int i = 0; i < 50; i++) {
+            Pet pet = writer.pets.get(i);
+            Owner owner = writer.owners.get(i);
+            assertEquals("Питомец " + i, pet.getName());
+            assertEquals("Владелец " + i, owner.getName());
+            assertEquals(owner.getId(), pet.getOwner().getId());
+        }
+        assertNull(writer.pets.get(50).getOwner());
+        assertTrue(writer.closed);
+    }
+
+    @Test
+    void testInvalidRowsAreRejectedWithLineNumbers() throws IOException {
+        String csv = """
+                type,ref,name,birth_date,breed,color,owner_ref
+                owner,o1,Иван,1990-01-01,,,
+                owner,o1,Пётр,1991-01-01,,,
+                owner,,Без ссылки,1991-01-01,,,
+                owner,o2,,1991-01-01,,,
+                pet,,Барсик,01.01.2020,Сиамская,BLACK,o1
+                pet,,Мурзик,2020-01-01,Сиамская,PURPLE,o1
+                pet,,Шарик,2020-01-01,Дворняга,BROWN,o9
+                pet,,Рекс,2020-01-01,Овчарка,BROWN,o1
+                fish,,Немо,2020-01-01,,,
+                """;
+
+        ImportReport report = new BulkImporter(ownerService, petService, () -> writer, 2, 4)
+                .importRecords(new CsvRecordReader(new StringReader(csv)), ImportProgressListener.NONE);
+
+        assertEquals(1, report.owners());
+        assertEquals(1, report.pets());
+        assertEquals(7, report.rejected());
+        assertEquals(List.of(3L, 4L, 5L, 6L, 7L, 8L, 10L), report.errors().stream().map(ImportError::line).toList());
+        assertEquals("Имя владельца не может быть пустым", report.errors().get(2).message());
+        assertEquals("Рекс", writer.pets.get(0).getName());
+    }
+
+    @Test
+    void testWriteFailureRollsBackAndStopsImport() {
+        writer.failOnPets = true;
+        String json = """
+                {"type": "owner", "ref": "o1", "name": "Иван", "birth_date": "1990-01-01"}
+                {"type": "pet", "name": "Барсик", "birth_date": "2020-05-05", "breed": "Сиамская", "color": "BLACK"}
+                """;
+
+        BulkImporter importer = new BulkImporter(ownerService, petService, () -> writer, 1, 10);
+        assertThrows(DatabaseException.class, () ->
+                importer.importRecords(new JsonRecordReader(new StringReader(json)), ImportProgressListener.NONE));
+        assertEquals(1, writer.rollbacks);
+        assertEquals(0, writer.commits);
+        assertTrue(writer.closed);
+    }
+
+    private static final class InMemoryWriter implements ImportWriter {
+        private final List<Owner> owners = new ArrayList<>();
+        private final List<Pet> pets = new ArrayList<>();
+        private long nextId = 1;
+        private int commits;
+        private int rollbacks;
+        private boolean closed;
+        private boolean failOnPets;
+
+        @Override
+        public void insertOwners(List<Owner> batch) {
+            batch.forEach(owner -> owner.setId(nextId++));
+            owners.addAll(batch);
+        }
+
+        @Override
+        public void insertPets(List<Pet> batch) {
+            if (failOnPets) {
+                throw new DatabaseException("Ошибка при импорте питомцев");
+            }
+            batch.forEach(pet -> pet.setId(nextId++));
+            pets.addAll(batch);
+        }
+
+        @Override
+        public void commit() {
+            commits++;
+        }
+
+        @Override
+        public void rollback() {
+            rollbacks++;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
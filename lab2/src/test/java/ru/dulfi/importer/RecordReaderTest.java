@@ -0,0 +1,94 @@
+package ru.dulfi.importer;
+
+import org.junit.jupiter.api.Test;
+import ru.dulfi.exception.ValidationException;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordReaderTest {
+    @Test
+    void testCsvReadsQuotedFieldsByHeaderName() throws IOException {
+        String csv = """
+                owner_ref,type,name,birth_date,breed,color,ref
+                ,owner,"Иванов, Иван",1990-01-01,,,o1
+
+                o1,pet,"Барсик \"\"Младший\"\"",2020-05-05,Сиамская,black,
+                """;
+        try (CsvRecordReader reader = new CsvRecordReader(new StringReader(csv))) {
+            ImportRecord owner = reader.next();
+            assertEquals(2, owner.line());
+            assertEquals("owner", owner.type());
+            assertEquals("Иванов, Иван", owner.name());
+            assertEquals("o1", owner.ref());
+            assertNull(owner.breed());
+            assertNull(owner.ownerRef());
+
+            ImportRecord pet = reader.next();
+            assertEquals(4, pet.line());
+            assertEquals("Барсик \"Младший\"", pet.name());
+            assertEquals("black", pet.color());
+            assertEquals("o1", pet.ownerRef());
+            assertNull(pet.ref());
+
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void testCsvMultilineFieldKeepsLineNumbers() throws IOException {
+        String csv = "type,name\r\npet,\"Много\nстрок\"\r\nowner,Пётр\r\n";
+        try (CsvRecordReader reader = new CsvRecordReader(new StringReader(csv))) {
+            ImportRecord first = reader.next();
+            assertEquals(2, first.line());
+            assertEquals("Много\nстрок", first.name());
+            assertEquals(4, reader.next().line());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void testCsvRejectsHeaderWithoutType() {
+        assertThrows(ValidationException.class, () -> new CsvRecordReader(new StringReader("name,ref\nИван,o1\n")));
+        assertThrows(ValidationException.class, () -> new CsvRecordReader(new StringReader("")));
+    }
+
+    @Test
+    void testJsonArray() throws IOException {
+        String json = """
+                [
+                  {"type": "owner", "ref": "o1", "name": "Иван", "birth_date": "1990-01-01", "extra": {"a": [1, 2]}},
+                  {"type": "pet", "name": "Барсик", "birth_date": "2020-05-05", "breed": "Сиамская",
+                   "color": "BLACK", "owner_ref": "o1", "ref": null}
+                ]
+                """;
+        try (JsonRecordReader reader = new JsonRecordReader(new StringReader(json))) {
+            ImportRecord owner = reader.next();
+            assertEquals(2, owner.line());
+            assertEquals("o1", owner.ref());
+            assertEquals("1990-01-01", owner.birthDate());
+
+            ImportRecord pet = reader.next();
+            assertEquals(3, pet.line());
+            assertEquals("o1", pet.ownerRef());
+            assertNull(pet.ref());
+
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void testJsonLines() throws IOException {
+        String json = """
+                {"type": "owner", "ref": "o1", "name": "Иван"}
+                {"type": "pet", "name": "Барсик", "owner_ref": "o1"}
+                """;
+        try (JsonRecordReader reader = new JsonRecordReader(new StringReader(json))) {
+            assertEquals("owner", reader.next().type());
+            assertEquals(2, reader.next().line());
+            assertNull(reader.next());
+        }
+    }
+}
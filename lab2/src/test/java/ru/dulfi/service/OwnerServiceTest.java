@@ -140,6 +140,23 @@ class OwnerServiceTest {
         verify(ownerDao).getAllWithPets();
     }
 
+    @Test
+    void testGetPageWithPets_ShouldDelegateToDao() {
+        List<Owner> owners = List.of(createTestOwner());
+        when(ownerDao.getPageWithPets(10L, 20)).thenReturn(owners);
+
+        List<Owner> page = ownerService.getPageWithPets(10L, 20);
+
+        assertEquals(owners, page);
+        verify(ownerDao).getPageWithPets(10L, 20);
+    }
+
+    @Test
+    void testGetPageWithPets_InvalidLimit_ShouldThrowException() {
+        assertThrows(ValidationException.class, () -> ownerService.getPageWithPets(null, 0));
+        verify(ownerDao, never()).getPageWithPets(any(), anyInt());
+    }
+
     private Owner createTestOwner() {
         Owner owner = new Owner();
         owner.setId(1L);